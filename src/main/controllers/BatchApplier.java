@@ -0,0 +1,145 @@
+package main.controllers;
+
+import main.model.Epic;
+import main.model.Subtask;
+import main.model.Task;
+import main.model.TaskType;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+//Применение пакета операций с журналом отмены: каждая выполненная операция кладёт в журнал обратное
+//действие, и при первой ошибке (например, пересечении по времени) журнал проигрывается в обратном
+//порядке. Пересечения проверяются обычными методами менеджера против состояния с уже применёнными
+//операциями пакета, поэтому конфликты внутри пакета ловятся так же, как с существующими задачами.
+//История просмотров в откат не входит.
+//Хранилище менеджера (BoardStorage) читается и восстанавливается в обход истории просмотров.
+final class BatchApplier {
+    private BatchApplier() {
+    }
+
+    //Результат - задача каждой операции: добавленная или обновлённая с присвоенным id,
+    //для удаления - удалённая задача или null, если её не было
+    static List<Task> apply(TaskManager manager, BoardStorage storage, List<BatchOperation> operations) {
+        validate(operations);
+
+        List<Task> results = new ArrayList<>(operations.size());
+        Deque<Runnable> undo = new ArrayDeque<>();
+        try {
+            for (BatchOperation operation : operations) {
+                switch (operation.getKind()) {
+                    case ADD:
+                        results.add(add(manager, operation, results, undo));
+                        break;
+                    case UPDATE:
+                        results.add(update(manager, storage, operation.getTask(), undo));
+                        break;
+                    default:
+                        results.add(delete(manager, storage, operation.getId(), undo));
+                }
+            }
+        } catch (RuntimeException e) {
+            while (!undo.isEmpty()) {
+                undo.pop().run();
+            }
+            throw e;
+        }
+        return results;
+    }
+
+    //Ошибки в самом пакете находятся до применения первой операции
+    private static void validate(List<BatchOperation> operations) {
+        for (int i = 0; i < operations.size(); i++) {
+            BatchOperation operation = operations.get(i);
+            if (operation == null) {
+                throw new IllegalArgumentException("Пустая операция пакета: " + i);
+            }
+            Integer epicRef = operation.getEpicRef();
+            if (epicRef == null) {
+                continue;
+            }
+            if (operation.getTask().getType() != TaskType.SUBTASK) {
+                throw new IllegalArgumentException("Ссылка на эпик допустима только у подзадачи: " + i);
+            }
+            if (epicRef < 0 || epicRef >= i || operations.get(epicRef).getKind() != BatchOperation.Kind.ADD
+                    || operations.get(epicRef).getTask().getType() != TaskType.EPIC) {
+                throw new IllegalArgumentException("Операция " + i + " ссылается не на добавление эпика: " + epicRef);
+            }
+        }
+    }
+
+    private static Task add(TaskManager manager, BatchOperation operation, List<Task> results, Deque<Runnable> undo) {
+        Task task = operation.getTask();
+        if (operation.getEpicRef() != null) {
+            ((Subtask) task).setEpicId(results.get(operation.getEpicRef()).getId());
+        }
+        int originalId = task.getId();
+        if (task.getType() == TaskType.EPIC) {
+            manager.addEpic((Epic) task);
+        } else if (task.getType() == TaskType.SUBTASK) {
+            manager.addSubtask((Subtask) task);
+        } else {
+            manager.addTask(task);
+        }
+        undo.push(() -> {
+            manager.deleteTaskById(task.getId());
+            task.setId(originalId);
+        });
+        return task;
+    }
+
+    private static Task update(TaskManager manager, BoardStorage storage, Task task, Deque<Runnable> undo) {
+        Task existing = storage.find(task.getId());
+        put(manager, task);
+        if (existing != null && existing.getType() == task.getType()) {
+            undo.push(() -> put(manager, existing));
+        } else if (existing == null) {
+            //Обновление эпика с неизвестным id добавляет его
+            undo.push(() -> {
+                if (storage.find(task.getId()) != null) {
+                    manager.deleteTaskById(task.getId());
+                }
+            });
+        }
+        return task;
+    }
+
+    private static void put(TaskManager manager, Task task) {
+        if (task.getType() == TaskType.EPIC) {
+            manager.updateEpic((Epic) task);
+        } else if (task.getType() == TaskType.SUBTASK) {
+            manager.updateSubtask((Subtask) task);
+        } else {
+            manager.updateTask(task);
+        }
+    }
+
+    private static Task delete(TaskManager manager, BoardStorage storage, int id, Deque<Runnable> undo) {
+        Task existing = storage.find(id);
+        if (existing == null) {
+            return null;
+        }
+        List<Task> removed = new ArrayList<>();
+        removed.add(existing);
+        int position = -1;
+        if (existing.getType() == TaskType.SUBTASK) {
+            Task epic = storage.find(((Subtask) existing).getEpicId());
+            if (epic instanceof Epic) {
+                position = ((Epic) epic).getSubtasksIds().indexOf(id);
+            }
+        } else if (existing.getType() == TaskType.EPIC) {
+            for (Integer subtaskId : ((Epic) existing).getSubtasksIds()) {
+                Task subtask = storage.find(subtaskId);
+                if (subtask != null) {
+                    removed.add(subtask);
+                }
+            }
+        }
+        manager.deleteTaskById(id);
+        int restoredPosition = position;
+        undo.push(() -> storage.reinsert(removed, restoredPosition));
+        return existing;
+    }
+}
@@ -0,0 +1,68 @@
+package main.controllers;
+
+import main.model.Subtask;
+import main.model.Task;
+
+//Операция пакета TaskManager.applyBatch: добавление, обновление или удаление задачи любого типа.
+//Подзадача может ссылаться на эпик, добавляемый в том же пакете, через epicRef - номер операции
+//его добавления; id эпика подставляется при применении.
+public final class BatchOperation {
+    public enum Kind {
+        ADD,
+        UPDATE,
+        DELETE
+    }
+
+    private final Kind kind;
+    private final Task task;
+    private final int id;
+    private final Integer epicRef;
+
+    private BatchOperation(Kind kind, Task task, int id, Integer epicRef) {
+        this.kind = kind;
+        this.task = task;
+        this.id = id;
+        this.epicRef = epicRef;
+    }
+
+    public static BatchOperation add(Task task) {
+        return new BatchOperation(Kind.ADD, requireTask(task), 0, null);
+    }
+
+    //Подзадача эпика, добавляемого операцией с номером epicRef того же пакета
+    public static BatchOperation addSubtask(Subtask subtask, int epicRef) {
+        return new BatchOperation(Kind.ADD, requireTask(subtask), 0, epicRef);
+    }
+
+    public static BatchOperation update(Task task) {
+        return new BatchOperation(Kind.UPDATE, requireTask(task), 0, null);
+    }
+
+    public static BatchOperation delete(int id) {
+        return new BatchOperation(Kind.DELETE, null, id, null);
+    }
+
+    private static <T extends Task> T requireTask(T task) {
+        if (task == null) {
+            throw new IllegalArgumentException("Операция пакета без задачи.");
+        }
+        return task;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public Task getTask() {
+        return task;
+    }
+
+    //id задачи для UPDATE и DELETE
+    public int getId() {
+        return kind == Kind.UPDATE ? task.getId() : id;
+    }
+
+    public Integer getEpicRef() {
+        return epicRef;
+    }
+}
@@ -0,0 +1,336 @@
+package main.controllers;
+
+import main.model.Epic;
+import main.model.Subtask;
+import main.model.Task;
+import main.model.TaskStatus;
+import main.model.TaskType;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+//Двоичный снимок. Заголовок: MAGIC и байт версии. Далее записи: varint длины и тело, запись нулевой длины
+//завершает снимок, поэтому обрезанный файл обнаруживается при чтении. Тело записи:
+//  тип (ordinal), флаги, varint id, статус (ordinal), имя, описание, длительность в минутах,
+//  [начало], [окончание - только у эпика], [varint id эпика - только у подзадачи]
+//Строки - varint (длина в байтах UTF-8 + 1), 0 означает null. Время - минуты от эпохи в UTC, числа со знаком
+//кодируются zigzag. Байты в конце тела, которые версия не знает, пропускаются: так в запись можно дописывать поля.
+public class BinarySnapshotCodec implements SnapshotCodec {
+    static final byte[] MAGIC = {'K', 'N', 'B', 'N'};
+    static final int VERSION = 1;
+
+    private static final int HAS_START = 1;
+    private static final int HAS_END = 2;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_VARINT_LENGTH = 10;
+
+    private static final TaskType[] TYPES = TaskType.values();
+    private static final TaskStatus[] STATUSES = TaskStatus.values();
+
+    //Проверка заголовка двоичного снимка без расхода потока: поток должен поддерживать mark/reset
+    public static boolean isBinary(InputStream in) throws IOException {
+        in.mark(MAGIC.length);
+        byte[] head = in.readNBytes(MAGIC.length);
+        in.reset();
+        return Arrays.equals(head, MAGIC);
+    }
+
+    //Проверка заголовка по абсолютным позициям, позиция буфера не меняется
+    public static boolean isBinary(ByteBuffer buffer) {
+        if (buffer.remaining() < MAGIC.length) {
+            return false;
+        }
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (buffer.get(buffer.position() + i) != MAGIC[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void write(OutputStream out, Iterable<? extends Task> tasks) throws IOException {
+        Output output = new Output(out);
+        output.bytes(MAGIC, MAGIC.length);
+        output.varLong(VERSION);
+
+        Output record = new Output(null);
+        for (Task task : tasks) {
+            record.reset();
+            encode(record, task);
+            output.varLong(record.size());
+            output.bytes(record.buffer, record.size());
+        }
+        output.varLong(0);
+        output.flush();
+    }
+
+    private static void encode(Output record, Task task) throws IOException {
+        TaskType type = task.getType();
+        LocalDateTime start = task.getStartTime();
+        LocalDateTime end = type == TaskType.EPIC ? task.getEndTime() : null;
+
+        record.varLong(type.ordinal());
+        record.varLong((start != null ? HAS_START : 0) | (end != null ? HAS_END : 0));
+        record.varLong(Integer.toUnsignedLong(task.getId()));
+        record.varLong(task.getStatus().ordinal());
+        record.string(task.getTaskName());
+        record.string(task.getDescription());
+        record.zigzag(task.getDuration() != null ? task.getDuration().toMinutes() : 0);
+        if (start != null) {
+            record.zigzag(toEpochMinute(start));
+        }
+        if (end != null) {
+            record.zigzag(toEpochMinute(end));
+        }
+        if (type == TaskType.SUBTASK) {
+            record.varLong(Integer.toUnsignedLong(((Subtask) task).getEpicId()));
+        }
+    }
+
+    @Override
+    public void read(InputStream in, Consumer<Task> sink) throws IOException {
+        readRecords(new Input(in), sink);
+    }
+
+    //Чтение снимка из буфера, в котором он лежит целиком, например из отображённого в память файла.
+    //Записи разбираются прямо из буфера по одной, в кучу попадают только собранные задачи.
+    public static void read(ByteBuffer buffer, Consumer<Task> sink) throws IOException {
+        readRecords(new Input(buffer), sink);
+    }
+
+    private static void readRecords(Input input, Consumer<Task> sink) throws IOException {
+        try {
+            ByteBuffer buffer = input.require(MAGIC.length + 1);
+            byte[] magic = new byte[MAGIC.length];
+            buffer.get(magic);
+            if (!Arrays.equals(magic, MAGIC)) {
+                throw new IllegalArgumentException("Файл не является двоичным снимком задач");
+            }
+            int version = (int) readVarLong(buffer);
+            if (version != VERSION) {
+                throw new IllegalArgumentException("Неподдерживаемая версия снимка: " + version);
+            }
+
+            while (true) {
+                int length = (int) readVarLong(input.require(MAX_VARINT_LENGTH));
+                if (length == 0) {
+                    return;
+                }
+                buffer = input.require(length);
+                if (buffer.remaining() < length) {
+                    throw new EOFException("Снимок обрывается посреди записи");
+                }
+
+                int end = buffer.position() + length;
+                sink.accept(decode(buffer, input));
+                buffer.position(end);
+            }
+        } catch (BufferUnderflowException e) {
+            throw new EOFException("Снимок обрывается посреди записи");
+        }
+    }
+
+    private static Task decode(ByteBuffer buffer, Input input) {
+        TaskType type = TYPES[(int) readVarLong(buffer)];
+        int flags = (int) readVarLong(buffer);
+        int id = (int) readVarLong(buffer);
+        TaskStatus status = STATUSES[(int) readVarLong(buffer)];
+        String name = readString(buffer, input);
+        String description = readString(buffer, input);
+        Duration duration = Duration.ofMinutes(readZigzag(buffer));
+        LocalDateTime start = (flags & HAS_START) != 0 ? fromEpochMinute(readZigzag(buffer)) : null;
+        LocalDateTime end = (flags & HAS_END) != 0 ? fromEpochMinute(readZigzag(buffer)) : null;
+
+        Task task;
+        if (type == TaskType.EPIC) {
+            Epic epic = new Epic(name, description);
+            epic.setDuration(duration);
+            epic.setStartTime(start);
+            epic.setEndTime(end);
+            task = epic;
+        } else if (type == TaskType.SUBTASK) {
+            task = new Subtask(name, description, status, duration, start, (int) readVarLong(buffer));
+        } else {
+            task = new Task(name, description, status, duration, start);
+        }
+        task.setId(id);
+        return task;
+    }
+
+    private static long toEpochMinute(LocalDateTime value) {
+        return Math.floorDiv(value.toEpochSecond(ZoneOffset.UTC), 60);
+    }
+
+    private static LocalDateTime fromEpochMinute(long minute) {
+        return LocalDateTime.ofEpochSecond(minute * 60, 0, ZoneOffset.UTC);
+    }
+
+    private static long readVarLong(ByteBuffer buffer) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Слишком длинное число varint");
+    }
+
+    private static long readZigzag(ByteBuffer buffer) {
+        long value = readVarLong(buffer);
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static String readString(ByteBuffer buffer, Input input) {
+        int length = (int) readVarLong(buffer) - 1;
+        if (length < 0) {
+            return null;
+        }
+        String value;
+        if (buffer.hasArray()) {
+            value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length,
+                    StandardCharsets.UTF_8);
+        } else {
+            byte[] bytes = input.scratch(length);
+            buffer.get(buffer.position(), bytes, 0, length);
+            value = new String(bytes, 0, length, StandardCharsets.UTF_8);
+        }
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+
+    //Буфер записи. Без потока служит черновиком тела записи, длина которого пишется перед ним.
+    private static final class Output {
+        private final OutputStream out;
+        private byte[] buffer = new byte[256];
+        private int size;
+
+        Output(OutputStream out) {
+            this.out = out;
+            if (out != null) {
+                buffer = new byte[BUFFER_SIZE];
+            }
+        }
+
+        int size() {
+            return size;
+        }
+
+        void reset() {
+            size = 0;
+        }
+
+        void varLong(long value) throws IOException {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                buffer[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[size++] = (byte) value;
+        }
+
+        void zigzag(long value) throws IOException {
+            varLong((value << 1) ^ (value >> 63));
+        }
+
+        void string(String value) throws IOException {
+            if (value == null) {
+                varLong(0);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            varLong(bytes.length + 1L);
+            bytes(bytes, bytes.length);
+        }
+
+        void bytes(byte[] bytes, int length) throws IOException {
+            if (out != null && length > buffer.length) {
+                flushBuffer();
+                out.write(bytes, 0, length);
+                return;
+            }
+            ensure(length);
+            System.arraycopy(bytes, 0, buffer, size, length);
+            size += length;
+        }
+
+        void flush() throws IOException {
+            flushBuffer();
+            out.flush();
+        }
+
+        private void ensure(int length) throws IOException {
+            if (size + length <= buffer.length) {
+                return;
+            }
+            if (out != null) {
+                flushBuffer();
+            } else {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + length));
+            }
+        }
+
+        private void flushBuffer() throws IOException {
+            out.write(buffer, 0, size);
+            size = 0;
+        }
+    }
+
+    //Источник записей: поток, дочитываемый в собственный буфер, или буфер со всем снимком
+    private static final class Input {
+        private final InputStream in;
+        private ByteBuffer buffer;
+        //Промежуточный массив для строк из буфера вне кучи
+        private byte[] scratch = new byte[256];
+
+        Input(InputStream in) {
+            this.in = in;
+            this.buffer = ByteBuffer.allocate(BUFFER_SIZE).flip();
+        }
+
+        Input(ByteBuffer buffer) {
+            this.in = null;
+            this.buffer = buffer;
+        }
+
+        //Дочитывает поток, пока в буфере не окажется length байт или поток не закончится.
+        //Буфер при этом может смениться, поэтому работать нужно с возвращённым.
+        ByteBuffer require(int length) throws IOException {
+            if (in == null || buffer.remaining() >= length) {
+                return buffer;
+            }
+            if (buffer.capacity() < length) {
+                buffer = ByteBuffer.allocate(Math.max(length, buffer.capacity() * 2)).put(buffer);
+            } else {
+                buffer.compact();
+            }
+            while (buffer.position() < length) {
+                int read = in.read(buffer.array(), buffer.position(), buffer.remaining());
+                if (read < 0) {
+                    break;
+                }
+                buffer.position(buffer.position() + read);
+            }
+            return buffer.flip();
+        }
+
+        byte[] scratch(int length) {
+            if (scratch.length < length) {
+                scratch = new byte[Math.max(length, scratch.length * 2)];
+            }
+            return scratch;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package main.controllers;
+
+import main.model.Epic;
+import main.model.Subtask;
+import main.model.Task;
+import main.model.TaskType;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+//Неизменяемый срез доски одной версии: копии задач, эпиков и подзадач и приоритетный список из тех же копий.
+//Менеджер хранит последний срез в volatile-поле и отдаёт его, пока доска не меняется, поэтому чтение списков
+//не берёт блокировок и не копирует коллекции, а сериализация не видит изменений, сделанных после сборки среза.
+//Списки нельзя изменить; задачи в них - копии, изменять которые не нужно: срез общий для всех читателей.
+public final class BoardSnapshot {
+    private final long version;
+    private final List<Task> tasks;
+    private final List<Epic> epics;
+    private final List<Subtask> subtasks;
+    private final List<Task> prioritized;
+
+    private BoardSnapshot(long version, List<Task> tasks, List<Epic> epics, List<Subtask> subtasks,
+                          List<Task> prioritized) {
+        this.version = version;
+        this.tasks = tasks;
+        this.epics = epics;
+        this.subtasks = subtasks;
+        this.prioritized = prioritized;
+    }
+
+    //Сборка среза из живых коллекций менеджера за O(n). Вызывающий отвечает за то, чтобы доска
+    //не менялась во время сборки. Задача приоритетного списка, которой нет среди скопированных, пропускается.
+    static BoardSnapshot of(long version, Collection<? extends Task> tasks, Collection<Epic> epics,
+                            Collection<Subtask> subtasks, Collection<? extends Task> prioritized) {
+        Map<Integer, Task> copies = new HashMap<>();
+        List<Task> taskCopies = new ArrayList<>(tasks.size());
+        for (Task task : tasks) {
+            Task copy = copyOf(task);
+            taskCopies.add(copy);
+            copies.put(copy.getId(), copy);
+        }
+        List<Epic> epicCopies = new ArrayList<>(epics.size());
+        for (Epic epic : epics) {
+            epicCopies.add((Epic) copyOf(epic));
+        }
+        List<Subtask> subtaskCopies = new ArrayList<>(subtasks.size());
+        for (Subtask subtask : subtasks) {
+            Subtask copy = (Subtask) copyOf(subtask);
+            subtaskCopies.add(copy);
+            copies.put(copy.getId(), copy);
+        }
+        List<Task> prioritizedCopies = new ArrayList<>(prioritized.size());
+        for (Task task : prioritized) {
+            Task copy = copies.get(task.getId());
+            if (copy != null) {
+                prioritizedCopies.add(copy);
+            }
+        }
+        return new BoardSnapshot(version, Collections.unmodifiableList(taskCopies),
+                Collections.unmodifiableList(epicCopies), Collections.unmodifiableList(subtaskCopies),
+                Collections.unmodifiableList(prioritizedCopies));
+    }
+
+    //Копия задачи со всеми полями; у эпика копируются рассчитанные показатели и список подзадач
+    static Task copyOf(Task task) {
+        Task copy;
+        if (task.getType() == TaskType.EPIC) {
+            Epic epic = (Epic) task;
+            Epic epicCopy = new Epic(epic.getTaskName(), epic.getDescription());
+            epicCopy.setStatus(epic.getStatus());
+            epicCopy.setDuration(epic.getDuration());
+            epicCopy.setStartTime(epic.getStartTime());
+            epicCopy.setEndTime(epic.getEndTime());
+            epicCopy.setSubtasksIds(Collections.unmodifiableList(new ArrayList<>(epic.getSubtasksIds())));
+            copy = epicCopy;
+        } else if (task.getType() == TaskType.SUBTASK) {
+            Subtask subtask = (Subtask) task;
+            copy = new Subtask(subtask.getTaskName(), subtask.getDescription(), subtask.getStatus(),
+                    subtask.getDuration(), subtask.getStartTime(), subtask.getEpicId());
+        } else {
+            copy = new Task(task.getTaskName(), task.getDescription(), task.getStatus(), task.getDuration(),
+                    task.getStartTime());
+        }
+        copy.setId(task.getId());
+        return copy;
+    }
+
+    //Версия доски, которой соответствует срез; растёт с каждым изменением
+    public long getVersion() {
+        return version;
+    }
+
+    public List<Task> getTasks() {
+        return tasks;
+    }
+
+    public List<Epic> getEpics() {
+        return epics;
+    }
+
+    public List<Subtask> getSubtasks() {
+        return subtasks;
+    }
+
+    public List<Task> getPrioritized() {
+        return prioritized;
+    }
+}
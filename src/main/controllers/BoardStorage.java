@@ -0,0 +1,203 @@
+package main.controllers;
+
+import main.model.Epic;
+import main.model.Subtask;
+import main.model.Task;
+import main.model.TaskType;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+//Общая для InMemoryTaskManager и ConcurrentTaskManager логика над хранилищами и индексами доски:
+//поиск и выборка задач, учёт подзадач в эпиках, пересчёт показателей эпиков и возврат задач при откате пакета.
+//Сами коллекции принадлежат менеджеру и передаются сюда при создании; синхронизацию обеспечивает
+//менеджер: ConcurrentTaskManager вызывает методы под своими полосами и мониторами.
+final class BoardStorage {
+    private final Map<Integer, Task> tasks;
+    private final Map<Integer, Epic> epics;
+    private final Map<Integer, Subtask> subtasks;
+    private final StatusIndex statuses;
+    private final PrioritizedIndex prioritizedTasks;
+    private final TimeSlotIndex timeSlots;
+
+    BoardStorage(Map<Integer, Task> tasks, Map<Integer, Epic> epics, Map<Integer, Subtask> subtasks,
+                 StatusIndex statuses, PrioritizedIndex prioritizedTasks, TimeSlotIndex timeSlots) {
+        this.tasks = tasks;
+        this.epics = epics;
+        this.subtasks = subtasks;
+        this.statuses = statuses;
+        this.prioritizedTasks = prioritizedTasks;
+        this.timeSlots = timeSlots;
+    }
+
+    //Поиск задачи любого типа без записи в историю
+    Task find(int id) {
+        Task task = tasks.get(id);
+        if (task == null) {
+            task = epics.get(id);
+        }
+        return task != null ? task : subtasks.get(id);
+    }
+
+    Map<Integer, ? extends Task> storage(TaskType type) {
+        switch (type) {
+            case EPIC:
+                return epics;
+            case SUBTASK:
+                return subtasks;
+            default:
+                return tasks;
+        }
+    }
+
+    List<Subtask> subtasksOf(int epicId) {
+        Epic epic = epics.get(epicId);
+        if (epic == null) {
+            return new ArrayList<>();
+        }
+        List<Subtask> result = new ArrayList<>();
+        for (Integer subtaskId : epic.getSubtasksIds()) {
+            Subtask subtask = subtasks.get(subtaskId);
+            if (subtask != null) {
+                result.add(subtask);
+            }
+        }
+        return result;
+    }
+
+    //Полный пересчёт показателей эпика. Подзадачи читаются напрямую из хранилища,
+    //а не через getSubtaskById, чтобы не засорять историю просмотров.
+    void recalculateEpic(Epic epic) {
+        epic.excludeAllSubtasks();
+        for (Integer subtaskId : epic.getSubtasksIds()) {
+            Subtask subtask = subtasks.get(subtaskId);
+            if (subtask != null) {
+                epic.includeSubtask(subtask);
+            }
+        }
+        statuses.update(epic);
+    }
+
+    //Новая подзадача встаёт в конец списка своего эпика и сразу учитывается в его показателях
+    void attachToEpic(Subtask subtask) {
+        Epic epic = epics.get(subtask.getEpicId());
+        if (epic != null) {
+            epic.getSubtasksIds().add(subtask.getId());
+            epic.includeSubtask(subtask);
+            statuses.update(epic);
+        }
+    }
+
+    //Изменённая подзадача учитывается эпиком, только если уже входит в него
+    void refreshInEpic(Subtask subtask) {
+        Epic epic = epics.get(subtask.getEpicId());
+        if (epic != null && epic.containsSubtask(subtask.getId())) {
+            epic.includeSubtask(subtask);
+            statuses.update(epic);
+        }
+    }
+
+    void detachFromEpic(Subtask subtask) {
+        Epic epic = epics.get(subtask.getEpicId());
+        if (epic != null) {
+            epic.getSubtasksIds().remove((Integer) subtask.getId());
+            epic.excludeSubtask(subtask.getId());
+            statuses.update(epic);
+        }
+    }
+
+    //Все эпики остаются без подзадач
+    void detachAllSubtasks() {
+        for (Epic epic : epics.values()) {
+            epic.getSubtasksIds().clear();
+            epic.excludeAllSubtasks();
+            statuses.update(epic);
+        }
+    }
+
+    //Возврат удалённой при откате пакета задачи с прежними id; для эпика - вместе с подзадачами, которые
+    //идут в removed следом за ним. Эпик сохраняет список подзадач, возвращённая отдельно подзадача встаёт
+    //на прежнее место position в списке своего эпика (-1 - в конец). Версию доски отмечает менеджер.
+    void reinsert(List<Task> removed, int position) {
+        for (Task task : removed) {
+            if (task.getType() == TaskType.EPIC) {
+                epics.put(task.getId(), (Epic) task);
+            } else {
+                if (task.getType() == TaskType.SUBTASK) {
+                    subtasks.put(task.getId(), (Subtask) task);
+                    Epic epic = epics.get(((Subtask) task).getEpicId());
+                    if (epic != null && !epic.getSubtasksIds().contains(task.getId())) {
+                        List<Integer> ids = epic.getSubtasksIds();
+                        ids.add(position >= 0 && position <= ids.size() ? position : ids.size(), task.getId());
+                    }
+                } else {
+                    tasks.put(task.getId(), task);
+                }
+                prioritizedTasks.add(task);
+                timeSlots.add(task);
+            }
+            statuses.update(task);
+        }
+
+        Task first = removed.get(0);
+        Epic epic = first.getType() == TaskType.EPIC ? (Epic) first
+                : first.getType() == TaskType.SUBTASK ? epics.get(((Subtask) first).getEpicId()) : null;
+        if (epic != null) {
+            recalculateEpic(epic);
+        }
+    }
+
+    //Выборка по условиям. Кандидаты берутся из самого узкого индекса: списка подзадач эпика,
+    //индекса статусов или диапазона времени начала; остальные условия проверяются для каждого кандидата.
+    //На потокобезопасных коллекциях результат слабо согласован, как и их итераторы.
+    List<Task> findTasks(TaskQuery query) {
+        List<Task> result = new ArrayList<>();
+        if (query.getEpicId() != null) {
+            Epic epic = epics.get(query.getEpicId());
+            if (epic != null && query.accepts(TaskType.SUBTASK)) {
+                collect(epic.getSubtasksIds(), subtasks, query, result);
+            }
+        } else if (query.getStatus() != null) {
+            for (TaskType type : TaskType.values()) {
+                if (query.accepts(type)) {
+                    collect(statuses.ids(type, query.getStatus()), storage(type), query, result);
+                }
+            }
+        } else if (query.hasTimeRange()) {
+            //Эпики не входят в упорядоченный по времени набор и проверяются отдельно
+            collect(prioritizedTasks.startingBetween(query.getFrom(), query.getTo()), query, result);
+            if (query.accepts(TaskType.EPIC)) {
+                collect(epics.values(), query, result);
+            }
+        } else {
+            for (TaskType type : TaskType.values()) {
+                if (query.accepts(type)) {
+                    collect(storage(type).values(), query, result);
+                }
+            }
+        }
+        result.sort(Comparator.comparingInt(Task::getId));
+        return result;
+    }
+
+    private static void collect(Collection<Integer> ids, Map<Integer, ? extends Task> source, TaskQuery query,
+                                List<Task> result) {
+        for (Integer id : ids) {
+            Task task = source.get(id);
+            if (task != null && query.matches(task)) {
+                result.add(task);
+            }
+        }
+    }
+
+    private static void collect(Collection<? extends Task> candidates, TaskQuery query, List<Task> result) {
+        for (Task task : candidates) {
+            if (query.matches(task)) {
+                result.add(task);
+            }
+        }
+    }
+}
@@ -0,0 +1,645 @@
+package main.controllers;
+
+import main.exceptions.TimeConflictException;
+import main.metrics.MeterBinder;
+import main.metrics.MetricsRegistry;
+import main.model.Epic;
+import main.model.Subtask;
+import main.model.Task;
+import main.model.TaskType;
+
+import java.lang.invoke.VarHandle;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+//Потокобезопасный менеджер задач для многопоточного HTTP-сервера.
+//Чтение идёт без блокировок через ConcurrentSkipListMap.
+//Изменения подзадач и эпиков блокируют только полосу (stripe) своего эпика, поэтому
+//правки разных эпиков выполняются параллельно. Общим остаётся лишь короткий участок
+//проверки пересечений по времени: проверка и занятие интервала должны быть атомарны.
+public class ConcurrentTaskManager implements TaskManager, MeterBinder {
+    private static final int STRIPES = 64;
+    private static final int OPTIMISTIC_SNAPSHOT_ATTEMPTS = 4;
+
+    //Упорядочены по id для постраничного чтения без копирования всей коллекции
+    private final ConcurrentSkipListMap<Integer, Task> tasks = new ConcurrentSkipListMap<>();
+    private final ConcurrentSkipListMap<Integer, Epic> epics = new ConcurrentSkipListMap<>();
+    private final ConcurrentSkipListMap<Integer, Subtask> subtasks = new ConcurrentSkipListMap<>();
+    private final HistoryManager historyManager;
+    //Изменяется вместе с timeSlots под его монитором
+    private final PrioritizedIndex prioritizedTasks = PrioritizedIndex.concurrent();
+    private final TimeSlotIndex timeSlots = new TimeSlotIndex();
+    private final StatusIndex statuses = new StatusIndex();
+    private final BoardStorage board = new BoardStorage(tasks, epics, subtasks, statuses, prioritizedTasks,
+            timeSlots);
+    private final AtomicInteger nextId = new AtomicInteger(1);
+    private final ReentrantLock[] stripes = new ReentrantLock[STRIPES];
+    //Версия доски растёт после каждого изменения; срез пересобирается, только если его версия устарела
+    private final AtomicLong version = new AtomicLong();
+    //Число изменений, выполняющихся прямо сейчас, включая отклонённые; по нему срез проверяет,
+    //что собирался в промежутке без изменений
+    private final AtomicInteger activeWrites = new AtomicInteger();
+    private volatile BoardSnapshot snapshot;
+
+    public ConcurrentTaskManager() {
+        this(Managers.getDefaultHistory());
+    }
+
+    public ConcurrentTaskManager(HistoryManager historyManager) {
+        this.historyManager = historyManager;
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    //Получение списка всех задач
+    @Override
+    public List<Task> getAllTasks() {
+        return new ArrayList<>(tasks.values());
+    }
+
+    @Override
+    public List<Epic> getAllEpics() {
+        return new ArrayList<>(epics.values());
+    }
+
+    @Override
+    public List<Subtask> getAllSubtasks() {
+        return new ArrayList<>(subtasks.values());
+    }
+
+    //Срез никогда не берёт блокировок и не задерживает изменения. Пока доска не меняется, отдаётся готовый срез.
+    //Новый собирается оптимистично, как чтение под StampedLock: копирование идёт без блокировок, затем
+    //проверяется, что за это время ни одно изменение не начиналось и не завершалось. Если изменения раз за разом
+    //пересекаются со сборкой, возвращается последний опубликованный срез: он согласован и помечен своей версией,
+    //но может отставать, пока изменения идут без перерыва. Первый срез собирается до успеха.
+    @Override
+    public BoardSnapshot getSnapshot() {
+        BoardSnapshot current = snapshot;
+        if (current != null && current.getVersion() == version.get()) {
+            return current;
+        }
+        for (int attempt = 0; current == null || attempt < OPTIMISTIC_SNAPSHOT_ATTEMPTS; attempt++) {
+            long currentVersion = version.get();
+            if (activeWrites.get() != 0) {
+                Thread.yield();
+                continue;
+            }
+            BoardSnapshot built = BoardSnapshot.of(currentVersion, tasks.values(), epics.values(),
+                    subtasks.values(), prioritizedTasks.getAll());
+            //Поля задач и эпиков обычные, поэтому их чтение не должно переместиться за проверку
+            VarHandle.acquireFence();
+            if (activeWrites.get() == 0 && version.get() == currentVersion) {
+                return publish(built);
+            }
+            current = snapshot;
+        }
+        return current;
+    }
+
+    //Более старый срез не заменяет уже опубликованный более новый
+    private BoardSnapshot publish(BoardSnapshot built) {
+        BoardSnapshot current = snapshot;
+        if (current != null && current.getVersion() >= built.getVersion()) {
+            return current;
+        }
+        snapshot = built;
+        return built;
+    }
+
+    @Override
+    public long getVersion() {
+        return version.get();
+    }
+
+    @Override
+    public long getHistoryVersion() {
+        synchronized (historyManager) {
+            return historyManager.getVersion();
+        }
+    }
+
+    @Override
+    public boolean isThreadSafe() {
+        return true;
+    }
+
+    //Постраничное получение задач; страница слабо согласована, как и итераторы ConcurrentSkipListMap
+    @Override
+    public List<Task> getTasksPage(int afterId, int limit) {
+        return InMemoryTaskManager.page(tasks, afterId, limit);
+    }
+
+    @Override
+    public List<Epic> getEpicsPage(int afterId, int limit) {
+        return InMemoryTaskManager.page(epics, afterId, limit);
+    }
+
+    @Override
+    public List<Subtask> getSubtasksPage(int afterId, int limit) {
+        return InMemoryTaskManager.page(subtasks, afterId, limit);
+    }
+
+
+    //Удаление всех задач. addTask и addEpic не берут полос, поэтому lockAll() их не останавливает:
+    //задачи удаляются по одной вместе с записями индексов, а задача, добавленная во время обхода,
+    //остаётся целиком - и в хранилище, и в индексах. Общий clear() оставил бы в индексах записи
+    //без задачи, которые уже ничто не удалит.
+    @Override
+    public void removeAllTasks() {
+        beginWrite();
+        try {
+            lockAll();
+            try {
+                for (Task task : tasks.values()) {
+                    if (tasks.remove(task.getId(), task)) {
+                        unindex(task.getId());
+                        statuses.remove(task);
+                        removeFromHistory(task.getId());
+                    }
+                }
+                markChanged();
+            } finally {
+                unlockAll();
+            }
+        } finally {
+            endWrite();
+        }
+    }
+
+    @Override
+    public void removeAllEpics() {
+        beginWrite();
+        try {
+            lockAll();
+            try {
+                for (Epic epic : epics.values()) {
+                    if (!epics.remove(epic.getId(), epic)) {
+                        continue;
+                    }
+                    statuses.remove(epic);
+                    for (Integer subtaskId : epic.getSubtasksIds()) {
+                        Subtask subtask = subtasks.remove(subtaskId);
+                        if (subtask != null) {
+                            unindex(subtaskId);
+                            statuses.remove(subtask);
+                            removeFromHistory(subtaskId);
+                        }
+                    }
+                }
+                markChanged();
+            } finally {
+                unlockAll();
+            }
+        } finally {
+            endWrite();
+        }
+    }
+
+    @Override
+    public void removeAllSubtasks() {
+        beginWrite();
+        try {
+            lockAll();
+            try {
+                for (Subtask subtask : subtasks.values()) {
+                    unindex(subtask.getId());
+                    removeFromHistory(subtask.getId());
+                }
+                subtasks.clear();
+                statuses.clear(TaskType.SUBTASK);
+                board.detachAllSubtasks();
+                markChanged();
+            } finally {
+                unlockAll();
+            }
+        } finally {
+            endWrite();
+        }
+    }
+
+
+    //Получение по идентификатору
+    @Override
+    public Task getTaskById(int id) {
+        Task task = tasks.get(id);
+        if (task != null) {
+            addToHistory(task);
+        }
+        return task;
+    }
+
+    @Override
+    public Epic getEpicById(int id) {
+        Epic epic = epics.get(id);
+        if (epic != null) {
+            addToHistory(epic);
+        }
+        return epic;
+    }
+
+    @Override
+    public Subtask getSubtaskById(int id) {
+        Subtask subtask = subtasks.get(id);
+        if (subtask != null) {
+            addToHistory(subtask);
+        }
+        return subtask;
+    }
+
+
+    //Добавление задач, эпиков и подзадач
+    @Override
+    public void addTask(Task task) {
+        beginWrite();
+        try {
+            synchronized (timeSlots) {
+                if (timeSlots.overlaps(task)) {
+                    throw new TimeConflictException("Задача пересекается по времени с уже существующей.");
+                }
+                task.setId(nextId.getAndIncrement());
+                index(task);
+            }
+            //Задача попадает в хранилище последней: removeAllTasks() удаляет только то, что в нём нашёл
+            statuses.update(task);
+            addToHistory(task);
+            tasks.put(task.getId(), task);
+            markChanged();
+        } finally {
+            endWrite();
+        }
+    }
+
+    @Override
+    public void addEpic(Epic epic) {
+        beginWrite();
+        try {
+            epic.setId(nextId.getAndIncrement());
+            epic.setSubtasksIds(new CopyOnWriteArrayList<>());
+            epic.excludeAllSubtasks();
+            statuses.update(epic);
+            addToHistory(epic);
+            epics.put(epic.getId(), epic);
+            markChanged();
+        } finally {
+            endWrite();
+        }
+    }
+
+    @Override
+    public void addSubtask(Subtask subtask) {
+        beginWrite();
+        try {
+            ReentrantLock lock = lockFor(subtask.getEpicId());
+            lock.lock();
+            try {
+                synchronized (timeSlots) {
+                    if (timeSlots.overlaps(subtask)) {
+                        throw new TimeConflictException(
+                                "Подзадача пересекается по времени с уже существующей задачей.");
+                    }
+                    subtask.setId(nextId.getAndIncrement());
+                    index(subtask);
+                }
+                statuses.update(subtask);
+                subtasks.put(subtask.getId(), subtask);
+                board.attachToEpic(subtask);
+            } finally {
+                lock.unlock();
+            }
+            addToHistory(subtask);
+            markChanged();
+        } finally {
+            endWrite();
+        }
+    }
+
+
+    //Обновление задач, эпиков и подзадач
+    @Override
+    public void updateTask(Task task) {
+        beginWrite();
+        try {
+            ReentrantLock lock = lockFor(task.getId());
+            lock.lock();
+            try {
+                synchronized (timeSlots) {
+                    if (timeSlots.overlapsOthers(task)) {
+                        throw new TimeConflictException("Задача пересекается по времени с уже существующей.");
+                    }
+                    if (!tasks.containsKey(task.getId())) {
+                        return;
+                    }
+                    index(task);
+                }
+                tasks.put(task.getId(), task);
+                statuses.update(task);
+            } finally {
+                lock.unlock();
+            }
+            addToHistory(task);
+            markChanged();
+        } finally {
+            endWrite();
+        }
+    }
+
+    @Override
+    public void updateEpic(Epic epic) {
+        beginWrite();
+        try {
+            ReentrantLock lock = lockFor(epic.getId());
+            lock.lock();
+            try {
+                List<Integer> subtasksIds = epic.getSubtasksIds();
+                epic.setSubtasksIds(subtasksIds != null ? new CopyOnWriteArrayList<>(subtasksIds)
+                        : new CopyOnWriteArrayList<>());
+                board.recalculateEpic(epic);
+                epics.put(epic.getId(), epic);
+            } finally {
+                lock.unlock();
+            }
+            addToHistory(epic);
+            markChanged();
+        } finally {
+            endWrite();
+        }
+    }
+
+    @Override
+    public void updateSubtask(Subtask subtask) {
+        beginWrite();
+        try {
+            if (!replaceSubtask(subtask)) {
+                return;
+            }
+            addToHistory(subtask);
+            markChanged();
+        } finally {
+            endWrite();
+        }
+    }
+
+    //Хранимую подзадачу меняют под полосой её эпика, а не эпика из запроса: клиент может прислать чужой epicId.
+    //Если эпики разные, берутся обе полосы по возрастанию номера. Если подзадачу заменили, пока ждали
+    //блокировки, её эпик мог смениться, и полосы выбираются заново.
+    private boolean replaceSubtask(Subtask subtask) {
+        while (true) {
+            Subtask stored = subtasks.get(subtask.getId());
+            int storedStripe = stripeOf(stored != null ? stored.getEpicId() : subtask.getEpicId());
+            int requestedStripe = stripeOf(subtask.getEpicId());
+            ReentrantLock first = stripes[Math.min(storedStripe, requestedStripe)];
+            ReentrantLock second = stripes[Math.max(storedStripe, requestedStripe)];
+            first.lock();
+            if (second != first) {
+                second.lock();
+            }
+            try {
+                if (subtasks.get(subtask.getId()) != stored) {
+                    continue;
+                }
+                synchronized (timeSlots) {
+                    if (timeSlots.overlapsOthers(subtask)) {
+                        throw new TimeConflictException(
+                                "Подзадача пересекается по времени с уже существующей задачей.");
+                    }
+                    if (stored == null) {
+                        return false;
+                    }
+                    index(subtask);
+                }
+                subtasks.put(subtask.getId(), subtask);
+                statuses.update(subtask);
+                board.refreshInEpic(subtask);
+                return true;
+            } finally {
+                if (second != first) {
+                    second.unlock();
+                }
+                first.unlock();
+            }
+        }
+    }
+
+
+    // Удаление задачи по идентификатору
+    @Override
+    public void deleteTaskById(int id) {
+        beginWrite();
+        try {
+            if (tasks.containsKey(id)) {
+                deleteTask(id);
+            } else if (epics.containsKey(id)) {
+                deleteEpic(id);
+            } else {
+                deleteSubtask(id);
+            }
+        } finally {
+            endWrite();
+        }
+    }
+
+    private void deleteTask(int id) {
+        ReentrantLock lock = lockFor(id);
+        lock.lock();
+        try {
+            Task task = tasks.remove(id);
+            if (task != null) {
+                unindex(id);
+                statuses.remove(task);
+                removeFromHistory(id);
+                markChanged();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void deleteEpic(int id) {
+        ReentrantLock lock = lockFor(id);
+        lock.lock();
+        try {
+            Epic epic = epics.remove(id);
+            if (epic == null) {
+                return;
+            }
+            statuses.remove(epic);
+            for (Integer subtaskId : epic.getSubtasksIds()) {
+                Subtask subtask = subtasks.remove(subtaskId);
+                if (subtask != null) {
+                    unindex(subtaskId);
+                    statuses.remove(subtask);
+                    removeFromHistory(subtaskId);
+                }
+            }
+            removeFromHistory(id);
+            markChanged();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void deleteSubtask(int id) {
+        Subtask subtask = subtasks.get(id);
+        if (subtask == null) {
+            return;
+        }
+
+        ReentrantLock lock = lockFor(subtask.getEpicId());
+        lock.lock();
+        try {
+            if (!subtasks.remove(id, subtask)) {
+                return;
+            }
+            unindex(id);
+            statuses.remove(subtask);
+            board.detachFromEpic(subtask);
+            removeFromHistory(id);
+            markChanged();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+
+    //Пакет держит все полосы и монитор timeSlots, поэтому другие изменения ждут его окончания.
+    //Чтение идёт без блокировок и может увидеть пакет частично применённым; срез getSnapshot() - нет.
+    //Откат возвращает удалённые задачи под теми же блокировками, версия после него отмечается здесь.
+    @Override
+    public List<Task> applyBatch(List<BatchOperation> operations) {
+        beginWrite();
+        try {
+            lockAll();
+            try {
+                synchronized (timeSlots) {
+                    return BatchApplier.apply(this, board, operations);
+                }
+            } catch (RuntimeException e) {
+                markChanged();
+                throw e;
+            } finally {
+                unlockAll();
+            }
+        } finally {
+            endWrite();
+        }
+    }
+
+
+    // Получение списка подзадач эпика
+    @Override
+    public List<Subtask> getSubtasksOfEpic(int epicId) {
+        return board.subtasksOf(epicId);
+    }
+
+
+    //Выборка по условиям по тем же правилам, что и в InMemoryTaskManager; результат слабо согласован
+    @Override
+    public List<Task> findTasks(TaskQuery query) {
+        return board.findTasks(query);
+    }
+
+
+    //Получение истории
+    @Override
+    public List<Task> getHistory() {
+        synchronized (historyManager) {
+            return historyManager.getHistory();
+        }
+    }
+
+
+    //Получение отсортированного списка задач по приоритету
+    @Override
+    public List<Task> getPrioritizedTasks() {
+        return prioritizedTasks.getAll();
+    }
+
+    //Задачи, пересекающиеся с окном [from, to), в порядке приоритета
+    @Override
+    public List<Task> getPrioritizedTasks(LocalDateTime from, LocalDateTime to) {
+        return prioritizedTasks.getWindow(from, to);
+    }
+
+
+    //Размер ConcurrentSkipListMap считается обходом, поэтому число задач стоит O(n) на выгрузку метрик;
+    //сами задачи при этом не копируются
+    @Override
+    public void bindTo(MetricsRegistry registry) {
+        registry.gauge("task_manager_tasks", "Количество задач по типам", tasks::size, "type", "task");
+        registry.gauge("task_manager_tasks", "Количество задач по типам", epics::size, "type", "epic");
+        registry.gauge("task_manager_tasks", "Количество задач по типам", subtasks::size, "type", "subtask");
+        registry.gauge("task_manager_history_size", "Количество задач в истории просмотров", () -> {
+            synchronized (historyManager) {
+                return historyManager.size();
+            }
+        });
+        registry.gauge("task_manager_prioritized_size", "Количество задач в приоритетном списке",
+                prioritizedTasks::size);
+    }
+
+    //Индексы по времени меняются только под монитором timeSlots
+    private void index(Task task) {
+        timeSlots.add(task);
+        prioritizedTasks.add(task);
+    }
+
+    private void unindex(int id) {
+        synchronized (timeSlots) {
+            timeSlots.remove(id);
+            prioritizedTasks.remove(id);
+        }
+    }
+
+    private void addToHistory(Task task) {
+        synchronized (historyManager) {
+            historyManager.add(task);
+        }
+    }
+
+    private void removeFromHistory(int id) {
+        synchronized (historyManager) {
+            historyManager.remove(id);
+        }
+    }
+
+    //Каждый изменяющий метод обрамлён beginWrite()/endWrite() в try/finally; вложенные вызовы допустимы
+    private void beginWrite() {
+        activeWrites.incrementAndGet();
+    }
+
+    private void endWrite() {
+        activeWrites.decrementAndGet();
+    }
+
+    //Отметка изменения доски; вызывается после изменения, чтобы срез не получил версию раньше данных
+    private void markChanged() {
+        version.incrementAndGet();
+    }
+
+    private ReentrantLock lockFor(int id) {
+        return stripes[stripeOf(id)];
+    }
+
+    private static int stripeOf(int id) {
+        return Math.floorMod(id, STRIPES);
+    }
+
+    private void lockAll() {
+        for (ReentrantLock lock : stripes) {
+            lock.lock();
+        }
+    }
+
+    private void unlockAll() {
+        for (int i = STRIPES - 1; i >= 0; i--) {
+            stripes[i].unlock();
+        }
+    }
+}
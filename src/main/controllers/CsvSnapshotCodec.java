@@ -0,0 +1,61 @@
+package main.controllers;
+
+import main.exceptions.ManagerSaveException;
+import main.model.Task;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.Consumer;
+
+//Снимок в CSV: BOM, заголовок и по строке TaskCsvCodec на задачу
+public class CsvSnapshotCodec implements SnapshotCodec {
+
+    @Override
+    public void write(OutputStream out, Iterable<? extends Task> tasks) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write("\uFEFF"); //Столкнулся с проблемой вывода данных в Exel, поэтому нашел такое решение
+        writer.write(TaskCsvCodec.HEADER);
+        writer.write('\n');
+        for (Task task : tasks) {
+            TaskCsvCodec.write(writer, task);
+        }
+        writer.flush();
+    }
+
+    @Override
+    public void read(InputStream in, Consumer<Task> sink) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        //Заголовок
+        if (reader.readLine() == null) {
+            return;
+        }
+
+        List<String> fields;
+        while ((fields = readRecord(reader)) != null) {
+            if (fields.size() == 1 && fields.get(0).isBlank()) {
+                continue;
+            }
+            try {
+                sink.accept(TaskCsvCodec.decode(fields));
+            } catch (Exception e) {
+                throw new ManagerSaveException("Ошибка формата строки: " + String.join(",", fields), null, e);
+            }
+        }
+    }
+
+    private static List<String> readRecord(BufferedReader reader) throws IOException {
+        try {
+            return TaskCsvCodec.readRecord(reader);
+        } catch (IllegalArgumentException e) {
+            throw new ManagerSaveException("Ошибка формата строки: " + e.getMessage(), null, e);
+        }
+    }
+}
@@ -2,199 +2,693 @@ package main.controllers;
 
 import main.model.*;
 import main.exceptions.ManagerSaveException;
+import main.metrics.LatencyHistogram;
+import main.metrics.MetricsRegistry;
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.time.Duration;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+//Изменения пишутся синхронно в вызывающем потоке или, в асинхронном режиме, фоновым потоком пачками.
+//Изменяющие методы синхронизированы: под монитором менеджера фоновый поток забирает накопленное.
+//Порядок захвата: ioLock, затем монитор менеджера. В синхронном режиме ioLock не берётся: весь ввод-вывод,
+//включая сворачивание журнала по порогу, идёт под монитором.
+public class FileBackedTaskManager extends InMemoryTaskManager implements AutoCloseable {
+    private static final String JOURNAL_PUT = "PUT";
+    private static final String JOURNAL_DELETE = "DELETE";
+    private static final String JOURNAL_CLEAR = "CLEAR";
 
-public class FileBackedTaskManager extends InMemoryTaskManager {
     private final File file;
+    private final File journalFile;
+    //Журнал, отложенный на время сворачивания: его записи уже вошли в новый снимок
+    private final File compactingJournalFile;
+    private final PersistenceSettings settings;
+    private int journalRecords;
+
+    //Асинхронный режим: накопленные изменения и поток, который их записывает
+    private final ScheduledExecutorService backgroundWriter;
+    private final Object ioLock = new Object();
+    private final StringWriter pendingJournal = new StringWriter();
+    private int pendingOperations;
+    //Периодическая запись запускается при первом изменении, а не в конструкторе, чтобы фоновый поток
+    //не получил ссылку на ещё не созданный объект
+    private boolean writerScheduled;
+
+    //Во время applyBatch изменения не пишутся сразу: записи журнала копятся здесь и сохраняются одной пачкой
+    private StringWriter batchJournal;
+    private int batchRecords;
+
+    //Длительность записи снимка и журнала; null, пока менеджер не подключён к реестру метрик
+    private volatile LatencyHistogram snapshotWrites;
+    private volatile LatencyHistogram journalWrites;
 
     public FileBackedTaskManager(File file) {
+        this(file, new PersistenceSettings());
+    }
+
+    public FileBackedTaskManager(File file, PersistenceSettings settings) {
         this.file = file;
+        this.journalFile = new File(file.getPath() + ".journal");
+        this.compactingJournalFile = new File(journalFile.getPath() + ".compacting");
+        this.settings = settings;
+
+        if (settings.isAsync()) {
+            backgroundWriter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "task-manager-writer");
+                thread.setDaemon(true);
+                return thread;
+            });
+        } else {
+            backgroundWriter = null;
+        }
+    }
+
+    public File getJournalFile() {
+        return journalFile;
+    }
+
+    public File getCompactingJournalFile() {
+        return compactingJournalFile;
     }
 
     @Override
-    public void addTask(Task task) {
+    public void bindTo(MetricsRegistry registry) {
+        super.bindTo(registry);
+        snapshotWrites = registry.histogram("file_backed_write_seconds", "Длительность записи файлов менеджера",
+                "file", "snapshot");
+        journalWrites = registry.histogram("file_backed_write_seconds", "Длительность записи файлов менеджера",
+                "file", "journal");
+        registry.gauge("file_backed_pending_operations", "Изменения, ожидающие фоновой записи",
+                () -> pendingOperations);
+    }
+
+    @Override
+    public synchronized void addTask(Task task) {
         super.addTask(task);
-        save();
+        savePut(task);
     }
 
     @Override
-    public void addEpic(Epic epic) {
+    public synchronized void addEpic(Epic epic) {
         super.addEpic(epic);
-        save();
+        savePut(epic);
     }
 
     @Override
-    public void addSubtask(Subtask subtask) {
+    public synchronized void addSubtask(Subtask subtask) {
         super.addSubtask(subtask);
-        save();
+        savePut(subtask);
     }
 
     @Override
-    public void removeAllTasks() {
+    public synchronized void removeAllTasks() {
         super.removeAllTasks();
-        save();
+        saveClear(TaskType.TASK);
     }
 
     @Override
-    public void removeAllEpics() {
+    public synchronized void removeAllEpics() {
         super.removeAllEpics();
-        save();
+        saveClear(TaskType.EPIC);
     }
 
     @Override
-    public void removeAllSubtasks() {
+    public synchronized void removeAllSubtasks() {
         super.removeAllSubtasks();
-        save();
+        saveClear(TaskType.SUBTASK);
     }
 
     @Override
-    public void deleteTaskById(int id) {
+    public synchronized void deleteTaskById(int id) {
         super.deleteTaskById(id);
-        save();
+        saveDelete(id);
+    }
+
+    //Пакет сохраняется один раз после успешного применения: одним снимком или одной дозаписью журнала.
+    //Если пакет откатился, состояние не изменилось и в файлы ничего не пишется.
+    @Override
+    public synchronized List<Task> applyBatch(List<BatchOperation> operations) {
+        batchJournal = new StringWriter();
+        batchRecords = 0;
+        List<Task> results;
+        String records;
+        int count;
+        try {
+            results = super.applyBatch(operations);
+        } finally {
+            records = batchJournal.toString();
+            count = batchRecords;
+            batchJournal = null;
+        }
+
+        if (!isJournalMode()) {
+            saveSnapshot();
+        } else if (count > 0) {
+            appendToJournal(out -> out.write(records), count);
+        }
+        return results;
     }
 
     @Override
-    public void updateTask(Task task) {
+    public synchronized void updateTask(Task task) {
         super.updateTask(task);
-        save();
+        savePut(task);
     }
 
     @Override
-    public void updateEpic(Epic epic) {
+    public synchronized void updateEpic(Epic epic) {
         super.updateEpic(epic);
-        save();
+        savePut(epic);
     }
 
     @Override
-    public void updateSubtask(Subtask subtask) {
+    public synchronized void updateSubtask(Subtask subtask) {
         super.updateSubtask(subtask);
-        save();
+        savePut(subtask);
+    }
+
+    //Срез собирается под монитором, как и изменения, поэтому не застаёт операцию на середине
+    @Override
+    protected synchronized BoardSnapshot rebuildSnapshot() {
+        return super.rebuildSnapshot();
+    }
+
+    //Сохранение изменений: снимок целиком или одна запись в журнал, в зависимости от режима
+    private void savePut(Task task) {
+        if (!isJournalMode()) {
+            saveSnapshot();
+        } else if (findTask(task.getId()) == task) {
+            appendToJournal(writer -> {
+                writer.write(JOURNAL_PUT);
+                writer.write(',');
+                TaskCsvCodec.write(writer, task);
+            });
+        }
+    }
+
+    private void saveDelete(int id) {
+        if (isJournalMode()) {
+            appendToJournal(writer -> writer.write(JOURNAL_DELETE + "," + id + "\n"));
+        } else {
+            saveSnapshot();
+        }
+    }
+
+    private void saveClear(TaskType type) {
+        if (isJournalMode()) {
+            appendToJournal(writer -> writer.write(JOURNAL_CLEAR + "," + type.name() + "\n"));
+        } else {
+            saveSnapshot();
+        }
+    }
+
+    //В асинхронном режиме снимок только помечается устаревшим, внутри пакета - откладывается до его конца
+    private void saveSnapshot() {
+        if (batchJournal != null) {
+            return;
+        }
+        if (backgroundWriter != null) {
+            markPending(1);
+        } else {
+            save();
+        }
     }
 
-    private String taskToString(Task task) {
-        Duration duration = task.getDuration();
-        String durationString = (duration != null) ? String.valueOf(duration.toMinutes()) : "0";
-        String startTime = (task.getStartTime() != null) ? task.getStartTime().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm")) : "";
-        String endTime = (task.getEndTime() != null) ? task.getEndTime().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm")) : "";
-        String epicId = task.getType() == TaskType.SUBTASK ? String.valueOf(((Subtask) task).getEpicId()) : "";
+    private boolean isJournalMode() {
+        return settings.getMode() == PersistenceMode.JOURNAL;
+    }
 
-        return String.join(",",
-                String.valueOf(task.getId()),
-                task.getType().name(),
-                task.getTaskName(),
-                task.getStatus().name(),
-                task.getDescription(),
-                durationString,
-                startTime,
-                endTime,
-                epicId
-                );
+    //Запись журнала - строка CSV, первое поле которой операция, остальные - её аргументы
+    private interface JournalRecord {
+        void writeTo(Writer writer) throws IOException;
     }
 
-    public static Task fromString(String value)  {
-        String[] fields = value.trim().split(",");
-        TaskType type = TaskType.valueOf(fields[1]);
+    private void appendToJournal(JournalRecord record) {
+        if (batchJournal != null) {
+            writeTo(batchJournal, record);
+            batchRecords++;
+            return;
+        }
+        appendToJournal(record, 1);
+    }
 
-        if (type == TaskType.SUBTASK && fields.length != 9) {
-            throw new ManagerSaveException("Некорректный формат строки для Subtask: " + value, null);
+    //records - сколько записей журнала содержит record
+    private void appendToJournal(JournalRecord record, int records) {
+        if (backgroundWriter != null) {
+            writeTo(pendingJournal, record);
+            markPending(records);
+            return;
         }
-        if (type != TaskType.SUBTASK && fields.length != 8) {
-            throw new ManagerSaveException("Некорректный формат строки для " + type + ": " + value, null);
+
+        writeJournal(record);
+        journalRecords += records;
+        if (journalRecords >= settings.getCompactionThreshold()) {
+            compactLocked();
         }
+    }
 
+    private static void writeTo(StringWriter buffer, JournalRecord record) {
         try {
-            int id = Integer.parseInt(fields[0]);
-            TaskStatus status = TaskStatus.valueOf(fields[3]);
-            String description = fields[4].trim();
-            Duration duration = fields[5].isEmpty() ? Duration.ZERO : Duration.ofMinutes(Long.parseLong(fields[5]));
-            LocalDateTime startTime = fields[6].isEmpty() ? null : LocalDateTime.parse(fields[6],
-                    DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm"));
-            LocalDateTime endTime = fields[7].isEmpty() ? null : LocalDateTime.parse(fields[7],
-                    DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm"));
+            record.writeTo(buffer);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
 
-            if (type == TaskType.TASK) {
-                return new Task(fields[2].trim(), description, status, duration, startTime);
-            } else if (type == TaskType.EPIC) {
-                Epic epic = new Epic(fields[2].trim(), description);
-                epic.setDuration(duration);
-                epic.setStartTime(startTime);
-                epic.setEndTime(endTime);
-                return epic;
-            } else if (type == TaskType.SUBTASK) {
-                int epicId = Integer.parseInt(fields[8]); // Только для Subtask
-                Subtask subtask = new Subtask(fields[2].trim(), description, status, duration, startTime, epicId);
-                subtask.setDuration(duration);
-                subtask.setStartTime(startTime);
-                return subtask;
-            } else {
-                throw new ManagerSaveException("Неизвестный тип задачи: " + type, null);
+    private void writeJournal(JournalRecord record) {
+        long start = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(journalFile.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(Channels.newOutputStream(channel),
+                    StandardCharsets.UTF_8));
+            record.writeTo(writer);
+            writer.flush();
+            if (settings.getFsyncPolicy() == FsyncPolicy.ALWAYS) {
+                channel.force(false);
             }
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка записи журнала: " + journalFile.getPath(), journalFile, e);
+        } finally {
+            record(journalWrites, start);
+        }
+    }
+
+    private static void record(LatencyHistogram histogram, long start) {
+        if (histogram != null) {
+            histogram.recordSince(start);
+        }
+    }
+
+    //Вызывается под монитором менеджера. После flushOperations изменений запись запускается сразу,
+    //не дожидаясь очередного интервала.
+    private void markPending(int operations) {
+        if (!writerScheduled) {
+            long interval = settings.getFlushIntervalMillis();
+            backgroundWriter.scheduleWithFixedDelay(this::writePendingInBackground, interval, interval,
+                    TimeUnit.MILLISECONDS);
+            writerScheduled = true;
+        }
+        int before = pendingOperations;
+        pendingOperations += operations;
+        if (before < settings.getFlushOperations() && pendingOperations >= settings.getFlushOperations()) {
+            backgroundWriter.execute(this::writePendingInBackground);
+        }
+    }
+
+    //Ошибка фоновой записи не теряет изменения: они остаются накопленными, запись повторится
+    //на следующем интервале, а flush() сообщит об ошибке вызывающему
+    private void writePendingInBackground() {
+        try {
+            writePending();
+        } catch (ManagerSaveException e) {
+            //Повторится на следующем интервале
+        }
+    }
+
+    //Запись накопленных изменений одной пачкой. Под монитором менеджера забирается только снимок
+    //состояния или накопленные записи журнала, сам ввод-вывод идёт без монитора.
+    private void writePending() {
+        if (backgroundWriter == null) {
+            return;
+        }
+        synchronized (ioLock) {
+            List<Task> snapshot = null;
+            String records;
+            int operations;
+            synchronized (this) {
+                operations = pendingOperations;
+                if (operations == 0) {
+                    return;
+                }
+                if (!isJournalMode() || journalRecords + operations >= settings.getCompactionThreshold()) {
+                    snapshot = snapshot();
+                }
+                records = pendingJournal.toString();
+                pendingJournal.getBuffer().setLength(0);
+                pendingOperations = 0;
+            }
+
+            try {
+                if (snapshot != null) {
+                    writeCompacted(snapshot);
+                } else {
+                    writeJournal(out -> out.write(records));
+                    journalRecords += operations;
+                }
+            } catch (ManagerSaveException e) {
+                synchronized (this) {
+                    pendingJournal.getBuffer().insert(0, records);
+                    pendingOperations += operations;
+                }
+                throw e;
+            }
+        }
+    }
+
+    //Барьер долговечности: всё, что изменено до вызова, записано в файлы и сброшено на диск
+    public void flush() {
+        writePending();
+        force(file);
+        force(journalFile);
+    }
+
+    private static void force(File target) {
+        if (!target.exists()) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(target.toPath(), StandardOpenOption.WRITE)) {
+            channel.force(true);
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка сброса файла на диск: " + target.getPath(), target, e);
+        }
+    }
+
+    //Остановка фоновой записи и запись всего накопленного. После закрытия менеджер не изменяют.
+    @Override
+    public void close() {
+        if (backgroundWriter != null) {
+            backgroundWriter.shutdown();
+        }
+        flush();
+    }
+
+    //Сворачивание журнала: текущее состояние записывается снимком, журнал удаляется, см. writeCompacted
+    public void compact() {
+        if (backgroundWriter == null) {
+            synchronized (this) {
+                compactLocked();
+            }
+            return;
+        }
+        synchronized (ioLock) {
+            List<Task> snapshot;
+            synchronized (this) {
+                snapshot = snapshot();
+                pendingJournal.getBuffer().setLength(0);
+                pendingOperations = 0;
+            }
+            writeCompacted(snapshot);
+            journalRecords = 0;
+        }
+    }
+
+    //Сворачивание в синхронном режиме: вызывается под монитором, который уже исключает остальную запись
+    private void compactLocked() {
+        writeCompacted(snapshot());
+        journalRecords = 0;
+    }
+
+    //Журнал нельзя применять к снимку, который его уже содержит: записи не идемпотентны, и PUT подзадачи
+    //эпика, удалённого дальше по журналу, создал бы подзадачу без эпика. Поэтому сворачивание атомарно:
+    //новый снимок целиком пишется во временный файл, затем журнал переименовывается в .compacting -
+    //это точка фиксации, после неё временный снимок считается полным, - и только потом снимок подменяется,
+    //а отложенный журнал удаляется. Прерванное сворачивание завершает recoverCompaction при загрузке.
+    private void writeCompacted(List<Task> snapshot) {
+        if (!journalFile.exists()) {
+            writeSnapshot(file, settings.getFormat(), snapshot);
+            return;
+        }
+        boolean fsync = settings.getFsyncPolicy() != FsyncPolicy.NEVER;
+        Path path = file.toPath();
+        Path temp = writeSnapshotTemp(file, settings.getFormat(), snapshot);
+        boolean committed = false;
+        try {
+            replace(journalFile.toPath(), compactingJournalFile.toPath());
+            committed = true;
+            if (fsync) {
+                forceDirectory(path.toAbsolutePath().getParent());
+            }
+            replace(temp, path);
+            if (fsync) {
+                forceDirectory(path.toAbsolutePath().getParent());
+            }
+            Files.delete(compactingJournalFile.toPath());
+        } catch (IOException e) {
+            //Снимок не подменён: журнал возвращается на место, и на диске остаётся прежнее состояние
+            try {
+                if (committed && Files.exists(temp)) {
+                    replace(compactingJournalFile.toPath(), journalFile.toPath());
+                }
+                Files.deleteIfExists(temp);
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw new ManagerSaveException("Ошибка сворачивания журнала: " + journalFile.getPath(), journalFile, e);
+        }
+    }
+
+    //Сбой посреди writeCompacted: записи отложенного журнала уже есть во временном снимке, поэтому журнал
+    //не применяется, а удаляется. Если временный снимок остался, подмена до сбоя не успела и завершается.
+    private void recoverCompaction() {
+        if (!compactingJournalFile.exists()) {
+            return;
+        }
+        Path temp = tempOf(file.toPath());
+        try {
+            if (Files.exists(temp)) {
+                replace(temp, file.toPath());
+            }
+            Files.delete(compactingJournalFile.toPath());
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка завершения сворачивания журнала: "
+                    + compactingJournalFile.getPath(), compactingJournalFile, e);
+        }
+    }
+
+    public static Task fromString(String value) {
+        try {
+            return TaskCsvCodec.decode(TaskCsvCodec.split(value.trim()));
+        } catch (ManagerSaveException e) {
+            throw e;
         } catch (Exception e) {
             throw new ManagerSaveException("Ошибка разбора строки: " + value, null, e);
         }
     }
 
     private void save() {
-        try (BufferedWriter writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
-            writer.write("\uFEFF"); //Столкнулся с проблемой вывода данных в Exel, поэтому нашел такое решение
-            writer.write("id,type,name,status,description,duration,startTime,endTime,epic\n");
+        writeSnapshot(file, settings.getFormat(), snapshot());
+    }
 
-            for (Task task : getAllTasks()) {
-                writer.write(taskToString(task) + "\n");
-            }
+    //Выгрузка текущего состояния в CSV независимо от формата снимка, например для открытия в Excel
+    public void exportCsv(File target) {
+        writeSnapshot(target, SnapshotFormat.CSV, snapshot());
+    }
 
-            for (Epic epic : getAllEpics()) {
-                writer.write(taskToString(epic) + "\n");
+    private synchronized List<Task> snapshot() {
+        List<Task> snapshot = new ArrayList<>(getAllTasks());
+        snapshot.addAll(getAllEpics());
+        snapshot.addAll(getAllSubtasks());
+        return snapshot;
+    }
+
+    //Снимок пишется во временный файл рядом с целевым и атомарно подменяет его, поэтому при сбое
+    //посреди записи на диске остаётся прежний снимок. Перед подменой временный файл сбрасывается
+    //на диск, после неё - каталог, иначе после отключения питания может пропасть сама подмена.
+    private void writeSnapshot(File target, SnapshotFormat format, List<Task> snapshot) {
+        Path path = target.toPath();
+        Path temp = writeSnapshotTemp(target, format, snapshot);
+        try {
+            replace(temp, path);
+            if (settings.getFsyncPolicy() != FsyncPolicy.NEVER) {
+                forceDirectory(path.toAbsolutePath().getParent());
             }
+        } catch (IOException e) {
+            deleteTemp(temp);
+            throw new ManagerSaveException("Ошибка сохранения файла: " + target.getPath(), target, e);
+        }
+    }
 
-            for (Subtask subtask : getAllSubtasks()) {
-                writer.write(taskToString(subtask) + "\n");
+    //Полный снимок во временном файле рядом с целевым; при ошибке временный файл удаляется
+    private Path writeSnapshotTemp(File target, SnapshotFormat format, List<Task> snapshot) {
+        Path temp = tempOf(target.toPath());
+        boolean written = false;
+        long start = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            format.getCodec().write(Channels.newOutputStream(channel), snapshot);
+            if (settings.getFsyncPolicy() != FsyncPolicy.NEVER) {
+                channel.force(true);
+            }
+            written = true;
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка сохранения файла: " + target.getPath(), target, e);
+        } finally {
+            record(snapshotWrites, start);
+            if (!written) {
+                deleteTemp(temp);
             }
+        }
+        return temp;
+    }
+
+    private static Path tempOf(Path path) {
+        return path.resolveSibling(path.getFileName() + ".tmp");
+    }
+
+    private static void deleteTemp(Path temp) {
+        try {
+            Files.deleteIfExists(temp);
+        } catch (IOException e) {
+            //Недописанный временный файл перезапишется при следующем сохранении
+        }
+    }
+
+    private static void replace(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    //Каталог открывается для fsync не на всех платформах (в Windows - нет), там шаг пропускается
+    private static void forceDirectory(Path directory) {
+        if (directory == null) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
         } catch (IOException e) {
-            throw new ManagerSaveException("Ошибка сохранения файла: " + file.getPath(), file, e);
+            //Платформа не поддерживает fsync каталога
         }
     }
 
     public static FileBackedTaskManager loadFromFile(File file) {
-        FileBackedTaskManager manager = new FileBackedTaskManager(file);
+        return loadFromFile(file, new PersistenceSettings());
+    }
+
+    //Загрузка снимка и применение к нему журнала, если он есть. Идентификаторы задач сохраняются,
+    //так как на них ссылаются подзадачи и записи журнала. Строки кладутся напрямую в хранилище
+    //менеджера: без проверки пересечений и без записи в файл, эпики пересчитываются один раз в конце.
+    public static FileBackedTaskManager loadFromFile(File file, PersistenceSettings settings) {
+        FileBackedTaskManager manager = new FileBackedTaskManager(file, settings);
+        manager.recoverCompaction();
+        //До первого сворачивания в режиме журнала снимка может ещё не быть
+        if (file.exists() || !manager.journalFile.exists()) {
+            manager.loadSnapshot();
+        }
+
+        boolean hasJournal = manager.journalFile.exists();
+        if (hasJournal) {
+            manager.replayJournal();
+        }
+        manager.finishRestore();
 
-        try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
-            List<String> lines = reader.lines().toList();
+        if (hasJournal && !manager.isJournalMode()) {
+            manager.compact();
+        }
+        return manager;
+    }
 
-            if (lines.size() <= 1) {
-                return manager;
+    private void loadSnapshot() {
+        try {
+            if (!settings.isMemoryMapped() || !loadMappedSnapshot()) {
+                loadStreamedSnapshot();
             }
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка чтения файла: " + file.getPath(), file, e);
+        } catch (RuntimeException e) {
+            throw new ManagerSaveException("Ошибка формата снимка: " + e.getMessage(), file, e);
+        }
+    }
 
-            for (String line : lines.subList(1, lines.size())) {
-                if (line.isBlank()) {
+    //Двоичный снимок разбирается прямо из отображённого в память файла: страницы подгружаются
+    //по мере чтения, копии файла в куче нет. Заголовок сначала читается обычным чтением, чтобы не
+    //отображать CSV-снимок впустую. false - снимок не двоичный или не помещается в один буфер.
+    private boolean loadMappedSnapshot() throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE || !BinarySnapshotCodec.isBinary(readHead(channel))) {
+                return false;
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            BinarySnapshotCodec.read(buffer, this::restore);
+            return true;
+        }
+    }
+
+    private static ByteBuffer readHead(FileChannel channel) throws IOException {
+        ByteBuffer head = ByteBuffer.allocate(BinarySnapshotCodec.MAGIC.length);
+        int read;
+        do {
+            read = channel.read(head);
+        } while (read > 0 && head.hasRemaining());
+        return head.flip();
+    }
+
+    private void loadStreamedSnapshot() throws IOException {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file.toPath()))) {
+            SnapshotFormat format = BinarySnapshotCodec.isBinary(in) ? SnapshotFormat.BINARY : SnapshotFormat.CSV;
+            format.getCodec().read(in, this::restore);
+        }
+    }
+
+    private void replayJournal() {
+        try (BufferedReader reader = Files.newBufferedReader(journalFile.toPath(), StandardCharsets.UTF_8)) {
+            List<String> fields;
+            while ((fields = readRecord(reader, journalFile)) != null) {
+                if (isBlank(fields)) {
                     continue;
                 }
                 try {
-                    Task task = fromString(line);
-
-                    if (task.getType() == TaskType.EPIC) {
-                        manager.addEpic((Epic) task);
-                    } else if (task.getType() == TaskType.SUBTASK) {
-                        manager.addSubtask((Subtask) task);
-                    } else {
-                        manager.addTask(task);
-                    }
+                    applyJournalRecord(fields);
                 } catch (Exception e) {
-                    throw new ManagerSaveException("Ошибка формата строки: " + line + " в файле: " + file.getPath(),
-                            file, e);
+                    throw new ManagerSaveException("Ошибка формата записи журнала: " + String.join(",", fields),
+                            journalFile, e);
                 }
+                journalRecords++;
             }
         } catch (IOException e) {
-            throw new ManagerSaveException("Ошибка чтения файла: " + file.getPath(), file, e);
+            throw new ManagerSaveException("Ошибка чтения журнала: " + journalFile.getPath(), journalFile, e);
         }
+    }
 
-        return manager;
+    private static List<String> readRecord(BufferedReader reader, File source) throws IOException {
+        try {
+            return TaskCsvCodec.readRecord(reader);
+        } catch (IllegalArgumentException e) {
+            throw new ManagerSaveException("Ошибка формата строки: " + e.getMessage(), source, e);
+        }
+    }
+
+    private static boolean isBlank(List<String> fields) {
+        return fields.size() == 1 && fields.get(0).isBlank();
+    }
+
+    private void applyJournalRecord(List<String> fields) {
+        String operation = fields.get(0);
+        String payload = fields.get(1);
+
+        if (JOURNAL_PUT.equals(operation)) {
+            restore(TaskCsvCodec.decode(fields.subList(1, fields.size())));
+        } else if (JOURNAL_DELETE.equals(operation)) {
+            super.deleteTaskById(Integer.parseInt(payload));
+        } else if (JOURNAL_CLEAR.equals(operation)) {
+            TaskType type = TaskType.valueOf(payload);
+            if (type == TaskType.TASK) {
+                super.removeAllTasks();
+            } else if (type == TaskType.EPIC) {
+                super.removeAllEpics();
+            } else {
+                super.removeAllSubtasks();
+            }
+        } else {
+            throw new IllegalArgumentException("Неизвестная операция журнала: " + operation);
+        }
     }
 
     public static void main(String[] args) {
@@ -0,0 +1,13 @@
+package main.controllers;
+
+//Когда FileBackedTaskManager сбрасывает записанное на диск. Снимок в любом режиме пишется во временный
+//файл и атомарно подменяет старый, поэтому сбой процесса посреди записи не портит снимок; политика
+//определяет, переживут ли изменения ещё и отключение питания. flush() сбрасывает файлы при любой политике.
+public enum FsyncPolicy {
+    //Без fsync: данные остаются в кэше ОС, после отключения питания снимок может оказаться пустым
+    NEVER,
+    //fsync снимка перед подменой и каталога после неё; записи журнала не сбрасываются
+    SNAPSHOT,
+    //Как SNAPSHOT, плюс fsync после каждой записи в журнал (в асинхронном режиме - после каждой пачки)
+    ALWAYS
+}
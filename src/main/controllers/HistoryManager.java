@@ -9,4 +9,10 @@ public interface HistoryManager {
     void remove(int id);
 
     List<Task> getHistory();
+
+    //Количество задач в истории без копирования списка
+    int size();
+
+    //Версия истории: растёт при каждом изменении, по ней проверяют, изменилась ли история
+    long getVersion();
 }
@@ -9,29 +9,68 @@ import java.util.HashMap;
 
 
 public class InMemoryHistoryManager implements HistoryManager {
+    public static final int DEFAULT_CAPACITY = 1000;
+
     private final Map<Integer, Node> historyMap = new HashMap<>();
 
     private final Node head = new Node(null);
     private final Node tail = new Node(null);
+    //Максимальное число задач в истории; при переполнении вытесняется самая давняя
+    private final int capacity;
+    //Растёт после каждого изменения, а не до, чтобы версия не опережала содержимое; читается без синхронизации
+    private volatile long version;
 
     public InMemoryHistoryManager() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public InMemoryHistoryManager(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Размер истории должен быть положительным.");
+        }
+        this.capacity = capacity;
         head.next = tail;
         tail.prev = head;
     }
 
+    public int getCapacity() {
+        return capacity;
+    }
+
     @Override
     public void add(Task task) {
         if (task == null) {
             throw new IllegalArgumentException("Нельзя добавить null задачу в историю.");
         }
 
-        if (historyMap.containsKey(task.getId())) {
-            remove(task.getId());
+        //Повторный просмотр: существующий узел переносится в конец без новых аллокаций
+        Node node = historyMap.get(task.getId());
+        if (node != null) {
+            node.task = task;
+            removeNode(node);
+            linkLast(node);
+            version++;
+            return;
         }
 
-        Node newNode = new Node(task);
-        linkLast(newNode);
-        historyMap.put(task.getId(), newNode);
+        if (historyMap.size() < capacity) {
+            node = new Node(task);
+        } else {
+            node = evictOldest();
+            node.task = task;
+        }
+        linkLast(node);
+        historyMap.put(task.getId(), node);
+        version++;
+    }
+
+    //Самая давняя задача всегда стоит первой после head, поэтому вытеснение стоит O(1).
+    //Освободившийся узел возвращается для повторного использования.
+    private Node evictOldest() {
+        Node oldest = head.next;
+        removeNode(oldest);
+        historyMap.remove(oldest.task.getId());
+        return oldest;
     }
 
     private void linkLast(Node node) {
@@ -47,6 +86,7 @@ public class InMemoryHistoryManager implements HistoryManager {
         if (node != null) {
             removeNode(node);
             historyMap.remove(id);
+            version++;
         }
     }
 
@@ -57,7 +97,7 @@ public class InMemoryHistoryManager implements HistoryManager {
 
     @Override
     public List<Task> getHistory() {
-        List<Task> history = new ArrayList<>();
+        List<Task> history = new ArrayList<>(historyMap.size());
         Node current = head.next;
 
         while (current != tail) {
@@ -67,6 +107,16 @@ public class InMemoryHistoryManager implements HistoryManager {
         return history;
     }
 
+    @Override
+    public int size() {
+        return historyMap.size();
+    }
+
+    @Override
+    public long getVersion() {
+        return version;
+    }
+
     private static class Node {
         Task task;
         Node prev;
@@ -1,27 +1,40 @@
 package main.controllers;
 
 import main.exceptions.TimeConflictException;
+import main.metrics.MeterBinder;
+import main.metrics.MetricsRegistry;
 import main.model.Epic;
 import main.model.Subtask;
 import main.model.Task;
 import main.model.TaskStatus;
+import main.model.TaskType;
 
 import java.time.LocalDateTime;
 import java.util.*;
-import java.util.stream.Collectors;
 
 
-public class InMemoryTaskManager implements TaskManager {
-    private final Map<Integer, Task> tasks = new HashMap<>();
-    private final Map<Integer, Epic> epics = new HashMap<>();
-    private final Map<Integer, Subtask> subtasks = new HashMap<>();
+public class InMemoryTaskManager implements TaskManager, MeterBinder {
+    //Задачи хранятся упорядоченными по id, чтобы страницы списка читались без копирования всей коллекции
+    private final NavigableMap<Integer, Task> tasks = new TreeMap<>();
+    private final NavigableMap<Integer, Epic> epics = new TreeMap<>();
+    private final NavigableMap<Integer, Subtask> subtasks = new TreeMap<>();
     private final HistoryManager historyManager;
-    private final Set<Task> prioritizedTasks = new TreeSet<>(Comparator.comparing(Task::getStartTime,
-            Comparator.nullsLast(Comparator.naturalOrder())));
+    private final PrioritizedIndex prioritizedTasks = new PrioritizedIndex();
+    private final TimeSlotIndex timeSlots = new TimeSlotIndex();
+    private final StatusIndex statuses = new StatusIndex();
+    private final BoardStorage board = new BoardStorage(tasks, epics, subtasks, statuses, prioritizedTasks,
+            timeSlots);
     private int nextId = 1;
+    //Версия доски растёт после каждого изменения; срез пересобирается, только если его версия устарела
+    private volatile long version;
+    private volatile BoardSnapshot snapshot;
 
     public InMemoryTaskManager() {
-        this.historyManager = Managers.getDefaultHistory();
+        this(Managers.getDefaultHistory());
+    }
+
+    public InMemoryTaskManager(HistoryManager historyManager) {
+        this.historyManager = historyManager;
     }
 
     //Получение списка всех задач
@@ -40,15 +53,89 @@ public class InMemoryTaskManager implements TaskManager {
         return new ArrayList<>(subtasks.values());
     }
 
+    //Срез читается одним обращением к volatile-полю; после изменения доски первый читатель пересобирает его
+    @Override
+    public BoardSnapshot getSnapshot() {
+        BoardSnapshot current = snapshot;
+        if (current != null && current.getVersion() == version) {
+            return current;
+        }
+        return rebuildSnapshot();
+    }
+
+    //Сборка среза текущей версии. Версия читается до копирования: если доска изменится во время сборки,
+    //срез получит прежнюю версию и будет пересобран при следующем чтении. Наследник с собственной
+    //синхронизацией переопределяет метод, чтобы сборка шла под его блокировкой.
+    protected BoardSnapshot rebuildSnapshot() {
+        long current = version;
+        BoardSnapshot cached = snapshot;
+        if (cached != null && cached.getVersion() == current) {
+            return cached;
+        }
+        BoardSnapshot rebuilt = BoardSnapshot.of(current, tasks.values(), epics.values(), subtasks.values(),
+                prioritizedTasks.getAll());
+        snapshot = rebuilt;
+        return rebuilt;
+    }
+
+    @Override
+    public long getVersion() {
+        return version;
+    }
+
+    @Override
+    public long getHistoryVersion() {
+        return historyManager.getVersion();
+    }
+
+    //Отметка изменения доски; вызывается после изменения, чтобы срез не получил версию раньше данных
+    private void markChanged() {
+        version++;
+    }
+
+    //Постраничное получение задач: не больше limit задач с id больше afterId
+    @Override
+    public List<Task> getTasksPage(int afterId, int limit) {
+        return page(tasks, afterId, limit);
+    }
+
+    @Override
+    public List<Epic> getEpicsPage(int afterId, int limit) {
+        return page(epics, afterId, limit);
+    }
+
+    @Override
+    public List<Subtask> getSubtasksPage(int afterId, int limit) {
+        return page(subtasks, afterId, limit);
+    }
+
+    //Обход начинается сразу с позиции курсора, поэтому страница стоит O(log n + limit)
+    static <T extends Task> List<T> page(NavigableMap<Integer, T> source, int afterId, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Размер страницы должен быть положительным.");
+        }
+        List<T> page = new ArrayList<>();
+        for (T task : source.tailMap(afterId, false).values()) {
+            if (page.size() == limit) {
+                break;
+            }
+            page.add(task);
+        }
+        return page;
+    }
+
 
     //Удаление всех задач
     @Override
     public void removeAllTasks() {
         for (Task task : tasks.values()) {
-            prioritizedTasks.remove(task);
+            prioritizedTasks.remove(task.getId());
+            timeSlots.remove(task.getId());
             historyManager.remove(task.getId());
         }
         tasks.clear();
+        statuses.clear(TaskType.TASK);
+        markChanged();
     }
 
     @Override
@@ -57,26 +144,30 @@ public class InMemoryTaskManager implements TaskManager {
             for (Integer subtaskId : epic.getSubtasksIds()) {
                 Subtask subtask = subtasks.get(subtaskId);
                 if (subtask != null) {
-                    prioritizedTasks.remove(subtask);
+                    prioritizedTasks.remove(subtaskId);
+                    timeSlots.remove(subtaskId);
                     historyManager.remove(subtaskId);
                 }
                 subtasks.remove(subtaskId);
             }
         }
         epics.clear();
+        statuses.clear(TaskType.EPIC);
+        statuses.clear(TaskType.SUBTASK);
+        markChanged();
     }
 
     @Override
     public void removeAllSubtasks() {
         for (Subtask subtask : subtasks.values()) {
-            prioritizedTasks.remove(subtask);
+            prioritizedTasks.remove(subtask.getId());
+            timeSlots.remove(subtask.getId());
             historyManager.remove(subtask.getId());
         }
         subtasks.clear();
-        for (Epic epic : epics.values()) {
-            epic.getSubtasksIds().clear();
-            updateEpicStatus(epic);
-        }
+        statuses.clear(TaskType.SUBTASK);
+        board.detachAllSubtasks();
+        markChanged();
     }
 
 
@@ -109,23 +200,69 @@ public class InMemoryTaskManager implements TaskManager {
     }
 
 
+    //Поиск задачи любого типа без записи в историю
+    protected Task findTask(int id) {
+        return board.find(id);
+    }
+
+
+    //Восстановление задачи с сохранённым id (загрузка из файла). Пересечения по времени не проверяются,
+    //задача с тем же id заменяется. Статусы и время эпиков пересчитываются один раз в finishRestore().
+    protected void restore(Task task) {
+        int id = task.getId();
+
+        if (task.getType() == TaskType.EPIC) {
+            Epic epic = (Epic) task;
+            Epic previous = epics.put(id, epic);
+            if (previous != null) {
+                epic.setSubtasksIds(previous.getSubtasksIds());
+            }
+        } else if (task.getType() == TaskType.SUBTASK) {
+            Subtask subtask = (Subtask) task;
+            Subtask previous = subtasks.put(id, subtask);
+            prioritizedTasks.add(subtask);
+            timeSlots.add(subtask);
+
+            Epic epic = epics.get(subtask.getEpicId());
+            if (epic != null && (previous == null || !epic.getSubtasksIds().contains(id))) {
+                epic.getSubtasksIds().add(id);
+            }
+        } else {
+            tasks.put(id, task);
+            prioritizedTasks.add(task);
+            timeSlots.add(task);
+        }
+
+        statuses.update(task);
+        historyManager.add(task);
+        nextId = Math.max(nextId, id + 1);
+        markChanged();
+    }
+
+    //Пересчёт всех эпиков после серии вызовов restore()
+    protected void finishRestore() {
+        for (Epic epic : epics.values()) {
+            board.recalculateEpic(epic);
+        }
+        markChanged();
+    }
+
+
     //Добавление задач, эпиков и подзадач
     @Override
     public void addTask(Task task) {
-        boolean isOverlapping = getPrioritizedTasks().stream()
-                .anyMatch(currentTask -> hasTimeOverlapping(task, currentTask));
-
-        if (isOverlapping) {
+        if (timeSlots.overlaps(task)) {
             throw new TimeConflictException("Задача пересекается по времени с уже существующей.");
         }
 
         task.setId(nextId++);
         tasks.put(task.getId(), task);
+        statuses.update(task);
         historyManager.add(task);
 
-        if (task.getStartTime() != null) {
-            prioritizedTasks.add(task);
-        }
+        prioritizedTasks.add(task);
+        timeSlots.add(task);
+        markChanged();
     }
 
     @Override
@@ -133,109 +270,72 @@ public class InMemoryTaskManager implements TaskManager {
         epic.setId(nextId++);
         epics.put(epic.getId(), epic);
         epic.setStatus(TaskStatus.NEW);
+        statuses.update(epic);
         historyManager.add(epic);
+        markChanged();
     }
 
     @Override
     public void addSubtask(Subtask subtask) {
-        boolean isOverlapping = getPrioritizedTasks().stream()
-                .anyMatch(currentTask -> hasTimeOverlapping(subtask, currentTask));
-
-        if (isOverlapping) {
+        if (timeSlots.overlaps(subtask)) {
             throw new TimeConflictException("Подзадача пересекается по времени с уже существующей задачей.");
         }
 
         subtask.setId(nextId++);
 
         subtasks.put(subtask.getId(), subtask);
+        statuses.update(subtask);
 
-        if (subtask.getStartTime() != null) {
-            prioritizedTasks.add(subtask);
-        }
+        prioritizedTasks.add(subtask);
+        timeSlots.add(subtask);
 
-        Epic epic = epics.get(subtask.getEpicId());
-        if (epic != null) {
-            if (!epic.getSubtasksIds().contains(subtask.getId())) {
-                epic.getSubtasksIds().add(subtask.getId());
-                updateEpicStatus(epic);
-                epic.updateTimeAndDuration(this);
-            }
-        }
+        board.attachToEpic(subtask);
         historyManager.add(subtask);
+        markChanged();
     }
 
 
     //Обновление задач, эпиков и подзадач
     @Override
     public void updateTask(Task task) {
-        boolean isOverlapping = getPrioritizedTasks().stream()
-                .anyMatch(currentTask -> hasTimeOverlapping(task, currentTask) && task.getId() != currentTask.getId());
-
-        if (isOverlapping) {
+        if (timeSlots.overlapsOthers(task)) {
             throw new TimeConflictException("Задача пересекается по времени с уже существующей.");
         }
 
         if (tasks.containsKey(task.getId())) {
-            Task oldTask = tasks.get(task.getId());
-            prioritizedTasks.remove(oldTask);
-
             tasks.put(task.getId(), task);
+            statuses.update(task);
             historyManager.add(task);
 
-            if (task.getStartTime() != null) {
-                prioritizedTasks.add(task);
-            }
+            prioritizedTasks.add(task);
+            timeSlots.add(task);
+            markChanged();
         }
     }
 
     @Override
     public void updateEpic(Epic epic) {
         epics.put(epic.getId(), epic);
-        updateEpicStatus(epic);
+        board.recalculateEpic(epic);
         historyManager.add(epic);
+        markChanged();
     }
 
     @Override
     public void updateSubtask(Subtask subtask) {
-        boolean isOverlapping = getPrioritizedTasks().stream()
-                .anyMatch(existingTask -> hasTimeOverlapping(subtask, existingTask)
-                        && subtask.getId() != existingTask.getId());
-
-        if (isOverlapping) {
+        if (timeSlots.overlapsOthers(subtask)) {
             throw new TimeConflictException("Подзадача пересекается по времени с уже существующей задачей.");
         }
 
         int subtaskId = subtask.getId();
         if (subtasks.containsKey(subtaskId)) {
             subtasks.put(subtask.getId(), subtask);
-            Epic epic = epics.get(subtask.getEpicId());
-            if (epic != null) {
-                updateEpicStatus(epic);
-                epic.updateTimeAndDuration(this);
-            }
+            statuses.update(subtask);
+            prioritizedTasks.add(subtask);
+            timeSlots.add(subtask);
+            board.refreshInEpic(subtask);
             historyManager.add(subtask);
-        }
-    }
-
-
-    //Обновление статуса Epic
-    private void updateEpicStatus(Epic epic) {
-        List<Subtask> subtasks = getSubtasksOfEpic(epic.getId());
-
-        if (subtasks.isEmpty()) {
-            epic.setStatus(TaskStatus.NEW);
-            return;
-        }
-
-        boolean allDone = subtasks.stream().allMatch(subtask -> subtask.getStatus() == TaskStatus.DONE);
-        boolean allNew = subtasks.stream().allMatch(subtask -> subtask.getStatus() == TaskStatus.NEW);
-
-        if (allDone) {
-            epic.setStatus(TaskStatus.DONE);
-        } else if (allNew) {
-            epic.setStatus(TaskStatus.NEW);
-        } else {
-            epic.setStatus(TaskStatus.IN_PROGRESS);
+            markChanged();
         }
     }
 
@@ -245,28 +345,48 @@ public class InMemoryTaskManager implements TaskManager {
     public void deleteTaskById(int id) {
         if (tasks.containsKey(id)) {
             Task task = tasks.remove(id);
-            prioritizedTasks.remove(task);
+            prioritizedTasks.remove(id);
+            timeSlots.remove(id);
+            statuses.remove(task);
             historyManager.remove(id);
+            markChanged();
             return;
         }
         if (epics.containsKey(id)) {
             Epic epic = epics.remove(id);
+            statuses.remove(epic);
             for (Integer subtaskId : epic.getSubtasksIds()) {
                 Subtask subtask = subtasks.remove(subtaskId);
-                prioritizedTasks.remove(subtask);
+                if (subtask != null) {
+                    prioritizedTasks.remove(subtaskId);
+                    statuses.remove(subtask);
+                }
+                timeSlots.remove(subtaskId);
                 historyManager.remove(subtaskId);
             }
             historyManager.remove(id);
+            markChanged();
         } else if (subtasks.containsKey(id)) {
             Subtask subtask = subtasks.remove(id);
-            prioritizedTasks.remove(subtask);
-            Epic epic = epics.get(subtask.getEpicId());
-            if (epic != null) {
-                epic.getSubtasksIds().remove((Integer) id);
-                updateEpicStatus(epic);
-                epic.updateTimeAndDuration(this);
-            }
+            prioritizedTasks.remove(id);
+            timeSlots.remove(id);
+            statuses.remove(subtask);
+            board.detachFromEpic(subtask);
             historyManager.remove(id);
+            markChanged();
+        }
+    }
+
+
+    //Пакет применяется обычными методами, поэтому наследник, сохраняющий изменения, видит каждую операцию.
+    //Откат возвращает удалённые задачи в обход этих методов, поэтому версия после него отмечается здесь.
+    @Override
+    public List<Task> applyBatch(List<BatchOperation> operations) {
+        try {
+            return BatchApplier.apply(this, board, operations);
+        } catch (RuntimeException e) {
+            markChanged();
+            throw e;
         }
     }
 
@@ -274,12 +394,14 @@ public class InMemoryTaskManager implements TaskManager {
     // Получение списка подзадач эпика
     @Override
     public List<Subtask> getSubtasksOfEpic(int epicId) {
-        return Optional.ofNullable(epics.get(epicId))
-                .map(epic -> epic.getSubtasksIds().stream()
-                        .map(subtasks::get)
-                        .filter(Objects::nonNull)
-                        .collect(Collectors.toList()))
-                .orElseGet(ArrayList::new);
+        return board.subtasksOf(epicId);
+    }
+
+
+    //Выборка по условиям, см. BoardStorage.findTasks
+    @Override
+    public List<Task> findTasks(TaskQuery query) {
+        return board.findTasks(query);
     }
 
 
@@ -293,17 +415,24 @@ public class InMemoryTaskManager implements TaskManager {
     //Получение отсортированного списка задач по приоритету
     @Override
     public List<Task> getPrioritizedTasks() {
-        return new ArrayList<>(prioritizedTasks);
+        return prioritizedTasks.getAll();
     }
 
+    //Задачи, пересекающиеся с окном [from, to), в порядке приоритета. Копируется только окно: O(log n + k)
+    @Override
+    public List<Task> getPrioritizedTasks(LocalDateTime from, LocalDateTime to) {
+        return prioritizedTasks.getWindow(from, to);
+    }
 
-    //Метод для проверки пересечений двух задач
-    private boolean hasTimeOverlapping(Task taskA, Task taskB) {
-        LocalDateTime startA = taskA.getStartTime();
-        LocalDateTime endA = taskA.getEndTime();
-        LocalDateTime startB = taskB.getStartTime();
-        LocalDateTime endB = taskB.getEndTime();
-
-        return startA.isBefore(endB) && startB.isBefore(endA);
+    //Размеры хранилищ читаются при выгрузке метрик без синхронизации: значение может отстать
+    //на одно изменение, но вычисляется за O(1) и не копирует коллекции
+    @Override
+    public void bindTo(MetricsRegistry registry) {
+        registry.gauge("task_manager_tasks", "Количество задач по типам", tasks::size, "type", "task");
+        registry.gauge("task_manager_tasks", "Количество задач по типам", epics::size, "type", "epic");
+        registry.gauge("task_manager_tasks", "Количество задач по типам", subtasks::size, "type", "subtask");
+        registry.gauge("task_manager_history_size", "Количество задач в истории просмотров", historyManager::size);
+        registry.gauge("task_manager_prioritized_size", "Количество задач в приоритетном списке",
+                prioritizedTasks::size);
     }
 }
@@ -5,7 +5,17 @@ public class Managers {
         return new InMemoryTaskManager();
     }
 
+    //Менеджер для доступа из нескольких потоков, например для HTTP-сервера с пулом потоков
+    public static TaskManager getConcurrent() {
+        return new ConcurrentTaskManager();
+    }
+
     public static HistoryManager getDefaultHistory() {
-        return new InMemoryHistoryManager();
+        return getDefaultHistory(InMemoryHistoryManager.DEFAULT_CAPACITY);
+    }
+
+    //История, хранящая не больше capacity последних просмотренных задач
+    public static HistoryManager getDefaultHistory(int capacity) {
+        return new InMemoryHistoryManager(capacity);
     }
 }
@@ -0,0 +1,8 @@
+package main.controllers;
+
+public enum PersistenceMode {
+    //Полная перезапись файла после каждого изменения
+    SNAPSHOT,
+    //Дописывание одной записи в журнал на изменение и периодическое сворачивание в снимок
+    JOURNAL
+}
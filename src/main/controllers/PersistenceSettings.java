@@ -0,0 +1,106 @@
+package main.controllers;
+
+//Настройки сохранения FileBackedTaskManager
+public class PersistenceSettings {
+    public static final int DEFAULT_COMPACTION_THRESHOLD = 1000;
+    public static final long DEFAULT_FLUSH_INTERVAL_MILLIS = 100;
+    public static final int DEFAULT_FLUSH_OPERATIONS = 1000;
+
+    private PersistenceMode mode;
+    private int compactionThreshold = DEFAULT_COMPACTION_THRESHOLD;
+    private SnapshotFormat format = SnapshotFormat.CSV;
+    private boolean memoryMapped;
+    private FsyncPolicy fsyncPolicy = FsyncPolicy.SNAPSHOT;
+    private boolean async;
+    private long flushIntervalMillis = DEFAULT_FLUSH_INTERVAL_MILLIS;
+    private int flushOperations = DEFAULT_FLUSH_OPERATIONS;
+
+    public PersistenceSettings() {
+        this(PersistenceMode.SNAPSHOT);
+    }
+
+    public PersistenceSettings(PersistenceMode mode) {
+        this.mode = mode;
+    }
+
+    public PersistenceMode getMode() {
+        return mode;
+    }
+
+    public void setMode(PersistenceMode mode) {
+        this.mode = mode;
+    }
+
+    //Формат, в котором пишется снимок. Читается снимок в любом формате: двоичный узнаётся по заголовку.
+    public SnapshotFormat getFormat() {
+        return format;
+    }
+
+    public void setFormat(SnapshotFormat format) {
+        this.format = format;
+    }
+
+    //Чтение двоичного снимка через отображение файла в память; по умолчанию выключено. Отображение живёт,
+    //пока буфер не собран сборщиком мусора, а в Windows до этого снимок нельзя подменить новым, поэтому
+    //включать его стоит там, где снимок после загрузки не перезаписывается или платформа это допускает.
+    public boolean isMemoryMapped() {
+        return memoryMapped;
+    }
+
+    public void setMemoryMapped(boolean memoryMapped) {
+        this.memoryMapped = memoryMapped;
+    }
+
+    public FsyncPolicy getFsyncPolicy() {
+        return fsyncPolicy;
+    }
+
+    public void setFsyncPolicy(FsyncPolicy fsyncPolicy) {
+        this.fsyncPolicy = fsyncPolicy;
+    }
+
+    //Количество записей в журнале, после которого он сворачивается в снимок
+    public int getCompactionThreshold() {
+        return compactionThreshold;
+    }
+
+    public void setCompactionThreshold(int compactionThreshold) {
+        if (compactionThreshold <= 0) {
+            throw new IllegalArgumentException("Порог сворачивания журнала должен быть положительным.");
+        }
+        this.compactionThreshold = compactionThreshold;
+    }
+
+    //Асинхронная запись: изменения не пишутся в вызывающем потоке, а копятся и записываются фоновым
+    //потоком раз в flushIntervalMillis или сразу после flushOperations изменений. При сбое процесса
+    //теряются изменения, накопленные с последней записи; flush() дожидается записи и fsync.
+    public boolean isAsync() {
+        return async;
+    }
+
+    public void setAsync(boolean async) {
+        this.async = async;
+    }
+
+    public long getFlushIntervalMillis() {
+        return flushIntervalMillis;
+    }
+
+    public void setFlushIntervalMillis(long flushIntervalMillis) {
+        if (flushIntervalMillis <= 0) {
+            throw new IllegalArgumentException("Интервал записи должен быть положительным.");
+        }
+        this.flushIntervalMillis = flushIntervalMillis;
+    }
+
+    public int getFlushOperations() {
+        return flushOperations;
+    }
+
+    public void setFlushOperations(int flushOperations) {
+        if (flushOperations <= 0) {
+            throw new IllegalArgumentException("Число изменений до записи должно быть положительным.");
+        }
+        this.flushOperations = flushOperations;
+    }
+}
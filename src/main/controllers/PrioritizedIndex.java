@@ -0,0 +1,145 @@
+package main.controllers;
+
+import main.model.Task;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+//Приоритетный список задач: упорядочен по времени начала, при равном времени - по id.
+//Составной ключ неизменяем и хранится отдельно от задачи, поэтому задачи с одинаковым началом
+//не вытесняют друг друга, а изменение задачи снаружи не ломает порядок: при переиндексации
+//удаляется ключ, с которым задача была добавлена. Задачи без времени начала в список не входят.
+public class PrioritizedIndex {
+    private final NavigableMap<Key, Task> tasks;
+    private final Map<Integer, Key> keys;
+
+    //Индекс для однопоточного менеджера на TreeMap
+    public PrioritizedIndex() {
+        this(new TreeMap<>(), new HashMap<>());
+    }
+
+    private PrioritizedIndex(NavigableMap<Key, Task> tasks, Map<Integer, Key> keys) {
+        this.tasks = tasks;
+        this.keys = keys;
+    }
+
+    //Индекс на ConcurrentSkipListMap: чтение безопасно из нескольких потоков,
+    //изменения одной задачи должны идти последовательно
+    public static PrioritizedIndex concurrent() {
+        return new PrioritizedIndex(new ConcurrentSkipListMap<>(), new ConcurrentHashMap<>());
+    }
+
+    //Добавление или переиндексация задачи за O(log n)
+    public void add(Task task) {
+        remove(task.getId());
+        if (task.getStartTime() != null) {
+            Key key = new Key(task.getStartTime(), task.getId());
+            keys.put(task.getId(), key);
+            tasks.put(key, task);
+        }
+    }
+
+    public void remove(int id) {
+        Key key = keys.remove(id);
+        if (key != null) {
+            tasks.remove(key);
+        }
+    }
+
+    public void clear() {
+        tasks.clear();
+        keys.clear();
+    }
+
+    public int size() {
+        return keys.size();
+    }
+
+    public List<Task> getAll() {
+        return new ArrayList<>(tasks.values());
+    }
+
+    //Задачи, пересекающиеся с окном [from, to). Интервалы задач не пересекаются, поэтому из начавшихся
+    //раньше from в окно может попасть лишь задача с последним таким временем начала. Но с тем же началом
+    //могут стоять и задачи нулевой длительности, а по ключу (начало, id) интервал может оказаться левее
+    //них, поэтому просматриваются все задачи с этим временем начала; интервал среди них не больше одного.
+    public List<Task> getWindow(LocalDateTime from, LocalDateTime to) {
+        List<Task> window = new ArrayList<>();
+        if (from != null && to != null && !from.isBefore(to)) {
+            return window;
+        }
+
+        if (from != null) {
+            Map.Entry<Key, Task> previous = tasks.lowerEntry(Key.first(from));
+            LocalDateTime start = previous != null ? previous.getKey().startTime : null;
+            while (previous != null && previous.getKey().startTime.equals(start)) {
+                LocalDateTime end = previous.getValue().getEndTime();
+                if (end != null && end.isAfter(from)) {
+                    window.add(previous.getValue());
+                    break;
+                }
+                previous = tasks.lowerEntry(previous.getKey());
+            }
+        }
+        window.addAll(startingBetween(from, to));
+        return window;
+    }
+
+    //Представление задач, начинающихся в [from, to); null снимает ограничение
+    public Collection<Task> startingBetween(LocalDateTime from, LocalDateTime to) {
+        if (from != null && to != null && !from.isBefore(to)) {
+            return List.of();
+        }
+
+        NavigableMap<Key, Task> view = tasks;
+        if (from != null) {
+            view = view.tailMap(Key.first(from), true);
+        }
+        if (to != null) {
+            view = view.headMap(Key.first(to), false);
+        }
+        return view.values();
+    }
+
+    private static final class Key implements Comparable<Key> {
+        final LocalDateTime startTime;
+        final int id;
+
+        Key(LocalDateTime startTime, int id) {
+            this.startTime = startTime;
+            this.id = id;
+        }
+
+        //Ключ, меньший любого ключа с тем же временем начала
+        static Key first(LocalDateTime startTime) {
+            return new Key(startTime, Integer.MIN_VALUE);
+        }
+
+        @Override
+        public int compareTo(Key other) {
+            int byTime = startTime.compareTo(other.startTime);
+            return byTime != 0 ? byTime : Integer.compare(id, other.id);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) return true;
+            if (!(obj instanceof Key)) return false;
+            Key other = (Key) obj;
+            return id == other.id && startTime.equals(other.startTime);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * startTime.hashCode() + id;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package main.controllers;
+
+import main.model.Task;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.function.Consumer;
+
+//Формат файла снимка FileBackedTaskManager. Задачи пишутся в порядке: задачи, эпики, подзадачи,
+//и в том же порядке отдаются при чтении. Ошибки формата - RuntimeException, ошибки ввода-вывода - IOException.
+public interface SnapshotCodec {
+    void write(OutputStream out, Iterable<? extends Task> tasks) throws IOException;
+
+    void read(InputStream in, Consumer<Task> sink) throws IOException;
+}
@@ -0,0 +1,18 @@
+package main.controllers;
+
+public enum SnapshotFormat {
+    //Текстовый CSV с BOM и заголовком, открывается в Excel
+    CSV(new CsvSnapshotCodec()),
+    //Компактный двоичный формат с версией и записями с префиксом длины
+    BINARY(new BinarySnapshotCodec());
+
+    private final SnapshotCodec codec;
+
+    SnapshotFormat(SnapshotCodec codec) {
+        this.codec = codec;
+    }
+
+    public SnapshotCodec getCodec() {
+        return codec;
+    }
+}
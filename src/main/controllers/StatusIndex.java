@@ -0,0 +1,70 @@
+package main.controllers;
+
+import main.model.Task;
+import main.model.TaskStatus;
+import main.model.TaskType;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+//Вторичный индекс: тип и статус -> упорядоченные id задач. Статус, с которым задача
+//проиндексирована, запоминается отдельно, потому что задачу могут изменить снаружи.
+//Структуры потокобезопасны, но обновления одной задачи должны идти последовательно.
+public class StatusIndex {
+    private final Map<TaskType, Map<TaskStatus, NavigableSet<Integer>>> ids = new EnumMap<>(TaskType.class);
+    private final Map<Integer, TaskStatus> indexedStatuses = new ConcurrentHashMap<>();
+
+    public StatusIndex() {
+        for (TaskType type : TaskType.values()) {
+            Map<TaskStatus, NavigableSet<Integer>> byStatus = new EnumMap<>(TaskStatus.class);
+            for (TaskStatus status : TaskStatus.values()) {
+                byStatus.put(status, new ConcurrentSkipListSet<>());
+            }
+            ids.put(type, byStatus);
+        }
+    }
+
+    //Добавление задачи или перенос её в набор текущего статуса
+    public void update(Task task) {
+        TaskStatus status = task.getStatus();
+        TaskStatus previous = status != null
+                ? indexedStatuses.put(task.getId(), status)
+                : indexedStatuses.remove(task.getId());
+        if (previous == status) {
+            return;
+        }
+
+        Map<TaskStatus, NavigableSet<Integer>> byStatus = ids.get(task.getType());
+        if (previous != null) {
+            byStatus.get(previous).remove(task.getId());
+        }
+        if (status != null) {
+            byStatus.get(status).add(task.getId());
+        }
+    }
+
+    public void remove(Task task) {
+        TaskStatus previous = indexedStatuses.remove(task.getId());
+        if (previous != null) {
+            ids.get(task.getType()).get(previous).remove(task.getId());
+        }
+    }
+
+    //Id задач типа type в статусе status по возрастанию; только для чтения
+    public NavigableSet<Integer> ids(TaskType type, TaskStatus status) {
+        return Collections.unmodifiableNavigableSet(ids.get(type).get(status));
+    }
+
+    public void clear(TaskType type) {
+        for (NavigableSet<Integer> set : ids.get(type).values()) {
+            for (Integer id : set) {
+                indexedStatuses.remove(id);
+            }
+            set.clear();
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package main.controllers;
+
+import main.exceptions.ManagerSaveException;
+import main.model.Epic;
+import main.model.Subtask;
+import main.model.Task;
+import main.model.TaskStatus;
+import main.model.TaskType;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+//Кодек строк CSV для FileBackedTaskManager: запись идёт сразу в Writer, разбор - посимвольно, без регулярных
+//выражений. Поля с запятой, кавычкой или переводом строки берутся в кавычки, кавычки внутри удваиваются,
+//поэтому запись может занимать несколько физических строк файла. Старые файлы без кавычек читаются как раньше.
+public final class TaskCsvCodec {
+    public static final String HEADER = "id,type,name,status,description,duration,startTime,endTime,epic";
+
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+    private static final int FIELDS = 9;
+
+    private TaskCsvCodec() {
+    }
+
+    //Запись задачи одной строкой CSV вместе с переводом строки
+    public static void write(Writer out, Task task) throws IOException {
+        out.write(Integer.toString(task.getId()));
+        out.write(',');
+        out.write(task.getType().name());
+        out.write(',');
+        writeField(out, task.getTaskName());
+        out.write(',');
+        out.write(task.getStatus().name());
+        out.write(',');
+        writeField(out, task.getDescription());
+        out.write(',');
+        Duration duration = task.getDuration();
+        out.write(duration != null ? Long.toString(duration.toMinutes()) : "0");
+        out.write(',');
+        writeDateTime(out, task.getStartTime());
+        out.write(',');
+        writeDateTime(out, task.getEndTime());
+        out.write(',');
+        if (task.getType() == TaskType.SUBTASK) {
+            out.write(Integer.toString(((Subtask) task).getEpicId()));
+        }
+        out.write('\n');
+    }
+
+    //Запись произвольного поля: в кавычки берутся только поля, которым они нужны
+    public static void writeField(Writer out, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        if (!needsQuotes(value)) {
+            out.write(value);
+            return;
+        }
+
+        out.write('"');
+        int start = 0;
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) == '"') {
+                out.write(value, start, i - start + 1);
+                out.write('"');
+                start = i + 1;
+            }
+        }
+        out.write(value, start, value.length() - start);
+        out.write('"');
+    }
+
+    private static boolean needsQuotes(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void writeDateTime(Writer out, LocalDateTime value) throws IOException {
+        if (value != null) {
+            FORMATTER.formatTo(value, out);
+        }
+    }
+
+    //Чтение следующей записи. Поле в кавычках может продолжаться на следующих строках,
+    //переводы строк внутри него восстанавливаются как '\n'. В конце файла возвращается null.
+    public static List<String> readRecord(BufferedReader reader) throws IOException {
+        String line = reader.readLine();
+        return line != null ? split(line, reader) : null;
+    }
+
+    //Разбор одной строки без продолжения на следующие строки
+    public static List<String> split(String line) {
+        try {
+            return split(line, null);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static List<String> split(String line, BufferedReader continuation) throws IOException {
+        List<String> fields = new ArrayList<>(FIELDS);
+        int position = 0;
+        while (true) {
+            if (position < line.length() && line.charAt(position) == '"') {
+                StringBuilder field = new StringBuilder();
+                position++;
+                while (true) {
+                    if (position == line.length()) {
+                        line = continuation != null ? continuation.readLine() : null;
+                        if (line == null) {
+                            throw new IllegalArgumentException("Незакрытая кавычка в поле: " + field);
+                        }
+                        field.append('\n');
+                        position = 0;
+                        continue;
+                    }
+                    char c = line.charAt(position++);
+                    if (c != '"') {
+                        field.append(c);
+                    } else if (position < line.length() && line.charAt(position) == '"') {
+                        field.append('"');
+                        position++;
+                    } else {
+                        break;
+                    }
+                }
+                fields.add(field.toString());
+
+                if (position == line.length()) {
+                    return fields;
+                }
+                if (line.charAt(position) != ',') {
+                    throw new IllegalArgumentException("Ожидалась запятая после поля в кавычках: " + line);
+                }
+                position++;
+            } else {
+                int comma = line.indexOf(',', position);
+                if (comma < 0) {
+                    fields.add(line.substring(position));
+                    return fields;
+                }
+                fields.add(line.substring(position, comma));
+                position = comma + 1;
+            }
+        }
+    }
+
+    //Сборка задачи из полей записи в порядке HEADER
+    public static Task decode(List<String> fields) {
+        TaskType type;
+        try {
+            type = TaskType.valueOf(fields.get(1));
+        } catch (RuntimeException e) {
+            throw new ManagerSaveException("Некорректный формат строки: " + String.join(",", fields), null, e);
+        }
+
+        if (type == TaskType.SUBTASK && fields.size() != FIELDS) {
+            throw new ManagerSaveException("Некорректный формат строки для Subtask: " + String.join(",", fields),
+                    null);
+        }
+        if (type != TaskType.SUBTASK && fields.size() != FIELDS - 1 && fields.size() != FIELDS) {
+            throw new ManagerSaveException("Некорректный формат строки для " + type + ": "
+                    + String.join(",", fields), null);
+        }
+
+        try {
+            int id = Integer.parseInt(fields.get(0));
+            String name = fields.get(2).trim();
+            TaskStatus status = TaskStatus.valueOf(fields.get(3));
+            String description = fields.get(4).trim();
+            Duration duration = fields.get(5).isEmpty() ? Duration.ZERO
+                    : Duration.ofMinutes(Long.parseLong(fields.get(5)));
+            LocalDateTime startTime = parseDateTime(fields.get(6));
+
+            if (type == TaskType.TASK) {
+                Task task = new Task(name, description, status, duration, startTime);
+                task.setId(id);
+                return task;
+            } else if (type == TaskType.EPIC) {
+                Epic epic = new Epic(name, description);
+                epic.setId(id);
+                epic.setDuration(duration);
+                epic.setStartTime(startTime);
+                //Время окончания хранится только у эпика, у остальных оно вычисляется
+                epic.setEndTime(parseDateTime(fields.get(7)));
+                return epic;
+            } else {
+                int epicId = Integer.parseInt(fields.get(8)); // Только для Subtask
+                Subtask subtask = new Subtask(name, description, status, duration, startTime, epicId);
+                subtask.setId(id);
+                return subtask;
+            }
+        } catch (Exception e) {
+            throw new ManagerSaveException("Ошибка разбора строки: " + String.join(",", fields), null, e);
+        }
+    }
+
+    private static LocalDateTime parseDateTime(String value) {
+        return value.isEmpty() ? null : LocalDateTime.parse(value, FORMATTER);
+    }
+}
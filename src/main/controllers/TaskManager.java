@@ -4,6 +4,7 @@ import main.model.Epic;
 import main.model.Subtask;
 import main.model.Task;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface TaskManager {
@@ -14,6 +15,23 @@ public interface TaskManager {
 
     List<Subtask> getAllSubtasks();
 
+    //Неизменяемый срез всей доски с версией; пока доска не меняется, возвращается тот же срез.
+    //Версия среза может отставать от getVersion(), поэтому метки ответов берутся из самого среза.
+    BoardSnapshot getSnapshot();
+
+    //Версия доски без сборки среза: растёт после каждого изменения задач
+    long getVersion();
+
+    //Версия истории просмотров; содержимое истории зависит и от версии доски
+    long getHistoryVersion();
+
+    //Постраничное получение: не больше limit элементов с id больше afterId в порядке возрастания id
+    List<Task> getTasksPage(int afterId, int limit);
+
+    List<Epic> getEpicsPage(int afterId, int limit);
+
+    List<Subtask> getSubtasksPage(int afterId, int limit);
+
     //Удаление всех задач
     void removeAllTasks();
 
@@ -45,12 +63,29 @@ public interface TaskManager {
     // Удаление задачи по идентификатору
     void deleteTaskById(int id);
 
+    //Применение пакета операций целиком или никак: при пересечении по времени или другой ошибке
+    //уже применённые операции откатываются. Результат - задача каждой операции, для удаления
+    //отсутствующей задачи - null.
+    List<Task> applyBatch(List<BatchOperation> operations);
+
     // Получение списка подзадач эпика
     List<Subtask> getSubtasksOfEpic(int epicId);
 
+    //Выборка задач всех типов по статусу, типу, эпику и диапазону времени начала, по возрастанию id
+    List<Task> findTasks(TaskQuery query);
+
     // Получение истории просмотров
     List<Task> getHistory();
 
 
     List<Task> getPrioritizedTasks();
+
+    //Задачи, пересекающиеся с окном [from, to), в порядке приоритета; null снимает ограничение
+    List<Task> getPrioritizedTasks(LocalDateTime from, LocalDateTime to);
+
+    //Можно ли вызывать менеджер из нескольких потоков одновременно. Многопоточные режимы HttpTaskServer
+    //принимают только такой менеджер.
+    default boolean isThreadSafe() {
+        return false;
+    }
 }
@@ -0,0 +1,97 @@
+package main.controllers;
+
+import main.model.Subtask;
+import main.model.Task;
+import main.model.TaskStatus;
+import main.model.TaskType;
+
+import java.time.LocalDateTime;
+
+//Условия выборки задач для TaskManager.findTasks. Незаданное (null) условие не ограничивает выборку.
+//Диапазон времени начала полуоткрытый: from включительно, to не включительно.
+public class TaskQuery {
+    private TaskStatus status;
+    private TaskType type;
+    private Integer epicId;
+    private LocalDateTime from;
+    private LocalDateTime to;
+
+    public TaskStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(TaskStatus status) {
+        this.status = status;
+    }
+
+    public TaskType getType() {
+        return type;
+    }
+
+    public void setType(TaskType type) {
+        this.type = type;
+    }
+
+    //Только подзадачи указанного эпика
+    public Integer getEpicId() {
+        return epicId;
+    }
+
+    public void setEpicId(Integer epicId) {
+        this.epicId = epicId;
+    }
+
+    public LocalDateTime getFrom() {
+        return from;
+    }
+
+    public void setFrom(LocalDateTime from) {
+        this.from = from;
+    }
+
+    public LocalDateTime getTo() {
+        return to;
+    }
+
+    public void setTo(LocalDateTime to) {
+        this.to = to;
+    }
+
+    public boolean hasTimeRange() {
+        return from != null || to != null;
+    }
+
+    //Типы, которые могут попасть в выборку: условие по эпику оставляет только подзадачи
+    public boolean accepts(TaskType candidate) {
+        if (epicId != null && candidate != TaskType.SUBTASK) {
+            return false;
+        }
+        return type == null || type == candidate;
+    }
+
+    //Проверка всех условий для одной задачи
+    public boolean matches(Task task) {
+        if (!accepts(task.getType())) {
+            return false;
+        }
+        if (status != null && task.getStatus() != status) {
+            return false;
+        }
+        if (epicId != null && ((Subtask) task).getEpicId() != epicId) {
+            return false;
+        }
+        if (hasTimeRange()) {
+            LocalDateTime start = task.getStartTime();
+            if (start == null) {
+                return false;
+            }
+            if (from != null && start.isBefore(from)) {
+                return false;
+            }
+            if (to != null && !start.isBefore(to)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
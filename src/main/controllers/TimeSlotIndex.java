@@ -0,0 +1,133 @@
+package main.controllers;
+
+import main.model.Task;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+//Индекс занятых временных интервалов для проверки пересечений за O(log n) без аллокаций.
+//Интервалы в индексе попарно не пересекаются, поэтому новый интервал достаточно сравнить
+//с ближайшим по времени начала соседом слева.
+public class TimeSlotIndex {
+    private static final int NO_ID = Integer.MIN_VALUE;
+
+    //Интервалы ненулевой длительности: время начала -> слот
+    private final NavigableMap<LocalDateTime, Slot> intervals = new TreeMap<>();
+    //Задачи нулевой длительности занимают только момент времени и могут совпадать по началу
+    private final NavigableMap<LocalDateTime, Set<Integer>> instants = new TreeMap<>();
+    //Время начала, с которым задача была проиндексирована (задачу могут изменить снаружи)
+    private final Map<Integer, LocalDateTime> indexedStarts = new HashMap<>();
+
+    //Проверка пересечения новой задачи с занятыми интервалами
+    public boolean overlaps(Task task) {
+        return overlaps(task, NO_ID);
+    }
+
+    //Проверка пересечения при обновлении: собственный интервал задачи не учитывается
+    public boolean overlapsOthers(Task task) {
+        return overlaps(task, task.getId());
+    }
+
+    public void add(Task task) {
+        remove(task.getId());
+
+        LocalDateTime start = task.getStartTime();
+        if (start == null) {
+            return;
+        }
+
+        LocalDateTime end = endOf(task);
+        indexedStarts.put(task.getId(), start);
+        if (start.isBefore(end)) {
+            intervals.put(start, new Slot(task.getId(), end));
+        } else {
+            instants.computeIfAbsent(start, key -> new HashSet<>()).add(task.getId());
+        }
+    }
+
+    public void remove(int id) {
+        LocalDateTime start = indexedStarts.remove(id);
+        if (start == null) {
+            return;
+        }
+
+        Slot slot = intervals.get(start);
+        if (slot != null && slot.id == id) {
+            intervals.remove(start);
+            return;
+        }
+
+        Set<Integer> ids = instants.get(start);
+        if (ids != null && ids.remove(id) && ids.isEmpty()) {
+            instants.remove(start);
+        }
+    }
+
+    public void clear() {
+        intervals.clear();
+        instants.clear();
+        indexedStarts.clear();
+    }
+
+    public int size() {
+        return indexedStarts.size();
+    }
+
+    private boolean overlaps(Task task, int ignoredId) {
+        LocalDateTime start = task.getStartTime();
+        if (start == null) {
+            return false;
+        }
+
+        LocalDateTime end = endOf(task);
+        if (!start.isBefore(end)) {
+            //Момент времени пересекается только с интервалом, строго содержащим его
+            return endOfLowerInterval(start, ignoredId).isAfter(start);
+        }
+
+        if (endOfLowerInterval(end, ignoredId).isAfter(start)) {
+            return true;
+        }
+
+        //Задачи нулевой длительности строго внутри (start, end)
+        Map.Entry<LocalDateTime, Set<Integer>> instant = instants.higherEntry(start);
+        while (instant != null && instant.getKey().isBefore(end)) {
+            Set<Integer> ids = instant.getValue();
+            if (ids.size() > 1 || !ids.contains(ignoredId)) {
+                return true;
+            }
+            instant = instants.higherEntry(instant.getKey());
+        }
+        return false;
+    }
+
+    //Конец ближайшего интервала, начавшегося строго раньше time. Интервалы левее него
+    //заканчиваются не позже его начала, поэтому проверять их не нужно.
+    private LocalDateTime endOfLowerInterval(LocalDateTime time, int ignoredId) {
+        Map.Entry<LocalDateTime, Slot> lower = intervals.lowerEntry(time);
+        if (lower != null && lower.getValue().id == ignoredId) {
+            lower = intervals.lowerEntry(lower.getKey());
+        }
+        return lower != null ? lower.getValue().end : LocalDateTime.MIN;
+    }
+
+    private static LocalDateTime endOf(Task task) {
+        LocalDateTime end = task.getEndTime();
+        return end != null ? end : task.getStartTime();
+    }
+
+    private static final class Slot {
+        final int id;
+        final LocalDateTime end;
+
+        Slot(int id, LocalDateTime end) {
+            this.id = id;
+            this.end = end;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package main.metrics;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.concurrent.atomic.LongAdder;
+
+//Монотонный счётчик. LongAdder раскладывает приращения из разных потоков по своим ячейкам,
+//поэтому запись не упирается в одну общую переменную.
+public final class Counter extends Meter {
+    private final LongAdder value = new LongAdder();
+
+    Counter() {
+    }
+
+    public void increment() {
+        value.increment();
+    }
+
+    public void add(long amount) {
+        if (amount < 0) {
+            throw new IllegalArgumentException("Счётчик не может уменьшаться.");
+        }
+        value.add(amount);
+    }
+
+    public long get() {
+        return value.sum();
+    }
+
+    @Override
+    String type() {
+        return "counter";
+    }
+
+    @Override
+    void writeSamples(Writer out, String name, String labels) throws IOException {
+        writeSample(out, name, labels, get());
+    }
+}
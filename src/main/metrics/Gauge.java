@@ -0,0 +1,32 @@
+package main.metrics;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.function.DoubleSupplier;
+
+//Мгновенное значение, которое вычисляется только при выгрузке метрик
+final class Gauge extends Meter {
+    private volatile DoubleSupplier supplier;
+
+    Gauge(DoubleSupplier supplier) {
+        this.supplier = supplier;
+    }
+
+    void setSupplier(DoubleSupplier supplier) {
+        this.supplier = supplier;
+    }
+
+    double get() {
+        return supplier.getAsDouble();
+    }
+
+    @Override
+    String type() {
+        return "gauge";
+    }
+
+    @Override
+    void writeSamples(Writer out, String name, String labels) throws IOException {
+        writeSample(out, name, labels, get());
+    }
+}
@@ -0,0 +1,134 @@
+package main.metrics;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+//Гистограмма задержек в наносекундах с логарифмически-линейными корзинами, как в HdrHistogram:
+//каждая степень двойки делится на SUB_BUCKETS равных корзин, поэтому относительная погрешность
+//квантиля не больше 1/SUB_BUCKETS на всём диапазоне от наносекунд до часов. Запись - вычисление
+//индекса по старшему биту и одно атомарное приращение, без блокировок и аллокаций.
+//В Prometheus выгружается как summary: квантили, сумма в секундах и количество.
+public final class LatencyHistogram extends Meter {
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+    private static final double NANOS_PER_SECOND = 1e9;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder totalNanos = new LongAdder();
+
+    LatencyHistogram() {
+    }
+
+    //Запись одного замера; отрицательные значения (скачок часов) считаются нулём
+    public void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        counts.getAndIncrement(index(nanos));
+        totalNanos.add(nanos);
+    }
+
+    //Запись времени, прошедшего с отметки System.nanoTime()
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    public long count() {
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            count += counts.get(i);
+        }
+        return count;
+    }
+
+    public long totalNanos() {
+        return totalNanos.sum();
+    }
+
+    //Верхняя граница корзины, в которую попадает квантиль q: значение не меньше истинного
+    //и превышает его не больше чем на 1/SUB_BUCKETS. Без замеров - 0.
+    public long valueAtQuantile(double q) {
+        return valuesAtQuantiles(snapshot(), new double[]{q})[0];
+    }
+
+    private long[] snapshot() {
+        long[] snapshot = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+        }
+        return snapshot;
+    }
+
+    //Квантили по одному снимку корзин, qs - по возрастанию
+    private static long[] valuesAtQuantiles(long[] snapshot, double[] qs) {
+        long total = 0;
+        for (long count : snapshot) {
+            total += count;
+        }
+        long[] values = new long[qs.length];
+        if (total == 0) {
+            return values;
+        }
+
+        int q = 0;
+        long seen = 0;
+        for (int i = 0; i < BUCKETS && q < qs.length; i++) {
+            seen += snapshot[i];
+            while (q < qs.length && seen > 0 && seen >= Math.ceil(qs[q] * total)) {
+                values[q++] = highestEquivalent(i);
+            }
+        }
+        return values;
+    }
+
+    //До SUB_BUCKETS значение само себе индекс, дальше - номер степени двойки и SUB_BUCKET_BITS бит под старшим
+    static int index(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    static long lowestEquivalent(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        return (long) (SUB_BUCKETS + index % SUB_BUCKETS) << shift;
+    }
+
+    static long highestEquivalent(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        return lowestEquivalent(index) + (1L << shift) - 1;
+    }
+
+    @Override
+    String type() {
+        return "summary";
+    }
+
+    @Override
+    void writeSamples(Writer out, String name, String labels) throws IOException {
+        long[] snapshot = snapshot();
+        long count = 0;
+        for (long bucket : snapshot) {
+            count += bucket;
+        }
+        long[] values = valuesAtQuantiles(snapshot, QUANTILES);
+        for (int i = 0; i < QUANTILES.length; i++) {
+            writeSample(out, name, withLabel(labels, "quantile", Double.toString(QUANTILES[i])),
+                    values[i] / NANOS_PER_SECOND);
+        }
+        writeSample(out, name + "_sum", labels, totalNanos() / NANOS_PER_SECOND);
+        writeSample(out, name + "_count", labels, count);
+    }
+}
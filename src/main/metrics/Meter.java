@@ -0,0 +1,31 @@
+package main.metrics;
+
+import java.io.IOException;
+import java.io.Writer;
+
+//Метрика реестра: тип для строки "# TYPE" и запись значений в текстовом формате Prometheus.
+//labels - уже отрисованные метки вида {key="value"} или пустая строка.
+abstract class Meter {
+    abstract String type();
+
+    abstract void writeSamples(Writer out, String name, String labels) throws IOException;
+
+    //Метки с добавленной в конец ещё одной парой, например quantile у сводки
+    static String withLabel(String labels, String key, String value) {
+        String pair = key + "=\"" + value + "\"";
+        return labels.isEmpty() ? "{" + pair + "}" : labels.substring(0, labels.length() - 1) + "," + pair + "}";
+    }
+
+    //Значение в формате Prometheus: целые - без дробной части
+    static void writeSample(Writer out, String name, String labels, double value) throws IOException {
+        out.write(name);
+        out.write(labels);
+        out.write(' ');
+        if (value == Math.rint(value) && !Double.isInfinite(value) && Math.abs(value) < 1e15) {
+            out.write(Long.toString((long) value));
+        } else {
+            out.write(Double.toString(value));
+        }
+        out.write('\n');
+    }
+}
@@ -0,0 +1,6 @@
+package main.metrics;
+
+//Компонент, который сам регистрирует свои метрики в реестре: размеры коллекций, длительность ввода-вывода
+public interface MeterBinder {
+    void bindTo(MetricsRegistry registry);
+}
@@ -0,0 +1,367 @@
+package main.metrics;
+
+import main.controllers.BatchOperation;
+import main.controllers.BoardSnapshot;
+import main.controllers.TaskManager;
+import main.controllers.TaskQuery;
+import main.model.Epic;
+import main.model.Subtask;
+import main.model.Task;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+//Обёртка менеджера, замеряющая задержку каждого вызова в task_manager_operation_seconds{operation=...}.
+//Гистограммы запрашиваются из реестра один раз в конструкторе, на вызов приходятся два System.nanoTime()
+//и одна запись в гистограмму. Если менеджер сам регистрирует метрики (MeterBinder), он подключается к реестру.
+public class MeteredTaskManager implements TaskManager {
+    private static final String OPERATION_SECONDS = "task_manager_operation_seconds";
+
+    private final TaskManager delegate;
+
+    private final LatencyHistogram getAllTasks;
+    private final LatencyHistogram getAllEpics;
+    private final LatencyHistogram getAllSubtasks;
+    private final LatencyHistogram getSnapshot;
+    private final LatencyHistogram getTasksPage;
+    private final LatencyHistogram getEpicsPage;
+    private final LatencyHistogram getSubtasksPage;
+    private final LatencyHistogram removeAllTasks;
+    private final LatencyHistogram removeAllEpics;
+    private final LatencyHistogram removeAllSubtasks;
+    private final LatencyHistogram getTaskById;
+    private final LatencyHistogram getEpicById;
+    private final LatencyHistogram getSubtaskById;
+    private final LatencyHistogram addTask;
+    private final LatencyHistogram addEpic;
+    private final LatencyHistogram addSubtask;
+    private final LatencyHistogram updateTask;
+    private final LatencyHistogram updateEpic;
+    private final LatencyHistogram updateSubtask;
+    private final LatencyHistogram deleteTaskById;
+    private final LatencyHistogram applyBatch;
+    private final LatencyHistogram getSubtasksOfEpic;
+    private final LatencyHistogram findTasks;
+    private final LatencyHistogram getHistory;
+    private final LatencyHistogram getPrioritizedTasks;
+    private final LatencyHistogram getPrioritizedWindow;
+
+    public MeteredTaskManager(TaskManager delegate, MetricsRegistry registry) {
+        this.delegate = delegate;
+        getAllTasks = operation(registry, "getAllTasks");
+        getAllEpics = operation(registry, "getAllEpics");
+        getAllSubtasks = operation(registry, "getAllSubtasks");
+        getSnapshot = operation(registry, "getSnapshot");
+        getTasksPage = operation(registry, "getTasksPage");
+        getEpicsPage = operation(registry, "getEpicsPage");
+        getSubtasksPage = operation(registry, "getSubtasksPage");
+        removeAllTasks = operation(registry, "removeAllTasks");
+        removeAllEpics = operation(registry, "removeAllEpics");
+        removeAllSubtasks = operation(registry, "removeAllSubtasks");
+        getTaskById = operation(registry, "getTaskById");
+        getEpicById = operation(registry, "getEpicById");
+        getSubtaskById = operation(registry, "getSubtaskById");
+        addTask = operation(registry, "addTask");
+        addEpic = operation(registry, "addEpic");
+        addSubtask = operation(registry, "addSubtask");
+        updateTask = operation(registry, "updateTask");
+        updateEpic = operation(registry, "updateEpic");
+        updateSubtask = operation(registry, "updateSubtask");
+        deleteTaskById = operation(registry, "deleteTaskById");
+        applyBatch = operation(registry, "applyBatch");
+        getSubtasksOfEpic = operation(registry, "getSubtasksOfEpic");
+        findTasks = operation(registry, "findTasks");
+        getHistory = operation(registry, "getHistory");
+        getPrioritizedTasks = operation(registry, "getPrioritizedTasks");
+        getPrioritizedWindow = operation(registry, "getPrioritizedTasksWindow");
+
+        if (delegate instanceof MeterBinder) {
+            ((MeterBinder) delegate).bindTo(registry);
+        }
+    }
+
+    private static LatencyHistogram operation(MetricsRegistry registry, String operation) {
+        return registry.histogram(OPERATION_SECONDS, "Задержка вызовов TaskManager", "operation", operation);
+    }
+
+    public TaskManager getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public List<Task> getAllTasks() {
+        long start = System.nanoTime();
+        try {
+            return delegate.getAllTasks();
+        } finally {
+            getAllTasks.recordSince(start);
+        }
+    }
+
+    @Override
+    public List<Epic> getAllEpics() {
+        long start = System.nanoTime();
+        try {
+            return delegate.getAllEpics();
+        } finally {
+            getAllEpics.recordSince(start);
+        }
+    }
+
+    @Override
+    public List<Subtask> getAllSubtasks() {
+        long start = System.nanoTime();
+        try {
+            return delegate.getAllSubtasks();
+        } finally {
+            getAllSubtasks.recordSince(start);
+        }
+    }
+
+    @Override
+    public BoardSnapshot getSnapshot() {
+        long start = System.nanoTime();
+        try {
+            return delegate.getSnapshot();
+        } finally {
+            getSnapshot.recordSince(start);
+        }
+    }
+
+    //Версии - чтение одного поля, их вызовы не замеряются
+    @Override
+    public long getVersion() {
+        return delegate.getVersion();
+    }
+
+    @Override
+    public long getHistoryVersion() {
+        return delegate.getHistoryVersion();
+    }
+
+    //Обёртка сама состояния не хранит, поэтому потокобезопасна, если потокобезопасен менеджер
+    @Override
+    public boolean isThreadSafe() {
+        return delegate.isThreadSafe();
+    }
+
+    @Override
+    public List<Task> getTasksPage(int afterId, int limit) {
+        long start = System.nanoTime();
+        try {
+            return delegate.getTasksPage(afterId, limit);
+        } finally {
+            getTasksPage.recordSince(start);
+        }
+    }
+
+    @Override
+    public List<Epic> getEpicsPage(int afterId, int limit) {
+        long start = System.nanoTime();
+        try {
+            return delegate.getEpicsPage(afterId, limit);
+        } finally {
+            getEpicsPage.recordSince(start);
+        }
+    }
+
+    @Override
+    public List<Subtask> getSubtasksPage(int afterId, int limit) {
+        long start = System.nanoTime();
+        try {
+            return delegate.getSubtasksPage(afterId, limit);
+        } finally {
+            getSubtasksPage.recordSince(start);
+        }
+    }
+
+    @Override
+    public void removeAllTasks() {
+        long start = System.nanoTime();
+        try {
+            delegate.removeAllTasks();
+        } finally {
+            removeAllTasks.recordSince(start);
+        }
+    }
+
+    @Override
+    public void removeAllEpics() {
+        long start = System.nanoTime();
+        try {
+            delegate.removeAllEpics();
+        } finally {
+            removeAllEpics.recordSince(start);
+        }
+    }
+
+    @Override
+    public void removeAllSubtasks() {
+        long start = System.nanoTime();
+        try {
+            delegate.removeAllSubtasks();
+        } finally {
+            removeAllSubtasks.recordSince(start);
+        }
+    }
+
+    @Override
+    public Task getTaskById(int id) {
+        long start = System.nanoTime();
+        try {
+            return delegate.getTaskById(id);
+        } finally {
+            getTaskById.recordSince(start);
+        }
+    }
+
+    @Override
+    public Epic getEpicById(int id) {
+        long start = System.nanoTime();
+        try {
+            return delegate.getEpicById(id);
+        } finally {
+            getEpicById.recordSince(start);
+        }
+    }
+
+    @Override
+    public Subtask getSubtaskById(int id) {
+        long start = System.nanoTime();
+        try {
+            return delegate.getSubtaskById(id);
+        } finally {
+            getSubtaskById.recordSince(start);
+        }
+    }
+
+    @Override
+    public void addTask(Task task) {
+        long start = System.nanoTime();
+        try {
+            delegate.addTask(task);
+        } finally {
+            addTask.recordSince(start);
+        }
+    }
+
+    @Override
+    public void addEpic(Epic epic) {
+        long start = System.nanoTime();
+        try {
+            delegate.addEpic(epic);
+        } finally {
+            addEpic.recordSince(start);
+        }
+    }
+
+    @Override
+    public void addSubtask(Subtask subtask) {
+        long start = System.nanoTime();
+        try {
+            delegate.addSubtask(subtask);
+        } finally {
+            addSubtask.recordSince(start);
+        }
+    }
+
+    @Override
+    public void updateTask(Task task) {
+        long start = System.nanoTime();
+        try {
+            delegate.updateTask(task);
+        } finally {
+            updateTask.recordSince(start);
+        }
+    }
+
+    @Override
+    public void updateEpic(Epic epic) {
+        long start = System.nanoTime();
+        try {
+            delegate.updateEpic(epic);
+        } finally {
+            updateEpic.recordSince(start);
+        }
+    }
+
+    @Override
+    public void updateSubtask(Subtask subtask) {
+        long start = System.nanoTime();
+        try {
+            delegate.updateSubtask(subtask);
+        } finally {
+            updateSubtask.recordSince(start);
+        }
+    }
+
+    @Override
+    public void deleteTaskById(int id) {
+        long start = System.nanoTime();
+        try {
+            delegate.deleteTaskById(id);
+        } finally {
+            deleteTaskById.recordSince(start);
+        }
+    }
+
+    @Override
+    public List<Task> applyBatch(List<BatchOperation> operations) {
+        long start = System.nanoTime();
+        try {
+            return delegate.applyBatch(operations);
+        } finally {
+            applyBatch.recordSince(start);
+        }
+    }
+
+    @Override
+    public List<Subtask> getSubtasksOfEpic(int epicId) {
+        long start = System.nanoTime();
+        try {
+            return delegate.getSubtasksOfEpic(epicId);
+        } finally {
+            getSubtasksOfEpic.recordSince(start);
+        }
+    }
+
+    @Override
+    public List<Task> findTasks(TaskQuery query) {
+        long start = System.nanoTime();
+        try {
+            return delegate.findTasks(query);
+        } finally {
+            findTasks.recordSince(start);
+        }
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        long start = System.nanoTime();
+        try {
+            return delegate.getHistory();
+        } finally {
+            getHistory.recordSince(start);
+        }
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks() {
+        long start = System.nanoTime();
+        try {
+            return delegate.getPrioritizedTasks();
+        } finally {
+            getPrioritizedTasks.recordSince(start);
+        }
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks(LocalDateTime from, LocalDateTime to) {
+        long start = System.nanoTime();
+        try {
+            return delegate.getPrioritizedTasks(from, to);
+        } finally {
+            getPrioritizedWindow.recordSince(start);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package main.metrics;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.DoubleSupplier;
+import java.util.function.Supplier;
+
+//Реестр метрик без внешних зависимостей. Метрика задаётся именем и парами меток "ключ", "значение";
+//повторный запрос с теми же именем и метками возвращает тот же экземпляр. Поиск идёт по строкам,
+//поэтому метрики горячих путей запрашивают один раз и хранят в полях, а в горячем пути остаётся
+//только запись в сам счётчик или гистограмму.
+public class MetricsRegistry {
+    private final Map<String, Family> families = new ConcurrentHashMap<>();
+
+    public Counter counter(String name, String help, String... labels) {
+        return register(name, help, labels, Counter.class, Counter::new);
+    }
+
+    public LatencyHistogram histogram(String name, String help, String... labels) {
+        return register(name, help, labels, LatencyHistogram.class, LatencyHistogram::new);
+    }
+
+    //Значение вычисляется при каждой выгрузке. Повторная регистрация заменяет источник значения.
+    public void gauge(String name, String help, DoubleSupplier supplier, String... labels) {
+        Gauge gauge = register(name, help, labels, Gauge.class, () -> new Gauge(supplier));
+        gauge.setSupplier(supplier);
+    }
+
+    //У всех метрик одного имени один тип, иначе выгрузка будет некорректной
+    private <T extends Meter> T register(String name, String help, String[] labels, Class<T> type,
+                                         Supplier<T> factory) {
+        checkName(name);
+        Family family = families.computeIfAbsent(name, key -> new Family(help, type));
+        if (family.type != type) {
+            throw new IllegalArgumentException("Метрика " + name + " уже зарегистрирована с другим типом.");
+        }
+        return type.cast(family.meters.computeIfAbsent(renderLabels(labels), key -> factory.get()));
+    }
+
+    //Выгрузка всех метрик в текстовом формате Prometheus 0.0.4, по алфавиту имён и меток
+    public void writePrometheus(Writer out) throws IOException {
+        for (Map.Entry<String, Family> entry : new TreeMap<>(families).entrySet()) {
+            String name = entry.getKey();
+            Family family = entry.getValue();
+            Map<String, Meter> meters = new TreeMap<>(family.meters);
+            if (meters.isEmpty()) {
+                continue;
+            }
+            out.write("# HELP " + name + " " + escapeHelp(family.help) + "\n");
+            out.write("# TYPE " + name + " " + meters.values().iterator().next().type() + "\n");
+            for (Map.Entry<String, Meter> meter : meters.entrySet()) {
+                meter.getValue().writeSamples(out, name, meter.getKey());
+            }
+        }
+    }
+
+    public String scrape() {
+        StringWriter out = new StringWriter();
+        try {
+            writePrometheus(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toString();
+    }
+
+    private static void checkName(String name) {
+        boolean valid = name != null && !name.isEmpty();
+        for (int i = 0; valid && i < name.length(); i++) {
+            char c = name.charAt(i);
+            valid = c == '_' || c == ':' || (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z')
+                    || (i > 0 && c >= '0' && c <= '9');
+        }
+        if (!valid) {
+            throw new IllegalArgumentException("Некорректное имя метрики: " + name);
+        }
+    }
+
+    private static String renderLabels(String[] labels) {
+        if (labels.length % 2 != 0) {
+            throw new IllegalArgumentException("Метки задаются парами ключ-значение.");
+        }
+        if (labels.length == 0) {
+            return "";
+        }
+        StringBuilder rendered = new StringBuilder("{");
+        for (int i = 0; i < labels.length; i += 2) {
+            if (i > 0) {
+                rendered.append(',');
+            }
+            rendered.append(labels[i]).append("=\"");
+            String value = labels[i + 1];
+            for (int j = 0; j < value.length(); j++) {
+                char c = value.charAt(j);
+                if (c == '\\' || c == '"') {
+                    rendered.append('\\').append(c);
+                } else if (c == '\n') {
+                    rendered.append("\\n");
+                } else {
+                    rendered.append(c);
+                }
+            }
+            rendered.append('"');
+        }
+        return rendered.append('}').toString();
+    }
+
+    private static String escapeHelp(String help) {
+        return help.replace("\\", "\\\\").replace("\n", "\\n");
+    }
+
+    //Метрики одного имени с разными метками
+    private static final class Family {
+        final String help;
+        final Class<? extends Meter> type;
+        final Map<String, Meter> meters = new ConcurrentHashMap<>();
+
+        Family(String help, Class<? extends Meter> type) {
+            this.help = help;
+            this.type = type;
+        }
+    }
+}
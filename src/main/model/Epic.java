@@ -1,17 +1,20 @@
 package main.model;
 
-import main.controllers.TaskManager;
-
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.time.Duration;
 import java.time.LocalDateTime;
-import java.util.Objects;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
 
 public class Epic extends Task {
     private LocalDateTime endTime;
     private List<Integer> subtasksIds = new ArrayList<>();
+    //Накопленные показатели подзадач; не сериализуются и создаются при первом обращении
+    private transient Aggregates aggregates;
 
     public Epic(String taskName, String description) {
         super(taskName, description, TaskStatus.NEW, Duration.ZERO, null);
@@ -60,38 +63,59 @@ public class Epic extends Task {
         this.endTime = endTime;
     }
 
-    public void updateTimeAndDuration(TaskManager manager) {
-        List<Subtask> subtasks = new ArrayList<>();
-        for (Integer subtaskId : subtasksIds) {
-            Subtask subtask = manager.getSubtaskById(subtaskId);
-            if (subtask != null) {
-                subtasks.add(subtask);
-            }
+    public boolean containsSubtask(int subtaskId) {
+        return aggregates().contributions.containsKey(subtaskId);
+    }
+
+    //Учёт новой или изменённой подзадачи за O(log k): прежний вклад подзадачи вычитается,
+    //новый добавляется к счётчикам статусов, сумме длительностей и упорядоченным началам/окончаниям
+    public void includeSubtask(Subtask subtask) {
+        Aggregates aggregates = aggregates();
+        Contribution contribution = new Contribution(subtask);
+        Contribution previous = aggregates.contributions.put(subtask.getId(), contribution);
+        if (previous != null) {
+            aggregates.withdraw(previous);
         }
+        aggregates.apply(contribution);
+        refreshFromAggregates();
+    }
+
+    public void excludeSubtask(int subtaskId) {
+        Aggregates aggregates = aggregates();
+        Contribution previous = aggregates.contributions.remove(subtaskId);
+        if (previous != null) {
+            aggregates.withdraw(previous);
+            refreshFromAggregates();
+        }
+    }
 
-        if (subtasks.isEmpty()) {
-            this.duration = Duration.ZERO;
-            this.startTime = null;
-            this.endTime = null;
-            return;
+    public void excludeAllSubtasks() {
+        aggregates = new Aggregates();
+        refreshFromAggregates();
+    }
+
+    private Aggregates aggregates() {
+        if (aggregates == null) {
+            aggregates = new Aggregates();
         }
+        return aggregates;
+    }
 
-        this.startTime = subtasks.stream()
-                .map(Subtask::getStartTime)
-                .filter(Objects::nonNull)
-                .min(LocalDateTime::compareTo)
-                .orElse(null);
+    private void refreshFromAggregates() {
+        Aggregates aggregates = aggregates();
+        int total = aggregates.contributions.size();
 
-        this.endTime = subtasks.stream()
-                .map(Subtask::getEndTime)
-                .filter(Objects::nonNull)
-                .max(LocalDateTime::compareTo)
-                .orElse(null);
+        if (total == 0 || aggregates.countOf(TaskStatus.NEW) == total) {
+            setStatus(TaskStatus.NEW);
+        } else if (aggregates.countOf(TaskStatus.DONE) == total) {
+            setStatus(TaskStatus.DONE);
+        } else {
+            setStatus(TaskStatus.IN_PROGRESS);
+        }
 
-        this.duration = subtasks.stream()
-                .map(Subtask::getDuration)
-                .filter(Objects::nonNull)
-                .reduce(Duration.ZERO, Duration::plus);
+        this.duration = aggregates.totalDuration;
+        this.startTime = aggregates.startTimes.isEmpty() ? null : aggregates.startTimes.firstKey();
+        this.endTime = aggregates.endTimes.isEmpty() ? null : aggregates.endTimes.lastKey();
     }
 
     @Override
@@ -109,4 +133,62 @@ public class Epic extends Task {
                 ", Время окончания=" + endTimeString +
                 ", ID=" + getId() + '}';
     }
+
+    //Значения подзадачи, учтённые в показателях эпика
+    private static final class Contribution {
+        final TaskStatus status;
+        final Duration duration;
+        final LocalDateTime startTime;
+        final LocalDateTime endTime;
+
+        Contribution(Subtask subtask) {
+            this.status = subtask.getStatus();
+            this.duration = subtask.getDuration();
+            this.startTime = subtask.getStartTime();
+            this.endTime = subtask.getEndTime();
+        }
+    }
+
+    private static final class Aggregates {
+        final Map<Integer, Contribution> contributions = new HashMap<>();
+        final int[] statusCounts = new int[TaskStatus.values().length];
+        //Мультимножества времени начала и окончания: время -> количество подзадач
+        final NavigableMap<LocalDateTime, Integer> startTimes = new TreeMap<>();
+        final NavigableMap<LocalDateTime, Integer> endTimes = new TreeMap<>();
+        Duration totalDuration = Duration.ZERO;
+
+        int countOf(TaskStatus status) {
+            return statusCounts[status.ordinal()];
+        }
+
+        void apply(Contribution contribution) {
+            if (contribution.status != null) {
+                statusCounts[contribution.status.ordinal()]++;
+            }
+            if (contribution.duration != null) {
+                totalDuration = totalDuration.plus(contribution.duration);
+            }
+            if (contribution.startTime != null) {
+                startTimes.merge(contribution.startTime, 1, Integer::sum);
+            }
+            if (contribution.endTime != null) {
+                endTimes.merge(contribution.endTime, 1, Integer::sum);
+            }
+        }
+
+        void withdraw(Contribution contribution) {
+            if (contribution.status != null) {
+                statusCounts[contribution.status.ordinal()]--;
+            }
+            if (contribution.duration != null) {
+                totalDuration = totalDuration.minus(contribution.duration);
+            }
+            if (contribution.startTime != null) {
+                startTimes.computeIfPresent(contribution.startTime, (time, count) -> count > 1 ? count - 1 : null);
+            }
+            if (contribution.endTime != null) {
+                endTimes.computeIfPresent(contribution.endTime, (time, count) -> count > 1 ? count - 1 : null);
+            }
+        }
+    }
 }
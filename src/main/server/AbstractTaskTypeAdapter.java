@@ -0,0 +1,135 @@
+package main.server;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import main.model.Task;
+import main.model.TaskStatus;
+
+import java.io.IOException;
+import java.time.Duration;
+
+//Общая часть потоковых адаптеров задач: поля Task пишутся и читаются напрямую через
+//JsonWriter/JsonReader без рефлексии. Формат совпадает с тем, что давал рефлективный Gson:
+//собственные поля подкласса идут первыми, null-поля пропускаются, пустая длительность пишется как 0.
+public abstract class AbstractTaskTypeAdapter<T extends Task> extends TypeAdapter<T> {
+
+    //Пустой объект, который заполняется полями из JSON
+    protected abstract T create();
+
+    //Поля подкласса, которые пишутся перед полями Task
+    protected void writeOwnFields(JsonWriter out, T task) throws IOException {
+    }
+
+    //Чтение поля подкласса; false, если поле ему не принадлежит
+    protected boolean readOwnField(JsonReader in, String name, T task) throws IOException {
+        return false;
+    }
+
+    @Override
+    public void write(JsonWriter out, T task) throws IOException {
+        if (task == null) {
+            out.nullValue();
+            return;
+        }
+
+        out.beginObject();
+        writeOwnFields(out, task);
+        if (task.getTaskName() != null) {
+            out.name("taskName").value(task.getTaskName());
+        }
+        out.name("id").value(task.getId());
+        if (task.getDescription() != null) {
+            out.name("description").value(task.getDescription());
+        }
+        if (task.getStatus() != null) {
+            out.name("status").value(task.getStatus().name());
+        }
+        Duration duration = task.getDuration();
+        out.name("duration").value(duration != null ? duration.toMinutes() : 0);
+        if (task.getStartTime() != null) {
+            out.name("startTime").value(LocalDateTimeTypeAdapter.format(task.getStartTime()));
+        }
+        out.endObject();
+    }
+
+    @Override
+    public T read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+
+        T task = create();
+        in.beginObject();
+        while (in.hasNext()) {
+            String name = in.nextName();
+            if (in.peek() == JsonToken.NULL && isPrimitive(name)) {
+                //Как и рефлективный адаптер, null не меняет примитивное поле
+                in.nextNull();
+            } else if (!readOwnField(in, name, task) && !readTaskField(in, name, task)) {
+                in.skipValue();
+            }
+        }
+        in.endObject();
+        return task;
+    }
+
+    //Имена примитивных полей (int), для которых null в JSON пропускается
+    protected boolean isPrimitive(String name) {
+        return "id".equals(name);
+    }
+
+    private boolean readTaskField(JsonReader in, String name, T task) throws IOException {
+        switch (name) {
+            case "taskName":
+                task.setTaskName(nextStringOrNull(in));
+                return true;
+            case "id":
+                task.setId(in.nextInt());
+                return true;
+            case "description":
+                task.setDescription(nextStringOrNull(in));
+                return true;
+            case "status":
+                task.setStatus(parseStatus(nextStringOrNull(in)));
+                return true;
+            case "duration":
+                task.setDuration(nullable(in) ? null : Duration.ofMinutes(in.nextLong()));
+                return true;
+            case "startTime":
+                String startTime = nextStringOrNull(in);
+                task.setStartTime(startTime != null ? LocalDateTimeTypeAdapter.parse(startTime) : null);
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    //Если следующее значение null, поглощает его и возвращает true
+    protected static boolean nullable(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return true;
+        }
+        return false;
+    }
+
+    protected static String nextStringOrNull(JsonReader in) throws IOException {
+        return nullable(in) ? null : in.nextString();
+    }
+
+    //Неизвестное имя статуса даёт null, как у стандартного адаптера перечислений Gson
+    private static TaskStatus parseStatus(String name) {
+        if (name == null) {
+            return null;
+        }
+        for (TaskStatus status : TaskStatus.values()) {
+            if (status.name().equals(name)) {
+                return status;
+            }
+        }
+        return null;
+    }
+}
@@ -1,13 +1,25 @@
 package main.server;
 
 import com.google.gson.Gson;
+import com.google.gson.stream.JsonWriter;
 import com.sun.net.httpserver.HttpExchange;
+import main.controllers.BoardSnapshot;
 import main.exceptions.NotFoundException;
+import main.model.Task;
 
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 public abstract class BaseHttpHandler {
+    private static final int STREAM_BUFFER_SIZE = 8192;
     protected final Gson gson;
 
     protected BaseHttpHandler(Gson gson) {
@@ -15,8 +27,12 @@ public abstract class BaseHttpHandler {
     }
 
     protected void sendText(HttpExchange h, String text, int statusCode) throws IOException {
+        sendText(h, text, statusCode, "application/json;charset=utf-8");
+    }
+
+    protected void sendText(HttpExchange h, String text, int statusCode, String contentType) throws IOException {
         byte[] response = text.getBytes(StandardCharsets.UTF_8);
-        h.getResponseHeaders().add("Content-Type", "application/json;charset=utf-8");
+        h.getResponseHeaders().add("Content-Type", contentType);
         h.sendResponseHeaders(statusCode, response.length);
         h.getResponseBody().write(response);
         h.close();
@@ -26,15 +42,109 @@ public abstract class BaseHttpHandler {
         if (data == null) {
             sendNotFound(h);
         } else {
-            sendText(h, gson.toJson(data), 200);
+            streamJson(h, data, null);
+        }
+    }
+
+    //Сериализует ответ прямо в тело запроса чанками, не собирая промежуточные String и byte[].
+    //После отправки заголовков код ответа уже не изменить, поэтому при ошибке сериализации
+    //соединение просто закрывается и клиент получает оборванный ответ.
+    //Если передан copy, отправленные байты параллельно копируются в него.
+    private void streamJson(HttpExchange h, Object data, ByteArrayOutputStream copy) throws IOException {
+        h.getResponseHeaders().add("Content-Type", "application/json;charset=utf-8");
+        h.sendResponseHeaders(200, 0);
+        OutputStream body = copy == null ? h.getResponseBody() : new FilterOutputStream(h.getResponseBody()) {
+            @Override
+            public void write(byte[] bytes, int offset, int length) throws IOException {
+                out.write(bytes, offset, length);
+                copy.write(bytes, offset, length);
+            }
+        };
+        try (JsonWriter writer = gson.newJsonWriter(new BufferedWriter(
+                new OutputStreamWriter(body, StandardCharsets.UTF_8), STREAM_BUFFER_SIZE))) {
+            gson.toJson(data, data.getClass(), writer);
+        } catch (RuntimeException e) {
+            throw new IOException("Ошибка потоковой записи ответа", e);
+        } finally {
+            h.close();
         }
     }
 
+    //Условный GET. etag строится из версий данных до их чтения, поэтому данные не старше метки.
+    //Если клиент прислал текущий ETag в If-None-Match, отвечаем 304 без обращения к данным.
+    //Иначе тело берётся из кэша или сериализуется один раз на версию, а не на каждый запрос:
+    //первый ответ версии передаётся потоком и одновременно сохраняется в кэш.
+    protected void sendCached(HttpExchange h, ResponseCache cache, String key, String etag, Supplier<?> data)
+            throws IOException {
+        addValidators(h, etag);
+        if (matches(h.getRequestHeaders().getFirst("If-None-Match"), etag)) {
+            h.sendResponseHeaders(304, -1);
+            h.close();
+            return;
+        }
+
+        byte[] body = cache.get(key, etag);
+        if (body == null) {
+            ByteArrayOutputStream copy = new ByteArrayOutputStream(STREAM_BUFFER_SIZE);
+            streamJson(h, data.get(), copy);
+            cache.put(key, etag, copy.toByteArray());
+            return;
+        }
+        h.getResponseHeaders().add("Content-Type", "application/json;charset=utf-8");
+        h.sendResponseHeaders(200, body.length);
+        h.getResponseBody().write(body);
+        h.close();
+    }
+
+    //Условный GET списка из среза доски. ETag строится из версии самого среза, а не из отдельного чтения
+    //getVersion(): менеджер может отдать срез старше текущей версии, и тело не должно уйти под чужой меткой.
+    protected void sendSnapshot(HttpExchange h, ResponseCache cache, String key, BoardSnapshot snapshot,
+                                Function<BoardSnapshot, ?> part) throws IOException {
+        sendCached(h, cache, key, cache.etag(snapshot.getVersion()), () -> part.apply(snapshot));
+    }
+
+    //no-cache: клиент может хранить ответ, но перед использованием должен проверить его по ETag
+    private static void addValidators(HttpExchange h, String etag) {
+        h.getResponseHeaders().add("ETag", etag);
+        h.getResponseHeaders().add("Cache-Control", "no-cache");
+    }
+
+    //If-None-Match: "*" или список ETag через запятую, слабые (W/) сравниваются как сильные
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            candidate = candidate.trim();
+            if (candidate.startsWith("W/")) {
+                candidate = candidate.substring(2);
+            }
+            if (candidate.equals("*") || candidate.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    //Отправка страницы списка. items запрашиваются с запасом в один элемент: если он есть,
+    //клиенту передаётся курсор следующей страницы в заголовке X-Next-Cursor.
+    protected void sendPage(HttpExchange h, List<? extends Task> items, int limit) throws IOException {
+        if (items.size() > limit) {
+            items = items.subList(0, limit);
+            h.getResponseHeaders().add("X-Next-Cursor", String.valueOf(items.get(limit - 1).getId()));
+        }
+        sendData(h, items);
+    }
+
     protected void sendCreated(HttpExchange h) throws IOException {
         h.sendResponseHeaders(201, -1);
         h.close();
     }
 
+    protected void sendBadRequest(HttpExchange h) throws IOException {
+        sendText(h, "Bad Request", 400);
+    }
+
     protected void sendNotFound(HttpExchange h) throws IOException {
         sendText(h, "Not Found", 404);
     }
@@ -47,6 +157,11 @@ public abstract class BaseHttpHandler {
         sendText(h, "Internal Server Error", 500);
     }
 
+    protected void sendServiceUnavailable(HttpExchange h) throws IOException {
+        h.getResponseHeaders().add("Retry-After", "1");
+        sendText(h, "Service Unavailable", 503);
+    }
+
     protected String readRequestBody(HttpExchange h) throws IOException {
         return new String(h.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
     }
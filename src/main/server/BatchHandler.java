@@ -0,0 +1,135 @@
+package main.server;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonReader;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import main.controllers.BatchOperation;
+import main.controllers.TaskManager;
+import main.exceptions.BadRequestException;
+import main.exceptions.TimeConflictException;
+import main.model.Epic;
+import main.model.Subtask;
+import main.model.Task;
+import main.model.TaskType;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+//POST /batch: массив операций применяется одним вызовом TaskManager.applyBatch - целиком или никак.
+//Элемент массива:
+//  {"op": "add", "type": "EPIC", "task": {...}}
+//  {"op": "add", "type": "SUBTASK", "task": {...}, "epicRef": 0}  - эпик из операции 0 этого же пакета
+//  {"op": "update", "type": "TASK", "task": {...}}
+//  {"op": "delete", "id": 5}
+//Тело читается потоком по одному элементу, без промежуточной строки со всем запросом.
+//Ответ - массив id задач по операциям (0 для удаления отсутствующей задачи).
+public class BatchHandler extends BaseHttpHandler implements HttpHandler {
+    private final TaskManager taskManager;
+
+    public BatchHandler(TaskManager taskManager, Gson gson) {
+        super(gson);
+        this.taskManager = taskManager;
+    }
+
+    @Override
+    public void handle(HttpExchange h) throws IOException {
+        try {
+            if (!"POST".equals(h.getRequestMethod())) {
+                sendNotFound(h);
+                return;
+            }
+            List<Task> results = taskManager.applyBatch(readOperations(h));
+            List<Integer> ids = new ArrayList<>(results.size());
+            for (Task task : results) {
+                ids.add(task != null ? task.getId() : 0);
+            }
+            sendData(h, ids);
+        } catch (BadRequestException | IllegalArgumentException e) {
+            sendBadRequest(h);
+        } catch (TimeConflictException e) {
+            sendHasInteractions(h);
+        } catch (Exception e) {
+            sendInternalError(h);
+        }
+    }
+
+    private List<BatchOperation> readOperations(HttpExchange h) {
+        List<BatchOperation> operations = new ArrayList<>();
+        try (JsonReader reader = gson.newJsonReader(new BufferedReader(
+                new InputStreamReader(h.getRequestBody(), StandardCharsets.UTF_8)))) {
+            reader.beginArray();
+            while (reader.hasNext()) {
+                JsonObject element = gson.fromJson(reader, JsonObject.class);
+                operations.add(toOperation(element, operations.size()));
+            }
+            reader.endArray();
+        } catch (BadRequestException e) {
+            throw e;
+        } catch (IOException | RuntimeException e) {
+            throw new BadRequestException("Некорректное тело пакета: " + e.getMessage());
+        }
+        return operations;
+    }
+
+    private BatchOperation toOperation(JsonObject element, int index) {
+        if (element == null) {
+            throw new BadRequestException("Пустая операция пакета: " + index);
+        }
+        String op = string(element, "op", index);
+        switch (op) {
+            case "add":
+            case "update":
+                Task task = readTask(element, index);
+                if ("update".equals(op)) {
+                    return BatchOperation.update(task);
+                }
+                JsonElement epicRef = element.get("epicRef");
+                if (epicRef != null && !epicRef.isJsonNull()) {
+                    if (!(task instanceof Subtask)) {
+                        throw new BadRequestException("epicRef допустим только у подзадачи: " + index);
+                    }
+                    return BatchOperation.addSubtask((Subtask) task, epicRef.getAsInt());
+                }
+                return BatchOperation.add(task);
+            case "delete":
+                JsonElement id = element.get("id");
+                if (id == null || id.isJsonNull()) {
+                    throw new BadRequestException("Не указан id удаляемой задачи: " + index);
+                }
+                return BatchOperation.delete(id.getAsInt());
+            default:
+                throw new BadRequestException("Неизвестная операция пакета: " + op);
+        }
+    }
+
+    private Task readTask(JsonObject element, int index) {
+        TaskType type = TaskType.valueOf(string(element, "type", index));
+        JsonElement body = element.get("task");
+        if (body == null || !body.isJsonObject()) {
+            throw new BadRequestException("Не указана задача операции: " + index);
+        }
+        switch (type) {
+            case EPIC:
+                return gson.fromJson(body, Epic.class);
+            case SUBTASK:
+                return gson.fromJson(body, Subtask.class);
+            default:
+                return gson.fromJson(body, Task.class);
+        }
+    }
+
+    private static String string(JsonObject element, String name, int index) {
+        JsonElement value = element.get(name);
+        if (value == null || value.isJsonNull()) {
+            throw new BadRequestException("Не указано поле " + name + " в операции " + index);
+        }
+        return value.getAsString();
+    }
+}
@@ -1,6 +1,8 @@
 package main.server;
 
+import main.controllers.BoardSnapshot;
 import main.controllers.TaskManager;
+import main.exceptions.BadRequestException;
 import main.exceptions.NotFoundException;
 import main.model.Epic;
 import com.google.gson.Gson;
@@ -12,10 +14,16 @@ import java.io.IOException;
 
 public class EpicHandler extends BaseHttpHandler implements HttpHandler {
     private final TaskManager taskManager;
+    private final ResponseCache responses;
 
     public EpicHandler(TaskManager taskManager, Gson gson) {
+        this(taskManager, gson, new ResponseCache());
+    }
+
+    public EpicHandler(TaskManager taskManager, Gson gson, ResponseCache responses) {
         super(gson);
         this.taskManager = taskManager;
+        this.responses = responses;
     }
 
     @Override
@@ -40,6 +48,8 @@ public class EpicHandler extends BaseHttpHandler implements HttpHandler {
             }
         } catch (NotFoundException e) {
             sendNotFound(h);
+        } catch (BadRequestException e) {
+            sendBadRequest(h);
         } catch (Exception e) {
             sendInternalError(h);
         }
@@ -48,7 +58,12 @@ public class EpicHandler extends BaseHttpHandler implements HttpHandler {
     private void handleGet(HttpExchange h, String[] pathParts) throws IOException, NotFoundException {
         switch (pathParts.length) {
             case 2:
-                sendData(h, taskManager.getAllEpics());
+                PageRequest page = PageRequest.fromQuery(h.getRequestURI().getRawQuery());
+                if (page == null) {
+                    sendSnapshot(h, responses, "epics", taskManager.getSnapshot(), BoardSnapshot::getEpics);
+                } else {
+                    sendPage(h, taskManager.getEpicsPage(page.getCursor(), page.getLimit() + 1), page.getLimit());
+                }
                 break;
             case 3:
                 int id = extractId(pathParts[2]);
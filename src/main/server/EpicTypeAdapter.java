@@ -0,0 +1,60 @@
+package main.server;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import main.model.Epic;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+public class EpicTypeAdapter extends AbstractTaskTypeAdapter<Epic> {
+    @Override
+    protected Epic create() {
+        return new Epic(null, null);
+    }
+
+    @Override
+    protected void writeOwnFields(JsonWriter out, Epic epic) throws IOException {
+        if (epic.getEndTime() != null) {
+            out.name("endTime").value(LocalDateTimeTypeAdapter.format(epic.getEndTime()));
+        }
+        List<Integer> subtasksIds = epic.getSubtasksIds();
+        if (subtasksIds != null) {
+            out.name("subtasksIds").beginArray();
+            for (Integer subtaskId : subtasksIds) {
+                if (subtaskId != null) {
+                    out.value(subtaskId.intValue());
+                } else {
+                    out.nullValue();
+                }
+            }
+            out.endArray();
+        }
+    }
+
+    @Override
+    protected boolean readOwnField(JsonReader in, String name, Epic epic) throws IOException {
+        switch (name) {
+            case "endTime":
+                String endTime = nextStringOrNull(in);
+                epic.setEndTime(endTime != null ? LocalDateTimeTypeAdapter.parse(endTime) : null);
+                return true;
+            case "subtasksIds":
+                if (nullable(in)) {
+                    epic.setSubtasksIds(null);
+                    return true;
+                }
+                List<Integer> subtasksIds = new ArrayList<>();
+                in.beginArray();
+                while (in.hasNext()) {
+                    subtasksIds.add(nullable(in) ? null : in.nextInt());
+                }
+                in.endArray();
+                epic.setSubtasksIds(subtasksIds);
+                return true;
+            default:
+                return false;
+        }
+    }
+}
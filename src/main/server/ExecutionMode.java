@@ -0,0 +1,17 @@
+package main.server;
+
+public enum ExecutionMode {
+    //Все запросы обрабатывает единственный поток-диспетчер HttpServer
+    DISPATCHER,
+    //Пул потоков фиксированного размера
+    FIXED_POOL,
+    //Отдельный виртуальный поток на каждый запрос
+    VIRTUAL_THREADS,
+    //Пул фиксированного размера с ограниченной очередью: при переполнении сразу отвечаем 503
+    BOUNDED_QUEUE;
+
+    //Обращается ли режим к менеджеру задач из нескольких потоков
+    public boolean isMultiThreaded() {
+        return this != DISPATCHER;
+    }
+}
@@ -2,6 +2,10 @@ package main.server;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import main.model.Epic;
+import main.model.Subtask;
+import main.model.Task;
+
 import java.time.Duration;
 import java.time.LocalDateTime;
 
@@ -13,6 +17,9 @@ public final class GsonFactory {
         return new GsonBuilder()
                 .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeTypeAdapter())
                 .registerTypeAdapter(Duration.class, new DurationTypeAdapter())
+                .registerTypeAdapter(Task.class, new TaskTypeAdapter())
+                .registerTypeAdapter(Epic.class, new EpicTypeAdapter())
+                .registerTypeAdapter(Subtask.class, new SubtaskTypeAdapter())
                 .create();
     }
 }
\ No newline at end of file
@@ -9,17 +9,25 @@ import java.io.IOException;
 
 public class HistoryHandler extends BaseHttpHandler implements HttpHandler {
     private final TaskManager taskManager;
+    private final ResponseCache responses;
 
     public HistoryHandler(TaskManager taskManager, Gson gson) {
+        this(taskManager, gson, new ResponseCache());
+    }
+
+    public HistoryHandler(TaskManager taskManager, Gson gson, ResponseCache responses) {
         super(gson);
         this.taskManager = taskManager;
+        this.responses = responses;
     }
 
     @Override
     public void handle(HttpExchange h) throws IOException {
         try {
             if ("GET".equals(h.getRequestMethod())) {
-                sendData(h, taskManager.getHistory());
+                sendCached(h, responses, "history",
+                        responses.etag(taskManager.getVersion(), taskManager.getHistoryVersion()),
+                        taskManager::getHistory);
             } else {
                 sendNotFound(h);
             }
@@ -1,28 +1,96 @@
 package main.server;
 
 import com.google.gson.Gson;
+import com.sun.net.httpserver.HttpHandler;
 import com.sun.net.httpserver.HttpServer;
 import main.controllers.TaskManager;
 import main.controllers.Managers;
+import main.metrics.MeteredTaskManager;
+import main.metrics.MetricsRegistry;
 
 import java.io.IOException;
 import java.net.InetSocketAddress;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 public class HttpTaskServer {
     private static final int PORT = 8080;
     private final HttpServer server;
     private final TaskManager taskManager;
+    private final ExecutorService executor;
+    private final MetricsRegistry metrics;
     private static final Gson gson = GsonFactory.createGson();
 
     public HttpTaskServer(TaskManager taskManager) throws IOException {
-        this.taskManager = Managers.getDefault();
-        this.server = HttpServer.create(new InetSocketAddress(PORT), 0);
+        this(taskManager, new ServerSettings());
+    }
+
+    public HttpTaskServer(TaskManager taskManager, ServerSettings settings) throws IOException {
+        this(taskManager, settings, new MetricsRegistry());
+    }
+
+    //Вызовы менеджера и запросы к обработчикам замеряются в metrics, выгрузка - GET /metrics
+    public HttpTaskServer(TaskManager taskManager, ServerSettings settings, MetricsRegistry metrics)
+            throws IOException {
+        if (settings.getExecutionMode().isMultiThreaded() && !taskManager.isThreadSafe()) {
+            throw new IllegalArgumentException("Режим " + settings.getExecutionMode()
+                    + " обращается к менеджеру из нескольких потоков, нужен потокобезопасный менеджер.");
+        }
+        this.metrics = metrics;
+        this.taskManager = new MeteredTaskManager(taskManager, metrics);
+        this.server = HttpServer.create(new InetSocketAddress(PORT), settings.getBacklog());
+        this.executor = createExecutor(settings);
+
+        //В режиме BOUNDED_QUEUE диспетчер сам раздаёт запросы пулу, чтобы успеть ответить 503
+        boolean shedLoad = settings.getExecutionMode() == ExecutionMode.BOUNDED_QUEUE;
+        if (executor != null && !shedLoad) {
+            server.setExecutor(executor);
+        }
+
+        //Списки кэшируются по версии менеджера одним кэшем на сервер
+        ResponseCache responses = new ResponseCache();
+        server.createContext("/metrics", new MetricsHandler(metrics, gson));
+        createContext("/tasks", new TaskHandler(this.taskManager, gson, responses), shedLoad);
+        createContext("/epics", new EpicHandler(this.taskManager, gson, responses), shedLoad);
+        createContext("/subtasks", new SubtaskHandler(this.taskManager, gson, responses), shedLoad);
+        createContext("/history", new HistoryHandler(this.taskManager, gson, responses), shedLoad);
+        createContext("/prioritized", new PrioritizedHandler(this.taskManager, gson, responses), shedLoad);
+        createContext("/query", new QueryHandler(this.taskManager, gson), shedLoad);
+        createContext("/batch", new BatchHandler(this.taskManager, gson), shedLoad);
+    }
+
+    //Замер оборачивает сам обработчик, а не сброс нагрузки: время считается от начала обработки в пуле
+    private void createContext(String path, HttpHandler handler, boolean shedLoad) {
+        HttpHandler metered = new MeteredHandler(handler, path, metrics);
+        server.createContext(path, shedLoad ? new LoadSheddingHandler(metered, executor, gson,
+                metrics.counter("http_server_rejected_total", "Запросы, отклонённые с 503", "handler", path))
+                : metered);
+    }
+
+    private static ExecutorService createExecutor(ServerSettings settings) {
+        switch (settings.getExecutionMode()) {
+            case FIXED_POOL:
+                return Executors.newFixedThreadPool(settings.getThreads());
+            case VIRTUAL_THREADS:
+                return Executors.newVirtualThreadPerTaskExecutor();
+            case BOUNDED_QUEUE:
+                BlockingQueue<Runnable> queue = settings.getQueueCapacity() > 0
+                        ? new ArrayBlockingQueue<>(settings.getQueueCapacity())
+                        : new SynchronousQueue<>();
+                return new ThreadPoolExecutor(settings.getThreads(), settings.getThreads(), 0L, TimeUnit.MILLISECONDS,
+                        queue, new ThreadPoolExecutor.AbortPolicy());
+            default:
+                return null;
+        }
+    }
 
-        server.createContext("/tasks", new TaskHandler(taskManager, gson));
-        server.createContext("/epics", new EpicHandler(taskManager, gson));
-        server.createContext("/subtasks", new SubtaskHandler(taskManager, gson));
-        server.createContext("/history", new HistoryHandler(taskManager, gson));
-        server.createContext("/prioritized", new PrioritizedHandler(taskManager, gson));
+    public MetricsRegistry getMetrics() {
+        return metrics;
     }
 
     public static Gson getGson() {
@@ -36,11 +104,19 @@ public class HttpTaskServer {
 
     public void stop() {
         server.stop(0);
+        if (executor != null) {
+            executor.shutdownNow();
+        }
         System.out.println("HTTP-сервер остановлен.");
     }
 
+    //Необязательный аргумент - режим выполнения, например FIXED_POOL; по умолчанию DISPATCHER
     public static void main(String[] args) throws IOException {
-        HttpTaskServer httpTaskServer = new HttpTaskServer(Managers.getDefault());
+        ServerSettings settings = new ServerSettings(args.length > 0 ? ExecutionMode.valueOf(args[0])
+                : ExecutionMode.DISPATCHER);
+        TaskManager manager = settings.getExecutionMode().isMultiThreaded() ? Managers.getConcurrent()
+                : Managers.getDefault();
+        HttpTaskServer httpTaskServer = new HttpTaskServer(manager, settings);
         httpTaskServer.start();
     }
 }
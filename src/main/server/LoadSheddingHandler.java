@@ -0,0 +1,48 @@
+package main.server;
+
+import com.google.gson.Gson;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import main.metrics.Counter;
+
+import java.io.IOException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+//Передаёт запрос в ограниченный пул. Если пул и его очередь заняты, поток-диспетчер
+//сразу отвечает 503, не накапливая запросы.
+public class LoadSheddingHandler extends BaseHttpHandler implements HttpHandler {
+    private final HttpHandler delegate;
+    private final Executor executor;
+    private final Counter rejected;
+
+    public LoadSheddingHandler(HttpHandler delegate, Executor executor, Gson gson) {
+        this(delegate, executor, gson, null);
+    }
+
+    //rejected - счётчик запросов, получивших 503; может быть null
+    public LoadSheddingHandler(HttpHandler delegate, Executor executor, Gson gson, Counter rejected) {
+        super(gson);
+        this.delegate = delegate;
+        this.executor = executor;
+        this.rejected = rejected;
+    }
+
+    @Override
+    public void handle(HttpExchange h) throws IOException {
+        try {
+            executor.execute(() -> {
+                try {
+                    delegate.handle(h);
+                } catch (IOException e) {
+                    h.close();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            if (rejected != null) {
+                rejected.increment();
+            }
+            sendServiceUnavailable(h);
+        }
+    }
+}
@@ -2,22 +2,90 @@ package main.server;
 
 import com.google.gson.TypeAdapter;
 import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 import com.google.gson.stream.JsonWriter;
 import java.io.IOException;
+import java.time.DateTimeException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 
 public class LocalDateTimeTypeAdapter extends TypeAdapter<LocalDateTime> {
-    private final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+    private static final int FORMATTED_LENGTH = 16;
 
     @Override
     public void write(JsonWriter out, LocalDateTime value) throws IOException {
-        out.value(value != null ? value.format(formatter) : null);
+        out.value(value != null ? format(value) : null);
     }
 
     @Override
     public LocalDateTime read(JsonReader in) throws IOException {
-        String dateString = in.nextString();
-        return dateString != null ? LocalDateTime.parse(dateString, formatter) : null;
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        return parse(in.nextString());
     }
-}
\ No newline at end of file
+
+    //Формат "yyyy-MM-dd HH:mm" без DateTimeFormatter: фиксированная раскладка собирается
+    //в char[] напрямую. Годы вне 1..9999 форматируются штатным форматтером.
+    static String format(LocalDateTime value) {
+        int year = value.getYear();
+        if (year < 1 || year > 9999) {
+            return value.format(FORMATTER);
+        }
+
+        char[] chars = new char[FORMATTED_LENGTH];
+        putDigits(chars, 0, year, 4);
+        chars[4] = '-';
+        putDigits(chars, 5, value.getMonthValue(), 2);
+        chars[7] = '-';
+        putDigits(chars, 8, value.getDayOfMonth(), 2);
+        chars[10] = ' ';
+        putDigits(chars, 11, value.getHour(), 2);
+        chars[13] = ':';
+        putDigits(chars, 14, value.getMinute(), 2);
+        return new String(chars);
+    }
+
+    //Разбор строки фиксированной раскладки по позициям символов. Всё, что в неё не укладывается
+    //(в том числе несуществующие даты, которые форматтер корректирует), разбирается форматтером.
+    static LocalDateTime parse(String text) {
+        if (text.length() == FORMATTED_LENGTH && text.charAt(4) == '-' && text.charAt(7) == '-'
+                && text.charAt(10) == ' ' && text.charAt(13) == ':') {
+            int year = digits(text, 0, 4);
+            int month = digits(text, 5, 2);
+            int day = digits(text, 8, 2);
+            int hour = digits(text, 11, 2);
+            int minute = digits(text, 14, 2);
+            if (year > 0 && month >= 0 && day >= 0 && hour >= 0 && minute >= 0) {
+                try {
+                    return LocalDateTime.of(year, month, day, hour, minute);
+                } catch (DateTimeException e) {
+                    return LocalDateTime.parse(text, FORMATTER);
+                }
+            }
+        }
+        return LocalDateTime.parse(text, FORMATTER);
+    }
+
+    private static void putDigits(char[] chars, int offset, int value, int width) {
+        for (int i = offset + width - 1; i >= offset; i--) {
+            chars[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+
+    //Число из width цифр начиная с offset или -1, если встретился не цифровой символ
+    private static int digits(String text, int offset, int width) {
+        int value = 0;
+        for (int i = offset; i < offset + width; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+}
@@ -0,0 +1,67 @@
+package main.server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import main.metrics.Counter;
+import main.metrics.LatencyHistogram;
+import main.metrics.MetricsRegistry;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+//Считает запросы обработчика по методу и коду ответа и замеряет время обработки.
+//Код берётся из обмена после того, как обработчик отправил ответ.
+//Счётчики запрашиваются в реестре один раз на пару метод-код и хранятся в массиве метода, индекс - код ответа;
+//ячейка 0 - запросы без ответа. Коды вне 100-599 случаются редко и ищутся в реестре каждый раз.
+public class MeteredHandler implements HttpHandler {
+    private static final int MIN_CODE = 100;
+    private static final int MAX_CODE = 599;
+
+    private final HttpHandler delegate;
+    private final String path;
+    private final MetricsRegistry registry;
+    private final LatencyHistogram latency;
+    private final Map<String, AtomicReferenceArray<Counter>> requests = new ConcurrentHashMap<>();
+
+    public MeteredHandler(HttpHandler delegate, String path, MetricsRegistry registry) {
+        this.delegate = delegate;
+        this.path = path;
+        this.registry = registry;
+        this.latency = registry.histogram("http_server_request_seconds", "Время обработки HTTP-запросов",
+                "handler", path);
+    }
+
+    @Override
+    public void handle(HttpExchange h) throws IOException {
+        long start = System.nanoTime();
+        try {
+            delegate.handle(h);
+        } finally {
+            latency.recordSince(start);
+            requestCounter(h.getRequestMethod(), h.getResponseCode()).increment();
+        }
+    }
+
+    private Counter requestCounter(String method, int code) {
+        if (code > 0 && (code < MIN_CODE || code > MAX_CODE)) {
+            return lookup(method, code);
+        }
+        int slot = code <= 0 ? 0 : code - MIN_CODE + 1;
+        AtomicReferenceArray<Counter> counters = requests.computeIfAbsent(method,
+                key -> new AtomicReferenceArray<>(MAX_CODE - MIN_CODE + 2));
+        Counter counter = counters.get(slot);
+        if (counter == null) {
+            //Реестр отдаёт один экземпляр на те же метки, поэтому гонка двух потоков здесь безвредна
+            counter = lookup(method, code);
+            counters.set(slot, counter);
+        }
+        return counter;
+    }
+
+    private Counter lookup(String method, int code) {
+        return registry.counter("http_server_requests_total", "Количество HTTP-запросов",
+                "handler", path, "method", method, "code", code > 0 ? String.valueOf(code) : "none");
+    }
+}
@@ -0,0 +1,32 @@
+package main.server;
+
+import com.google.gson.Gson;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import main.metrics.MetricsRegistry;
+
+import java.io.IOException;
+
+//Выгрузка метрик сервера и менеджера в текстовом формате Prometheus
+public class MetricsHandler extends BaseHttpHandler implements HttpHandler {
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+    private final MetricsRegistry registry;
+
+    public MetricsHandler(MetricsRegistry registry, Gson gson) {
+        super(gson);
+        this.registry = registry;
+    }
+
+    @Override
+    public void handle(HttpExchange h) throws IOException {
+        try {
+            if ("GET".equals(h.getRequestMethod())) {
+                sendText(h, registry.scrape(), 200, CONTENT_TYPE);
+            } else {
+                sendNotFound(h);
+            }
+        } catch (Exception e) {
+            sendInternalError(h);
+        }
+    }
+}
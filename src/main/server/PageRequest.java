@@ -0,0 +1,45 @@
+package main.server;
+
+import main.exceptions.BadRequestException;
+
+//Параметры постраничного запроса списка: ?limit=N&cursor=ID, где cursor - id последнего
+//элемента предыдущей страницы (значение заголовка X-Next-Cursor).
+public class PageRequest {
+    public static final int DEFAULT_LIMIT = 100;
+    public static final int MAX_LIMIT = 1000;
+
+    private final int cursor;
+    private final int limit;
+
+    public PageRequest(int cursor, int limit) {
+        this.cursor = cursor;
+        this.limit = limit;
+    }
+
+    //Разбор строки запроса; null, если ни limit, ни cursor не заданы
+    public static PageRequest fromQuery(String query) {
+        QueryParameters params = new QueryParameters(query);
+        if (!params.contains("limit") && !params.contains("cursor")) {
+            return null;
+        }
+
+        Integer limit = params.getInt("limit");
+        Integer cursor = params.getInt("cursor");
+        PageRequest page = new PageRequest(cursor != null ? cursor : 0, limit != null ? limit : DEFAULT_LIMIT);
+        if (page.limit <= 0 || page.limit > MAX_LIMIT) {
+            throw new BadRequestException("limit должен быть от 1 до " + MAX_LIMIT);
+        }
+        if (page.cursor < 0) {
+            throw new BadRequestException("cursor не может быть отрицательным");
+        }
+        return page;
+    }
+
+    public int getCursor() {
+        return cursor;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+}
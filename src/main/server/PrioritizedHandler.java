@@ -1,6 +1,8 @@
 package main.server;
 
+import main.controllers.BoardSnapshot;
 import main.controllers.TaskManager;
+import main.exceptions.BadRequestException;
 import com.google.gson.Gson;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
@@ -8,20 +10,33 @@ import java.io.IOException;
 
 public class PrioritizedHandler extends BaseHttpHandler implements HttpHandler {
     private final TaskManager taskManager;
+    private final ResponseCache responses;
 
     public PrioritizedHandler(TaskManager taskManager, Gson gson) {
+        this(taskManager, gson, new ResponseCache());
+    }
+
+    public PrioritizedHandler(TaskManager taskManager, Gson gson, ResponseCache responses) {
         super(gson);
         this.taskManager = taskManager;
+        this.responses = responses;
     }
 
     @Override
     public void handle(HttpExchange h) throws IOException {
         try {
             if ("GET".equals(h.getRequestMethod())) {
-                sendData(h, taskManager.getPrioritizedTasks());
+                QueryParameters params = new QueryParameters(h.getRequestURI().getRawQuery());
+                if (params.contains("from") || params.contains("to")) {
+                    sendData(h, taskManager.getPrioritizedTasks(params.getDateTime("from"), params.getDateTime("to")));
+                } else {
+                    sendSnapshot(h, responses, "prioritized", taskManager.getSnapshot(), BoardSnapshot::getPrioritized);
+                }
             } else {
                 sendNotFound(h);
             }
+        } catch (BadRequestException e) {
+            sendBadRequest(h);
         } catch (Exception e) {
             sendInternalError(h);
         }
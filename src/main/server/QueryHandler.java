@@ -0,0 +1,48 @@
+package main.server;
+
+import main.controllers.TaskManager;
+import main.controllers.TaskQuery;
+import main.exceptions.BadRequestException;
+import main.model.TaskStatus;
+import main.model.TaskType;
+import com.google.gson.Gson;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+import java.io.IOException;
+
+//GET /query?status=IN_PROGRESS&type=SUBTASK&epicId=1&from=2025-01-01 09:00&to=2025-01-02 00:00
+//Все параметры необязательны; время начала ищется в полуоткрытом диапазоне [from, to).
+public class QueryHandler extends BaseHttpHandler implements HttpHandler {
+    private final TaskManager taskManager;
+
+    public QueryHandler(TaskManager taskManager, Gson gson) {
+        super(gson);
+        this.taskManager = taskManager;
+    }
+
+    @Override
+    public void handle(HttpExchange h) throws IOException {
+        try {
+            if ("GET".equals(h.getRequestMethod())) {
+                sendData(h, taskManager.findTasks(toQuery(new QueryParameters(h.getRequestURI().getRawQuery()))));
+            } else {
+                sendNotFound(h);
+            }
+        } catch (BadRequestException e) {
+            sendBadRequest(h);
+        } catch (Exception e) {
+            sendInternalError(h);
+        }
+    }
+
+    private static TaskQuery toQuery(QueryParameters params) {
+        TaskQuery query = new TaskQuery();
+        query.setStatus(params.getEnum("status", TaskStatus.class));
+        query.setType(params.getEnum("type", TaskType.class));
+        query.setEpicId(params.getInt("epicId"));
+        query.setFrom(params.getDateTime("from"));
+        query.setTo(params.getDateTime("to"));
+        return query;
+    }
+}
@@ -0,0 +1,85 @@
+package main.server;
+
+import main.exceptions.BadRequestException;
+
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.Map;
+
+//Параметры строки запроса (?name=value&...) с декодированием и разбором значений.
+//Некорректное значение приводит к BadRequestException (ответ 400).
+public class QueryParameters {
+    private final Map<String, String> values = new HashMap<>();
+
+    public QueryParameters(String rawQuery) {
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int separator = pair.indexOf('=');
+            if (separator > 0) {
+                values.put(decode(pair.substring(0, separator)), decode(pair.substring(separator + 1)));
+            }
+        }
+    }
+
+    public boolean isEmpty() {
+        return values.isEmpty();
+    }
+
+    public boolean contains(String name) {
+        return values.containsKey(name);
+    }
+
+    public String get(String name) {
+        return values.get(name);
+    }
+
+    public Integer getInt(String name) {
+        String value = values.get(name);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new BadRequestException("Некорректное значение " + name);
+        }
+    }
+
+    public <E extends Enum<E>> E getEnum(String name, Class<E> type) {
+        String value = values.get(name);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Enum.valueOf(type, value);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Некорректное значение " + name);
+        }
+    }
+
+    //Время в том же формате, что и в JSON: yyyy-MM-dd HH:mm
+    public LocalDateTime getDateTime(String name) {
+        String value = values.get(name);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return LocalDateTimeTypeAdapter.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new BadRequestException("Некорректное значение " + name);
+        }
+    }
+
+    private static String decode(String value) {
+        try {
+            return URLDecoder.decode(value, StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Некорректная строка запроса");
+        }
+    }
+}
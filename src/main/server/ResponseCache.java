@@ -0,0 +1,42 @@
+package main.server;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+//Кэш сериализованных ответов GET по версиям данных: на каждый ключ хранится одно тело с его ETag,
+//тело новой версии вытесняет прежнее. ETag - метка экземпляра и версии через дефис. Метка нужна,
+//потому что версии менеджера после перезапуска начинаются заново и старый ETag мог бы совпасть
+//с другим содержимым.
+public class ResponseCache {
+    private final String instance = Long.toHexString(ThreadLocalRandom.current().nextLong());
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    public String etag(long... versions) {
+        StringBuilder etag = new StringBuilder("\"").append(instance);
+        for (long version : versions) {
+            etag.append('-').append(version);
+        }
+        return etag.append('"').toString();
+    }
+
+    //Тело, сохранённое для этого ETag, или null
+    public byte[] get(String key, String etag) {
+        Entry entry = entries.get(key);
+        return entry != null && entry.etag.equals(etag) ? entry.body : null;
+    }
+
+    public void put(String key, String etag, byte[] body) {
+        entries.put(key, new Entry(etag, body));
+    }
+
+    private static final class Entry {
+        final String etag;
+        final byte[] body;
+
+        Entry(String etag, byte[] body) {
+            this.etag = etag;
+            this.body = body;
+        }
+    }
+}
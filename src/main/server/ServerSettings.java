@@ -0,0 +1,60 @@
+package main.server;
+
+//Настройки выполнения запросов HttpTaskServer. Все режимы, кроме DISPATCHER, обращаются
+//к менеджеру задач из нескольких потоков, поэтому требуют потокобезопасного менеджера
+//(Managers.getConcurrent()); с другим менеджером сервер не создаётся.
+public class ServerSettings {
+    private ExecutionMode executionMode;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private int queueCapacity = 100;
+    private int backlog = 0;
+
+    public ServerSettings() {
+        this(ExecutionMode.DISPATCHER);
+    }
+
+    public ServerSettings(ExecutionMode executionMode) {
+        this.executionMode = executionMode;
+    }
+
+    public ExecutionMode getExecutionMode() {
+        return executionMode;
+    }
+
+    public void setExecutionMode(ExecutionMode executionMode) {
+        this.executionMode = executionMode;
+    }
+
+    //Размер пула для FIXED_POOL и BOUNDED_QUEUE
+    public int getThreads() {
+        return threads;
+    }
+
+    public void setThreads(int threads) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Количество потоков должно быть положительным.");
+        }
+        this.threads = threads;
+    }
+
+    //Сколько запросов может ждать свободного потока в режиме BOUNDED_QUEUE; 0 - без очереди
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        if (queueCapacity < 0) {
+            throw new IllegalArgumentException("Размер очереди не может быть отрицательным.");
+        }
+        this.queueCapacity = queueCapacity;
+    }
+
+    //Очередь входящих соединений сокета; 0 - значение по умолчанию системы
+    public int getBacklog() {
+        return backlog;
+    }
+
+    public void setBacklog(int backlog) {
+        this.backlog = backlog;
+    }
+}
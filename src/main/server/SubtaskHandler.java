@@ -1,6 +1,8 @@
 package main.server;
 
+import main.controllers.BoardSnapshot;
 import main.controllers.TaskManager;
+import main.exceptions.BadRequestException;
 import main.exceptions.NotFoundException;
 import main.exceptions.TimeConflictException;
 import main.model.Subtask;
@@ -11,10 +13,16 @@ import java.io.IOException;
 
 public class SubtaskHandler extends BaseHttpHandler implements HttpHandler {
     private final TaskManager taskManager;
+    private final ResponseCache responses;
 
     public SubtaskHandler(TaskManager taskManager, Gson gson) {
+        this(taskManager, gson, new ResponseCache());
+    }
+
+    public SubtaskHandler(TaskManager taskManager, Gson gson, ResponseCache responses) {
         super(gson);
         this.taskManager = taskManager;
+        this.responses = responses;
     }
 
     @Override
@@ -32,6 +40,8 @@ public class SubtaskHandler extends BaseHttpHandler implements HttpHandler {
             }
         } catch (NotFoundException e) {
             sendNotFound(h);
+        } catch (BadRequestException e) {
+            sendBadRequest(h);
         } catch (TimeConflictException e) {
             sendHasInteractions(h);
         } catch (Exception e) {
@@ -42,7 +52,12 @@ public class SubtaskHandler extends BaseHttpHandler implements HttpHandler {
     private void handleGet(HttpExchange h, String[] pathParts) throws IOException, NotFoundException {
         switch (pathParts.length) {
             case 2:
-                sendData(h, taskManager.getAllSubtasks());
+                PageRequest page = PageRequest.fromQuery(h.getRequestURI().getRawQuery());
+                if (page == null) {
+                    sendSnapshot(h, responses, "subtasks", taskManager.getSnapshot(), BoardSnapshot::getSubtasks);
+                } else {
+                    sendPage(h, taskManager.getSubtasksPage(page.getCursor(), page.getLimit() + 1), page.getLimit());
+                }
                 break;
             case 3:
                 int id = extractId(pathParts[2]);
@@ -0,0 +1,33 @@
+package main.server;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import main.model.Subtask;
+
+import java.io.IOException;
+
+public class SubtaskTypeAdapter extends AbstractTaskTypeAdapter<Subtask> {
+    @Override
+    protected Subtask create() {
+        return new Subtask(null, null, null, 0);
+    }
+
+    @Override
+    protected void writeOwnFields(JsonWriter out, Subtask subtask) throws IOException {
+        out.name("epicId").value(subtask.getEpicId());
+    }
+
+    @Override
+    protected boolean readOwnField(JsonReader in, String name, Subtask subtask) throws IOException {
+        if ("epicId".equals(name)) {
+            subtask.setEpicId(in.nextInt());
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    protected boolean isPrimitive(String name) {
+        return "epicId".equals(name) || super.isPrimitive(name);
+    }
+}
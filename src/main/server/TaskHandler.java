@@ -1,6 +1,8 @@
 package main.server;
 
+import main.controllers.BoardSnapshot;
 import main.controllers.TaskManager;
+import main.exceptions.BadRequestException;
 import main.exceptions.NotFoundException;
 import main.exceptions.TimeConflictException;
 import main.model.Task;
@@ -12,10 +14,16 @@ import java.io.IOException;
 
 public class TaskHandler extends BaseHttpHandler implements HttpHandler {
     private final TaskManager taskManager;
+    private final ResponseCache responses;
 
     public TaskHandler(TaskManager taskManager, Gson gson) {
+        this(taskManager, gson, new ResponseCache());
+    }
+
+    public TaskHandler(TaskManager taskManager, Gson gson, ResponseCache responses) {
         super(gson);
         this.taskManager = taskManager;
+        this.responses = responses;
     }
 
     @Override
@@ -33,6 +41,8 @@ public class TaskHandler extends BaseHttpHandler implements HttpHandler {
             }
         } catch (NotFoundException e) {
             sendNotFound(h);
+        } catch (BadRequestException e) {
+            sendBadRequest(h);
         } catch (TimeConflictException e) {
             sendHasInteractions(h);
         } catch (Exception e) {
@@ -43,7 +53,12 @@ public class TaskHandler extends BaseHttpHandler implements HttpHandler {
     private void handleGet(HttpExchange h, String[] pathParts) throws IOException, NotFoundException {
         switch (pathParts.length) {
             case 2:
-                sendData(h, taskManager.getAllTasks());
+                PageRequest page = PageRequest.fromQuery(h.getRequestURI().getRawQuery());
+                if (page == null) {
+                    sendSnapshot(h, responses, "tasks", taskManager.getSnapshot(), BoardSnapshot::getTasks);
+                } else {
+                    sendPage(h, taskManager.getTasksPage(page.getCursor(), page.getLimit() + 1), page.getLimit());
+                }
                 break;
             case 3:
                 int id = extractId(pathParts[2]);
@@ -0,0 +1,10 @@
+package main.server;
+
+import main.model.Task;
+
+public class TaskTypeAdapter extends AbstractTaskTypeAdapter<Task> {
+    @Override
+    protected Task create() {
+        return new Task(null, null, null);
+    }
+}
@@ -0,0 +1,69 @@
+package benchmark;
+
+import main.controllers.BatchOperation;
+import main.controllers.FileBackedTaskManager;
+import main.controllers.InMemoryTaskManager;
+import main.controllers.PersistenceMode;
+import main.controllers.PersistenceSettings;
+import main.controllers.TaskManager;
+import main.model.Epic;
+import main.model.Subtask;
+import main.model.TaskStatus;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+//Эпик с 200 подзадачами: 201 отдельный вызов против одного applyBatch. В памяти разница невелика,
+//у FileBackedTaskManager отдельные вызовы пишут файл на каждое изменение, пакет - один раз.
+//Запуск: java benchmark.BatchBenchmark
+public class BatchBenchmark {
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 1, 1, 0, 0);
+    private static final int SUBTASKS = 200;
+
+    public static void main(String[] args) throws IOException {
+        File file = File.createTempFile("batch_benchmark", ".csv");
+        file.deleteOnExit();
+        File journal = new File(file.getPath() + ".journal");
+        journal.deleteOnExit();
+
+        run("InMemoryTaskManager", 200, InMemoryTaskManager::new);
+        for (PersistenceMode mode : PersistenceMode.values()) {
+            run("FileBackedTaskManager, " + mode, 5, () -> {
+                file.delete();
+                journal.delete();
+                return new FileBackedTaskManager(file, new PersistenceSettings(mode));
+            });
+        }
+    }
+
+    private static void run(String name, int iterations, Supplier<TaskManager> managers) {
+        BenchmarkSupport.measure(name + ": epic + " + SUBTASKS + " subtasks, one call each", iterations, i -> {
+            TaskManager manager = managers.get();
+            Epic epic = new Epic("Эпик", "Описание");
+            manager.addEpic(epic);
+            for (int j = 0; j < SUBTASKS; j++) {
+                manager.addSubtask(subtask(j, epic.getId()));
+            }
+            return manager.getAllSubtasks().size();
+        });
+        BenchmarkSupport.measure(name + ": epic + " + SUBTASKS + " subtasks, applyBatch", iterations, i -> {
+            TaskManager manager = managers.get();
+            List<BatchOperation> batch = new ArrayList<>(SUBTASKS + 1);
+            batch.add(BatchOperation.add(new Epic("Эпик", "Описание")));
+            for (int j = 0; j < SUBTASKS; j++) {
+                batch.add(BatchOperation.addSubtask(subtask(j, 0), 0));
+            }
+            return manager.applyBatch(batch).size();
+        });
+    }
+
+    private static Subtask subtask(int index, int epicId) {
+        return new Subtask("Подзадача " + index, "Описание", TaskStatus.NEW, Duration.ofMinutes(30),
+                BASE.plusHours(index), epicId);
+    }
+}
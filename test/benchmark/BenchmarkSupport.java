@@ -0,0 +1,118 @@
+package benchmark;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+//Минимальная обвязка для микробенчмарков без внешних зависимостей:
+//прогрев, среднее время операции и объём аллокаций на операцию текущего потока.
+final class BenchmarkSupport {
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    //Результаты операций складываются сюда, чтобы JIT не выбросил замеряемый код
+    static volatile long sink;
+    //Замеры без вывода, например при прогреве всего набора перед записью результатов
+    static boolean silent;
+
+    private BenchmarkSupport() {
+    }
+
+    interface Operation {
+        long run(int iteration);
+    }
+
+    //Результат замера; в файле базовых результатов - строка "имя<TAB>ns/op<TAB>B/op"
+    static final class Result {
+        final String name;
+        final double nanosPerOp;
+        final double bytesPerOp;
+
+        Result(String name, double nanosPerOp, double bytesPerOp) {
+            this.name = name;
+            this.nanosPerOp = nanosPerOp;
+            this.bytesPerOp = bytesPerOp;
+        }
+    }
+
+    static Result measure(String name, int iterations, Operation operation) {
+        run(iterations, operation);
+
+        long allocatedBefore = THREADS.getCurrentThreadAllocatedBytes();
+        long started = System.nanoTime();
+        long result = run(iterations, operation);
+        long elapsed = System.nanoTime() - started;
+        long allocated = THREADS.getCurrentThreadAllocatedBytes() - allocatedBefore;
+
+        sink += result;
+        Result measured = new Result(name, (double) elapsed / iterations, (double) allocated / iterations);
+        if (!silent) {
+            System.out.printf("%-60s %14.1f ns/op %12.1f B/op%n", name, measured.nanosPerOp, measured.bytesPerOp);
+        }
+        return measured;
+    }
+
+    //Прогрев и rounds замеров по iterations операций: время - медиана по раундам, чтобы редкие паузы
+    //сборщика мусора не решали исход, аллокации - среднее по всем раундам
+    static Result measureMedian(String name, int iterations, int rounds, Operation operation) {
+        run(iterations, operation);
+
+        long[] elapsed = new long[rounds];
+        long allocated = 0;
+        for (int round = 0; round < rounds; round++) {
+            long allocatedBefore = THREADS.getCurrentThreadAllocatedBytes();
+            long started = System.nanoTime();
+            sink += run(iterations, operation);
+            elapsed[round] = System.nanoTime() - started;
+            allocated += THREADS.getCurrentThreadAllocatedBytes() - allocatedBefore;
+        }
+        Arrays.sort(elapsed);
+
+        Result measured = new Result(name, (double) elapsed[rounds / 2] / iterations,
+                (double) allocated / rounds / iterations);
+        if (!silent) {
+            System.out.printf("%-60s %14.1f ns/op %12.1f B/op%n", name, measured.nanosPerOp, measured.bytesPerOp);
+        }
+        return measured;
+    }
+
+    static Map<String, Result> readBaseline(Path file) throws IOException {
+        Map<String, Result> baseline = new LinkedHashMap<>();
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            if (line.isBlank() || line.startsWith("#")) {
+                continue;
+            }
+            String[] fields = line.split("\t");
+            baseline.put(fields[0], new Result(fields[0], Double.parseDouble(fields[1]),
+                    Double.parseDouble(fields[2])));
+        }
+        return baseline;
+    }
+
+    static void writeBaseline(Path file, String comment, List<Result> results) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("# " + comment + "\n");
+            writer.write("# name\tns/op\tB/op\n");
+            for (Result result : results) {
+                writer.write(String.format(Locale.ROOT, "%s\t%.1f\t%.1f\n", result.name,
+                        result.nanosPerOp, result.bytesPerOp));
+            }
+        }
+    }
+
+    private static long run(int iterations, Operation operation) {
+        long result = 0;
+        for (int i = 0; i < iterations; i++) {
+            result += operation.run(i);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,94 @@
+package benchmark;
+
+import main.controllers.FileBackedTaskManager;
+import main.controllers.PersistenceSettings;
+import main.controllers.SnapshotFormat;
+import main.model.Task;
+import main.model.TaskStatus;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+//Холодный старт на 1M задач: время от вызова loadFromFile до первого ответа менеджера и пиковый
+//объём кучи за загрузку. CSV, двоичный снимок через поток и двоичный снимок, отображённый в память.
+//Запуск: java -Xmx4g benchmark.ColdStartBenchmark
+public class ColdStartBenchmark {
+    private static final int ROWS = 1_000_000;
+
+    public static void main(String[] args) throws IOException {
+        List<Task> tasks = new ArrayList<>(ROWS);
+        LocalDateTime base = LocalDateTime.of(2025, 1, 1, 0, 0);
+        for (int id = 1; id <= ROWS; id++) {
+            Task task = new Task("Задача " + id, "Описание задачи " + id, TaskStatus.NEW, Duration.ofMinutes(30),
+                    base.plusHours(id));
+            task.setId(id);
+            tasks.add(task);
+        }
+        File csv = write(SnapshotFormat.CSV, tasks);
+        File binary = write(SnapshotFormat.BINARY, tasks);
+        tasks = null;
+
+        //Первый круг прогревает JIT, печатается второй
+        for (int run = 0; run < 2; run++) {
+            measure(run, "CSV, stream", csv, false);
+            measure(run, "BINARY, stream", binary, false);
+            measure(run, "BINARY, mmap", binary, true);
+        }
+        Files.delete(csv.toPath());
+        Files.delete(binary.toPath());
+    }
+
+    private static File write(SnapshotFormat format, List<Task> tasks) throws IOException {
+        File file = File.createTempFile("cold_start", "." + format.name().toLowerCase());
+        file.deleteOnExit();
+        try (OutputStream out = Files.newOutputStream(file.toPath())) {
+            format.getCodec().write(out, tasks);
+        }
+        return file;
+    }
+
+    private static void measure(int run, String name, File file, boolean memoryMapped) {
+        PersistenceSettings settings = new PersistenceSettings();
+        settings.setMemoryMapped(memoryMapped);
+
+        System.gc();
+        long heapBefore = heapUsed();
+        List<MemoryPoolMXBean> pools = heapPools();
+        pools.forEach(MemoryPoolMXBean::resetPeakUsage);
+
+        long started = System.nanoTime();
+        FileBackedTaskManager manager = FileBackedTaskManager.loadFromFile(file, settings);
+        Task first = manager.getTaskById(1);
+        long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+        BenchmarkSupport.sink += first.getId();
+
+        long peak = pools.stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum();
+        if (run > 0) {
+            System.out.printf("%-16s first response %6d ms  peak heap +%5d MB  file %6d KB%n", name,
+                    elapsedMillis, (peak - heapBefore) >> 20, file.length() / 1024);
+        }
+    }
+
+    private static List<MemoryPoolMXBean> heapPools() {
+        List<MemoryPoolMXBean> pools = new ArrayList<>();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pools.add(pool);
+            }
+        }
+        return pools;
+    }
+
+    private static long heapUsed() {
+        return heapPools().stream().mapToLong(pool -> pool.getUsage().getUsed()).sum();
+    }
+}
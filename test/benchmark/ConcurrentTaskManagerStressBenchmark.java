@@ -0,0 +1,120 @@
+package benchmark;
+
+import main.controllers.ConcurrentTaskManager;
+import main.controllers.InMemoryTaskManager;
+import main.controllers.TaskManager;
+import main.model.Epic;
+import main.model.Subtask;
+import main.model.Task;
+import main.model.TaskStatus;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+//Многопоточный стресс-тест: каждый поток правит подзадачи своего эпика и читает общие списки.
+//Сравнивается ConcurrentTaskManager и InMemoryTaskManager под одной глобальной блокировкой,
+//после прогона проверяются инварианты. Запуск: java benchmark.ConcurrentTaskManagerStressBenchmark
+public class ConcurrentTaskManagerStressBenchmark {
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 1, 1, 0, 0);
+    private static final int OPERATIONS_PER_THREAD = 20_000;
+
+    public static void main(String[] args) throws Exception {
+        //Прогрев JIT, чтобы первый замер не проигрывал остальным
+        run("warm-up", new InMemoryTaskManager(), 2, true);
+        run("warm-up", new ConcurrentTaskManager(), 2, false);
+
+        for (int threads : new int[]{1, 2, 4, 8}) {
+            run("InMemoryTaskManager + global lock", new InMemoryTaskManager(), threads, true);
+            run("ConcurrentTaskManager", new ConcurrentTaskManager(), threads, false);
+        }
+    }
+
+    private static void run(String name, TaskManager manager, int threads, boolean globalLock) throws Exception {
+        Epic[] epics = new Epic[threads];
+        for (int i = 0; i < threads; i++) {
+            epics[i] = new Epic("Эпик " + i, "Описание");
+            manager.addEpic(epics[i]);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        Future<?>[] futures = new Future<?>[threads];
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            futures[t] = executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                    if (globalLock) {
+                        synchronized (manager) {
+                            step(manager, epics[thread], thread, i);
+                        }
+                    } else {
+                        step(manager, epics[thread], thread, i);
+                    }
+                }
+                return null;
+            });
+        }
+
+        long started = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        long elapsed = System.nanoTime() - started;
+        executor.shutdown();
+
+        verify(manager, epics);
+        System.out.printf("%-40s threads=%d %12.0f ops/s%n", name, threads,
+                threads * (double) OPERATIONS_PER_THREAD * 1e9 / elapsed);
+    }
+
+    //Одна итерация: добавление, обновление, чтение и (через раз) удаление подзадачи
+    private static void step(TaskManager manager, Epic epic, int thread, int i) {
+        LocalDateTime startTime = BASE.plusHours((long) thread * OPERATIONS_PER_THREAD + i);
+        Subtask subtask = new Subtask("Подзадача", "Описание", TaskStatus.NEW, Duration.ofMinutes(30),
+                startTime, epic.getId());
+        manager.addSubtask(subtask);
+        subtask.setStatus(TaskStatus.IN_PROGRESS);
+        manager.updateSubtask(subtask);
+        manager.getSubtaskById(subtask.getId());
+        if (i % 2 == 0) {
+            manager.deleteTaskById(subtask.getId());
+        }
+    }
+
+    private static void verify(TaskManager manager, Epic[] epics) {
+        List<Subtask> subtasks = manager.getAllSubtasks();
+        int expected = epics.length * (OPERATIONS_PER_THREAD / 2);
+        check(subtasks.size() == expected, "subtasks: " + subtasks.size() + " != " + expected);
+        check(manager.getPrioritizedTasks().size() == expected, "prioritized size mismatch");
+
+        Set<Integer> ids = new HashSet<>();
+        for (Subtask subtask : subtasks) {
+            check(ids.add(subtask.getId()), "duplicate id " + subtask.getId());
+        }
+        for (Epic epic : epics) {
+            check(epic.getSubtasksIds().size() == OPERATIONS_PER_THREAD / 2, "epic subtasks mismatch");
+            check(epic.getStatus() == TaskStatus.IN_PROGRESS, "epic status " + epic.getStatus());
+        }
+
+        Task previous = null;
+        for (Task task : manager.getPrioritizedTasks()) {
+            check(previous == null || !previous.getEndTime().isAfter(task.getStartTime()), "overlap detected");
+            previous = task;
+        }
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new IllegalStateException("Нарушен инвариант: " + message);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package benchmark;
+
+import main.controllers.InMemoryTaskManager;
+import main.model.Task;
+import main.model.TaskStatus;
+import main.server.HttpTaskServer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+//Опрос GET /tasks на доске из 5 000 задач через HTTP: после каждого изменения (сериализация),
+//без изменений (тело из кэша) и с If-None-Match (304 без тела). Время включает обмен по loopback;
+//аллокации считаются только в потоке клиента. Сервер занимает порт 8080.
+//Запуск: java benchmark.ConditionalGetBenchmark
+public class ConditionalGetBenchmark {
+    private static final int BOARD = 5_000;
+    private static final URI TASKS = URI.create("http://localhost:8080/tasks");
+
+    public static void main(String[] args) throws IOException {
+        InMemoryTaskManager manager = new InMemoryTaskManager();
+        for (int i = 0; i < BOARD; i++) {
+            manager.addTask(new Task("Задача " + i, "Описание задачи " + i, TaskStatus.NEW));
+        }
+        HttpTaskServer server = new HttpTaskServer(manager);
+        server.start();
+        HttpClient client = HttpClient.newHttpClient();
+        try {
+            Task task = manager.getAllTasks().get(0);
+            BenchmarkSupport.measure("GET /tasks after each change", 200, i -> {
+                task.setStatus(TaskStatus.values()[i % 3]);
+                manager.updateTask(task);
+                return send(client, HttpRequest.newBuilder(TASKS).build()).body().length;
+            });
+            BenchmarkSupport.measure("GET /tasks unchanged, cached body", 200,
+                    i -> send(client, HttpRequest.newBuilder(TASKS).build()).body().length);
+            String etag = send(client, HttpRequest.newBuilder(TASKS).build()).headers()
+                    .firstValue("ETag").orElseThrow();
+            BenchmarkSupport.measure("GET /tasks unchanged, If-None-Match -> 304", 2_000,
+                    i -> send(client, HttpRequest.newBuilder(TASKS).header("If-None-Match", etag).build())
+                            .statusCode());
+        } finally {
+            server.stop();
+        }
+    }
+
+    private static HttpResponse<byte[]> send(HttpClient client, HttpRequest request) {
+        try {
+            return client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
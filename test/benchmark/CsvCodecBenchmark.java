@@ -0,0 +1,116 @@
+package benchmark;
+
+import main.controllers.TaskCsvCodec;
+import main.model.Subtask;
+import main.model.Task;
+import main.model.TaskStatus;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+//Пропускная способность кодирования и разбора строки CSV: прежняя реализация
+//(DateTimeFormatter.ofPattern на каждое поле, String.split, конкатенация строки) против TaskCsvCodec.
+//Запуск: java benchmark.CsvCodecBenchmark
+public class CsvCodecBenchmark {
+    private static final int ITERATIONS = 1_000_000;
+    private static final int ROWS = 1024;
+
+    public static void main(String[] args) {
+        Task[] tasks = new Task[ROWS];
+        String[] lines = new String[ROWS];
+        LocalDateTime base = LocalDateTime.of(2025, 1, 1, 0, 0);
+        for (int i = 0; i < ROWS; i++) {
+            Task task = i % 2 == 0
+                    ? new Task("Задача " + i, "Описание задачи", TaskStatus.NEW, Duration.ofMinutes(30),
+                            base.plusHours(i))
+                    : new Subtask("Подзадача " + i, "Описание подзадачи", TaskStatus.IN_PROGRESS,
+                            Duration.ofMinutes(45), base.plusHours(i), i - 1);
+            task.setId(i + 1);
+            tasks[i] = task;
+            lines[i] = legacyEncode(task);
+        }
+
+        CountingWriter writer = new CountingWriter();
+        BenchmarkSupport.measure("encode: legacy (ofPattern + join + \"\\n\")", ITERATIONS, i -> {
+            String line = legacyEncode(tasks[i & (ROWS - 1)]) + "\n";
+            writer.write(line);
+            return line.length();
+        });
+        BenchmarkSupport.measure("encode: TaskCsvCodec.write", ITERATIONS, i -> {
+            try {
+                TaskCsvCodec.write(writer, tasks[i & (ROWS - 1)]);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return writer.count;
+        });
+        BenchmarkSupport.measure("decode: legacy (split + ofPattern)", ITERATIONS,
+                i -> legacyDecode(lines[i & (ROWS - 1)]).getId());
+        BenchmarkSupport.measure("decode: TaskCsvCodec.split + decode", ITERATIONS,
+                i -> TaskCsvCodec.decode(TaskCsvCodec.split(lines[i & (ROWS - 1)])).getId());
+    }
+
+    //Прежний FileBackedTaskManager.taskToString
+    private static String legacyEncode(Task task) {
+        String startTime = task.getStartTime() != null
+                ? task.getStartTime().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm")) : "";
+        String endTime = task.getEndTime() != null
+                ? task.getEndTime().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm")) : "";
+        String epicId = task instanceof Subtask ? String.valueOf(((Subtask) task).getEpicId()) : "";
+        return String.join(",", String.valueOf(task.getId()), task.getType().name(), task.getTaskName(),
+                task.getStatus().name(), task.getDescription(), String.valueOf(task.getDuration().toMinutes()),
+                startTime, endTime, epicId);
+    }
+
+    //Прежний FileBackedTaskManager.fromString для задач и подзадач
+    private static Task legacyDecode(String value) {
+        String[] fields = value.trim().split(",", -1);
+        Duration duration = Duration.ofMinutes(Long.parseLong(fields[5]));
+        LocalDateTime startTime = LocalDateTime.parse(fields[6], DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm"));
+        LocalDateTime.parse(fields[7], DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm"));
+        TaskStatus status = TaskStatus.valueOf(fields[3]);
+        Task task = fields[8].isEmpty()
+                ? new Task(fields[2].trim(), fields[4].trim(), status, duration, startTime)
+                : new Subtask(fields[2].trim(), fields[4].trim(), status, duration, startTime,
+                        Integer.parseInt(fields[8]));
+        task.setId(Integer.parseInt(fields[0]));
+        return task;
+    }
+
+    //Writer без буфера, который только считает символы: замеряется сам кодек, а не ввод-вывод
+    private static final class CountingWriter extends Writer {
+        long count;
+
+        @Override
+        public void write(int c) {
+            count++;
+        }
+
+        @Override
+        public void write(String str) {
+            count += str.length();
+        }
+
+        @Override
+        public void write(String str, int off, int len) {
+            count += len;
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) {
+            count += len;
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package benchmark;
+
+import main.controllers.InMemoryHistoryManager;
+import main.controllers.InMemoryTaskManager;
+import main.model.Epic;
+import main.model.Subtask;
+import main.model.Task;
+import main.model.TaskStatus;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+//Регрессионный замер пересчёта эпика: время, аллокации и число операций менеджера истории
+//на одно обновление подзадачи и эпика при разном числе подзадач.
+//Запуск: java benchmark.EpicAggregationBenchmark
+public class EpicAggregationBenchmark {
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    public static void main(String[] args) {
+        for (int fanOut : new int[]{10, 1_000, 5_000}) {
+            CountingHistoryManager history = new CountingHistoryManager();
+            InMemoryTaskManager manager = new InMemoryTaskManager(history);
+            Epic epic = new Epic("Эпик", "Описание");
+            manager.addEpic(epic);
+
+            Subtask[] subtasks = new Subtask[fanOut];
+            for (int i = 0; i < fanOut; i++) {
+                subtasks[i] = new Subtask("Подзадача " + i, "Описание", TaskStatus.NEW, Duration.ofMinutes(30),
+                        BASE.plusHours(i), epic.getId());
+                manager.addSubtask(subtasks[i]);
+            }
+
+            TaskStatus[] statuses = TaskStatus.values();
+            int iterations = 200_000;
+            history.operations = 0;
+            BenchmarkSupport.measure("updateSubtask, subtasks=" + fanOut, iterations, i -> {
+                Subtask subtask = subtasks[i % fanOut];
+                subtask.setStatus(statuses[i % statuses.length]);
+                manager.updateSubtask(subtask);
+                return epic.getStatus().ordinal();
+            });
+            report(history, iterations * 2L);
+
+            int epicIterations = Math.max(100, 2_000_000 / fanOut);
+            history.operations = 0;
+            BenchmarkSupport.measure("updateEpic (full rebuild), subtasks=" + fanOut, epicIterations, i -> {
+                manager.updateEpic(epic);
+                return epic.getDuration().toMinutes();
+            });
+            report(history, epicIterations * 2L);
+        }
+    }
+
+    //Каждый замер выполняет операцию дважды: прогрев и измерение
+    private static void report(CountingHistoryManager history, long calls) {
+        System.out.printf("%-60s %14.2f history ops/op%n", "", (double) history.operations / calls);
+    }
+
+    //Считает вызовы со стороны менеджера задач
+    private static class CountingHistoryManager extends InMemoryHistoryManager {
+        long operations;
+
+        @Override
+        public void add(Task task) {
+            operations++;
+            super.add(task);
+        }
+
+        @Override
+        public void remove(int id) {
+            operations++;
+            super.remove(id);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package benchmark;
+
+import main.controllers.FileBackedTaskManager;
+import main.controllers.FsyncPolicy;
+import main.controllers.PersistenceMode;
+import main.controllers.PersistenceSettings;
+import main.model.Task;
+import main.model.TaskStatus;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+//Цена политик fsync: синхронные обновления на доске из BOARD задач в режимах снимка и журнала.
+//Результат сильно зависит от диска и файловой системы, запускать нужно на целевом окружении.
+//Запуск: java benchmark.FsyncPolicyBenchmark [каталог для файлов]
+public class FsyncPolicyBenchmark {
+    private static final int BOARD = 1_000;
+    private static final int OPERATIONS = 2_000;
+
+    public static void main(String[] args) throws IOException {
+        File directory = new File(args.length > 0 ? args[0] : System.getProperty("java.io.tmpdir"));
+        for (PersistenceMode mode : PersistenceMode.values()) {
+            for (FsyncPolicy policy : FsyncPolicy.values()) {
+                PersistenceSettings settings = new PersistenceSettings(mode);
+                settings.setFsyncPolicy(policy);
+                run(mode + ", " + policy, settings, directory);
+            }
+        }
+    }
+
+    private static void run(String name, PersistenceSettings settings, File directory) throws IOException {
+        File file = File.createTempFile("fsync_benchmark", ".csv", directory);
+        file.deleteOnExit();
+        FileBackedTaskManager manager = new FileBackedTaskManager(file, settings);
+        Task[] tasks = new Task[BOARD];
+        for (int i = 0; i < BOARD; i++) {
+            tasks[i] = new Task("Задача " + i, "Описание", TaskStatus.NEW);
+            manager.addTask(tasks[i]);
+        }
+
+        long started = System.nanoTime();
+        for (int i = 0; i < OPERATIONS; i++) {
+            Task task = tasks[i % BOARD];
+            task.setStatus(i % 2 == 0 ? TaskStatus.IN_PROGRESS : TaskStatus.DONE);
+            manager.updateTask(task);
+        }
+        long elapsed = System.nanoTime() - started;
+
+        System.out.printf("%-20s %10.0f ops/s %10.1f us/op%n", name, OPERATIONS * 1e9 / elapsed,
+                elapsed / 1e3 / OPERATIONS);
+        Files.deleteIfExists(manager.getJournalFile().toPath());
+        Files.delete(file.toPath());
+    }
+}
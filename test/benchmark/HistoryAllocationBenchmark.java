@@ -0,0 +1,44 @@
+package benchmark;
+
+import main.controllers.HistoryManager;
+import main.controllers.Managers;
+import main.model.Task;
+import main.model.TaskStatus;
+
+//Аллокации на один вызов HistoryManager.add: повторные просмотры горячих задач
+//и просмотры новых задач в заполненной истории (с вытеснением).
+//Запуск: java benchmark.HistoryAllocationBenchmark
+public class HistoryAllocationBenchmark {
+    private static final int HOT_TASKS = 64;
+    private static final int CAPACITY = 1000;
+    private static final int ITERATIONS = 5_000_000;
+
+    public static void main(String[] args) {
+        HistoryManager history = Managers.getDefaultHistory(CAPACITY);
+        //Идентификаторы больше 127, чтобы не попадать в кэш Integer.valueOf
+        Task[] hot = tasks(1000, HOT_TASKS);
+        for (Task task : hot) {
+            history.add(task);
+        }
+        BenchmarkSupport.measure("add, re-viewed task", ITERATIONS, i -> {
+            history.add(hot[i % HOT_TASKS]);
+            return 1;
+        });
+
+        HistoryManager full = Managers.getDefaultHistory(CAPACITY);
+        Task[] stream = tasks(10_000, CAPACITY * 4);
+        BenchmarkSupport.measure("add, new task with eviction", ITERATIONS, i -> {
+            full.add(stream[i % stream.length]);
+            return 1;
+        });
+    }
+
+    private static Task[] tasks(int firstId, int count) {
+        Task[] tasks = new Task[count];
+        for (int i = 0; i < count; i++) {
+            tasks[i] = new Task("Задача " + i, "Описание", TaskStatus.NEW);
+            tasks[i].setId(firstId + i);
+        }
+        return tasks;
+    }
+}
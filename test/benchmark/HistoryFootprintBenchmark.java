@@ -0,0 +1,41 @@
+package benchmark;
+
+import main.controllers.HistoryManager;
+import main.controllers.InMemoryHistoryManager;
+import main.controllers.Managers;
+import main.model.Task;
+import main.model.TaskStatus;
+
+//Занятая куча после миллионов просмотров разных задач: ограниченная история должна держать
+//её на одном уровне, неограниченная (capacity = Integer.MAX_VALUE) растёт линейно.
+//Запуск: java benchmark.HistoryFootprintBenchmark
+public class HistoryFootprintBenchmark {
+    private static final int VIEWS = 4_000_000;
+    private static final int CHECKPOINT = 1_000_000;
+
+    public static void main(String[] args) {
+        run("bounded (" + InMemoryHistoryManager.DEFAULT_CAPACITY + ")", Managers.getDefaultHistory());
+        run("unbounded", Managers.getDefaultHistory(Integer.MAX_VALUE));
+    }
+
+    private static void run(String name, HistoryManager history) {
+        long baseline = usedHeap();
+        for (int i = 1; i <= VIEWS; i++) {
+            Task task = new Task("Задача", "Описание", TaskStatus.NEW);
+            task.setId(i);
+            history.add(task);
+            if (i % CHECKPOINT == 0) {
+                System.out.printf("%-20s %,10d просмотров: %,8d КБ в куче, в истории %,d%n", name, i,
+                        (usedHeap() - baseline) / 1024, history.getHistory().size());
+            }
+        }
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,108 @@
+package benchmark;
+
+import main.controllers.ConcurrentTaskManager;
+import main.controllers.TaskManager;
+import main.model.Task;
+import main.model.TaskStatus;
+import main.server.ExecutionMode;
+import main.server.HttpTaskServer;
+import main.server.ServerSettings;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+//Нагрузочный прогон HttpTaskServer во всех режимах выполнения: N клиентов параллельно
+//читают /tasks, считаются p50/p99 задержки, пропускная способность и число ответов 503.
+//Запуск: java benchmark.HttpServerLoadBenchmark
+public class HttpServerLoadBenchmark {
+    private static final int CLIENTS = 32;
+    private static final int REQUESTS_PER_CLIENT = 200;
+    private static final int TASKS = 100;
+
+    public static void main(String[] args) throws Exception {
+        for (ExecutionMode mode : ExecutionMode.values()) {
+            ServerSettings settings = new ServerSettings(mode);
+            settings.setThreads(Math.max(2, Runtime.getRuntime().availableProcessors()));
+            settings.setQueueCapacity(16);
+            run(mode.name(), settings);
+        }
+    }
+
+    private static void run(String name, ServerSettings settings) throws Exception {
+        TaskManager manager = new ConcurrentTaskManager();
+        for (int i = 0; i < TASKS; i++) {
+            manager.addTask(new Task("Задача " + i, "Описание", TaskStatus.NEW));
+        }
+
+        HttpTaskServer server = new HttpTaskServer(manager, settings);
+        server.start();
+        ExecutorService clientExecutor = Executors.newFixedThreadPool(CLIENTS);
+        HttpClient client = HttpClient.newBuilder()
+                .executor(clientExecutor)
+                .build();
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/tasks"))
+                .GET()
+                .build();
+
+        ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+        try {
+            //Прогрев соединений и JIT
+            for (int i = 0; i < 200; i++) {
+                client.send(request, HttpResponse.BodyHandlers.discarding());
+            }
+
+            AtomicInteger rejected = new AtomicInteger();
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<long[]>> futures = new ArrayList<>();
+            for (int c = 0; c < CLIENTS; c++) {
+                futures.add(clients.submit(() -> {
+                    long[] latencies = new long[REQUESTS_PER_CLIENT];
+                    start.await();
+                    for (int i = 0; i < REQUESTS_PER_CLIENT; i++) {
+                        long started = System.nanoTime();
+                        int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                        latencies[i] = System.nanoTime() - started;
+                        if (status == 503) {
+                            rejected.incrementAndGet();
+                        }
+                    }
+                    return latencies;
+                }));
+            }
+
+            long started = System.nanoTime();
+            start.countDown();
+            List<Long> all = new ArrayList<>(CLIENTS * REQUESTS_PER_CLIENT);
+            for (Future<long[]> future : futures) {
+                for (long latency : future.get()) {
+                    all.add(latency);
+                }
+            }
+            long elapsed = System.nanoTime() - started;
+
+            Collections.sort(all);
+            System.out.printf("%-20s %10.0f req/s  p50 %8.2f ms  p99 %8.2f ms  503: %d%n", name,
+                    all.size() * 1e9 / elapsed, percentile(all, 0.50) / 1e6, percentile(all, 0.99) / 1e6,
+                    rejected.get());
+        } finally {
+            clients.shutdownNow();
+            clientExecutor.shutdownNow();
+            server.stop();
+        }
+    }
+
+    private static long percentile(List<Long> sorted, double p) {
+        return sorted.get((int) Math.min(sorted.size() - 1, Math.round(p * (sorted.size() - 1))));
+    }
+}
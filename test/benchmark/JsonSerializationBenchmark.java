@@ -0,0 +1,147 @@
+package benchmark;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.TypeAdapter;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import main.model.Epic;
+import main.model.Subtask;
+import main.model.Task;
+import main.model.TaskStatus;
+import main.server.DurationTypeAdapter;
+import main.server.GsonFactory;
+import main.server.LocalDateTimeTypeAdapter;
+
+import java.io.CharArrayWriter;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Type;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+//Сравнение рефлективной сериализации моделей с потоковыми адаптерами GsonFactory
+//на типичном ответе: список задач, эпиков и подзадач со временем и без.
+//Запуск: java benchmark.JsonSerializationBenchmark
+public class JsonSerializationBenchmark {
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 1, 1, 9, 0);
+    private static final Type TASK_LIST = new TypeToken<List<Task>>() { }.getType();
+    private static final Type SUBTASK_LIST = new TypeToken<List<Subtask>>() { }.getType();
+
+    public static void main(String[] args) {
+        //Конфигурация до появления адаптеров моделей: рефлексия и даты через DateTimeFormatter
+        Gson reflective = new GsonBuilder()
+                .registerTypeAdapter(LocalDateTime.class, new FormatterDateTimeAdapter())
+                .registerTypeAdapter(Duration.class, new DurationTypeAdapter())
+                .create();
+        Gson specialized = GsonFactory.createGson();
+
+        measureDates("LocalDateTime, DateTimeFormatter", new FormatterDateTimeAdapter());
+        measureDates("LocalDateTime, LocalDateTimeTypeAdapter", new LocalDateTimeTypeAdapter());
+
+        for (int size : new int[]{10, 1_000}) {
+            List<Task> payload = payload(size);
+            List<Subtask> subtasks = new ArrayList<>();
+            for (Task task : payload) {
+                if (task instanceof Subtask) {
+                    subtasks.add((Subtask) task);
+                }
+            }
+            String subtasksJson = specialized.toJson(subtasks);
+            int iterations = 2_000_000 / size;
+
+            System.out.println("Задач в ответе: " + size);
+            measureWrite("  toJson, reflective", reflective, payload, iterations);
+            measureWrite("  toJson, type adapters", specialized, payload, iterations);
+            measureRead("  fromJson, reflective", reflective, subtasksJson, iterations);
+            measureRead("  fromJson, type adapters", specialized, subtasksJson, iterations);
+        }
+    }
+
+    private static void measureDates(String name, TypeAdapter<LocalDateTime> adapter) {
+        CharArrayWriter writer = new CharArrayWriter();
+        BenchmarkSupport.measure(name + ", write", 1_000_000, i -> {
+            writer.reset();
+            try {
+                adapter.write(new JsonWriter(writer), BASE.plusMinutes(i));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return writer.size();
+        });
+        BenchmarkSupport.measure(name + ", read", 1_000_000, i -> {
+            try {
+                return adapter.read(new JsonReader(new StringReader("\"2025-06-15 13:45\""))).getMinute();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private static void measureWrite(String name, Gson gson, List<Task> payload, int iterations) {
+        //Буфер переиспользуется, чтобы замер не включал рост выходной строки
+        CharArrayWriter writer = new CharArrayWriter();
+        BenchmarkSupport.measure(name, iterations, i -> {
+            writer.reset();
+            gson.toJson(payload, TASK_LIST, writer);
+            return writer.size();
+        });
+    }
+
+    private static void measureRead(String name, Gson gson, String json, int iterations) {
+        BenchmarkSupport.measure(name, iterations, i -> {
+            List<Subtask> subtasks = gson.fromJson(json, SUBTASK_LIST);
+            return subtasks.size();
+        });
+    }
+
+    //Треть задач, треть эпиков и треть подзадач; у половины задано время
+    private static List<Task> payload(int size) {
+        List<Task> tasks = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Task task;
+            switch (i % 3) {
+                case 0:
+                    task = new Task("Задача " + i, "Описание задачи " + i, TaskStatus.NEW);
+                    break;
+                case 1:
+                    Epic epic = new Epic("Эпик " + i, "Описание эпика " + i);
+                    epic.setSubtasksIds(List.of(i + 1, i + 2, i + 3));
+                    epic.setStartTime(BASE.plusHours(i));
+                    epic.setEndTime(BASE.plusHours(i + 1));
+                    task = epic;
+                    break;
+                default:
+                    task = new Subtask("Подзадача " + i, "Описание подзадачи " + i, TaskStatus.IN_PROGRESS,
+                            i - 1);
+            }
+            if (i % 2 == 0) {
+                task.setDuration(Duration.ofMinutes(30));
+                task.setStartTime(BASE.plusMinutes(45L * i));
+            }
+            task.setId(i + 1);
+            tasks.add(task);
+        }
+        return tasks;
+    }
+
+    //Прежняя реализация адаптера дат через DateTimeFormatter, для сравнения
+    private static final class FormatterDateTimeAdapter extends TypeAdapter<LocalDateTime> {
+        private final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+        @Override
+        public void write(JsonWriter out, LocalDateTime value) throws IOException {
+            out.value(value != null ? value.format(formatter) : null);
+        }
+
+        @Override
+        public LocalDateTime read(JsonReader in) throws IOException {
+            return LocalDateTime.parse(in.nextString(), formatter);
+        }
+    }
+}
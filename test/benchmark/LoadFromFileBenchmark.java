@@ -0,0 +1,65 @@
+package benchmark;
+
+import main.controllers.FileBackedTaskManager;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+//Время запуска FileBackedTaskManager.loadFromFile на файлах в 10k, 100k и 1M строк.
+//Половина строк - задачи со временем, остальное - эпики по 9 подзадач.
+//Запуск: java -Xmx4g benchmark.LoadFromFileBenchmark
+public class LoadFromFileBenchmark {
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 1, 1, 0, 0);
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+    private static final int EPIC_FAN_OUT = 9;
+
+    public static void main(String[] args) throws IOException {
+        for (int rows : new int[]{10_000, 100_000, 1_000_000}) {
+            File file = File.createTempFile("load_benchmark", ".csv");
+            file.deleteOnExit();
+            writeBoard(file, rows);
+
+            //Первый прогон прогревает JIT, замеряется второй
+            FileBackedTaskManager.loadFromFile(file);
+            System.gc();
+
+            long started = System.nanoTime();
+            FileBackedTaskManager manager = FileBackedTaskManager.loadFromFile(file);
+            long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+
+            int loaded = manager.getAllTasks().size() + manager.getAllEpics().size()
+                    + manager.getAllSubtasks().size();
+            System.out.printf("rows=%-9d loaded=%-9d %8d ms %12.0f rows/s  file=%d KB%n", rows, loaded,
+                    elapsedMillis, loaded * 1000.0 / Math.max(1, elapsedMillis), file.length() / 1024);
+            Files.delete(file.toPath());
+        }
+    }
+
+    private static void writeBoard(File file, int rows) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            writer.write("id,type,name,status,description,duration,startTime,endTime,epic\n");
+            int taskRows = rows / 2;
+            int id = 1;
+            for (; id <= taskRows; id++) {
+                LocalDateTime start = BASE.plusHours(id);
+                writer.write(id + ",TASK,Задача " + id + ",NEW,Описание," + 30 + "," + start.format(FORMATTER)
+                        + "," + start.plusMinutes(30).format(FORMATTER) + ",\n");
+            }
+            while (id <= rows) {
+                int epicId = id++;
+                writer.write(epicId + ",EPIC,Эпик " + epicId + ",NEW,Описание,0,,,\n");
+                for (int i = 0; i < EPIC_FAN_OUT && id <= rows; i++, id++) {
+                    LocalDateTime start = BASE.plusHours(id);
+                    writer.write(id + ",SUBTASK,Подзадача " + id + ",IN_PROGRESS,Описание,30,"
+                            + start.format(FORMATTER) + "," + start.plusMinutes(30).format(FORMATTER) + ","
+                            + epicId + "\n");
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package benchmark;
+
+import main.controllers.InMemoryTaskManager;
+import main.controllers.TaskManager;
+import main.metrics.Counter;
+import main.metrics.LatencyHistogram;
+import main.metrics.MeteredTaskManager;
+import main.metrics.MetricsRegistry;
+import main.model.Task;
+import main.model.TaskStatus;
+
+//Накладные расходы записи метрик: счётчик, гистограмма и вызов менеджера через MeteredTaskManager
+//в сравнении с прямым вызовом. Запись не должна выделять память и стоить больше десятков наносекунд.
+//Запуск: java benchmark.MetricsBenchmark
+public class MetricsBenchmark {
+    public static void main(String[] args) {
+        MetricsRegistry registry = new MetricsRegistry();
+        Counter counter = registry.counter("benchmark_total", "Счётчик");
+        LatencyHistogram histogram = registry.histogram("benchmark_seconds", "Гистограмма");
+
+        BenchmarkSupport.measure("Counter.increment", 10_000_000, i -> {
+            counter.increment();
+            return i;
+        });
+        BenchmarkSupport.measure("LatencyHistogram.record", 10_000_000, i -> {
+            histogram.record(i * 37L);
+            return i;
+        });
+        BenchmarkSupport.measure("LatencyHistogram.recordSince", 10_000_000, i -> {
+            histogram.recordSince(System.nanoTime());
+            return i;
+        });
+
+        InMemoryTaskManager plain = new InMemoryTaskManager();
+        TaskManager metered = new MeteredTaskManager(new InMemoryTaskManager(), registry);
+        for (int i = 0; i < 1_000; i++) {
+            plain.addTask(new Task("Задача " + i, "Описание", TaskStatus.NEW));
+            metered.addTask(new Task("Задача " + i, "Описание", TaskStatus.NEW));
+        }
+        BenchmarkSupport.measure("InMemoryTaskManager.getTaskById", 10_000_000,
+                i -> plain.getTaskById(i % 1_000 + 1).getId());
+        BenchmarkSupport.measure("MeteredTaskManager.getTaskById", 10_000_000,
+                i -> metered.getTaskById(i % 1_000 + 1).getId());
+
+        BenchmarkSupport.measure("MetricsRegistry.scrape", 1_000, i -> registry.scrape().length());
+    }
+}
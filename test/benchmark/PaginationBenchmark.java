@@ -0,0 +1,31 @@
+package benchmark;
+
+import main.controllers.ConcurrentTaskManager;
+import main.controllers.InMemoryTaskManager;
+import main.controllers.TaskManager;
+import main.model.Task;
+import main.model.TaskStatus;
+
+//Стоимость одной страницы из 50 задач против полного списка на большой доске.
+//Запуск: java benchmark.PaginationBenchmark
+public class PaginationBenchmark {
+    private static final int TASKS = 100_000;
+    private static final int PAGE = 50;
+
+    public static void main(String[] args) {
+        run("InMemoryTaskManager", new InMemoryTaskManager());
+        run("ConcurrentTaskManager", new ConcurrentTaskManager());
+    }
+
+    private static void run(String name, TaskManager manager) {
+        for (int i = 0; i < TASKS; i++) {
+            manager.addTask(new Task("Задача " + i, "Описание", TaskStatus.NEW));
+        }
+
+        BenchmarkSupport.measure(name + ": getAllTasks", 200, i -> manager.getAllTasks().size());
+        BenchmarkSupport.measure(name + ": getTasksPage(" + PAGE + ")", 200_000,
+                i -> manager.getTasksPage((int) (i * 7919L % TASKS), PAGE).size());
+        BenchmarkSupport.measure(name + ": getTaskById", 1_000_000,
+                i -> manager.getTaskById(1 + (int) (i * 7919L % TASKS)).getId());
+    }
+}
@@ -0,0 +1,57 @@
+package benchmark;
+
+import main.controllers.FileBackedTaskManager;
+import main.controllers.PersistenceMode;
+import main.controllers.PersistenceSettings;
+import main.model.Task;
+import main.model.TaskStatus;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+//Пропускная способность изменений FileBackedTaskManager при синхронной и асинхронной записи
+//в режимах снимка и журнала. На доске заранее BOARD задач, замеряется OPERATIONS обновлений;
+//в асинхронном режиме в замер входит завершающий flush() с fsync.
+//Запуск: java benchmark.PersistenceThroughputBenchmark
+public class PersistenceThroughputBenchmark {
+    private static final int BOARD = 1_000;
+    private static final int OPERATIONS = 5_000;
+
+    public static void main(String[] args) throws IOException {
+        for (PersistenceMode mode : PersistenceMode.values()) {
+            for (boolean async : new boolean[]{false, true}) {
+                PersistenceSettings settings = new PersistenceSettings(mode);
+                settings.setAsync(async);
+                run(mode + (async ? ", async" : ", sync"), settings);
+            }
+        }
+    }
+
+    private static void run(String name, PersistenceSettings settings) throws IOException {
+        File file = File.createTempFile("throughput_benchmark", ".csv");
+        file.deleteOnExit();
+        FileBackedTaskManager manager = new FileBackedTaskManager(file, settings);
+        Task[] tasks = new Task[BOARD];
+        for (int i = 0; i < BOARD; i++) {
+            tasks[i] = new Task("Задача " + i, "Описание", TaskStatus.NEW);
+            manager.addTask(tasks[i]);
+        }
+        manager.flush();
+
+        long started = System.nanoTime();
+        for (int i = 0; i < OPERATIONS; i++) {
+            Task task = tasks[i % BOARD];
+            task.setStatus(i % 2 == 0 ? TaskStatus.IN_PROGRESS : TaskStatus.DONE);
+            manager.updateTask(task);
+        }
+        manager.flush();
+        long elapsed = System.nanoTime() - started;
+        manager.close();
+
+        System.out.printf("%-18s %10.0f ops/s %10.1f us/op%n", name, OPERATIONS * 1e9 / elapsed,
+                elapsed / 1e3 / OPERATIONS);
+        Files.deleteIfExists(manager.getJournalFile().toPath());
+        Files.delete(file.toPath());
+    }
+}
@@ -0,0 +1,46 @@
+package benchmark;
+
+import main.controllers.PrioritizedIndex;
+import main.model.Task;
+import main.model.TaskStatus;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+//Стоимость изменений приоритетного индекса при росте числа задач: переиндексация со сменой
+//времени начала и пара удаление/добавление. Рост должен быть логарифмическим.
+//Запуск: java benchmark.PrioritizedIndexBenchmark
+public class PrioritizedIndexBenchmark {
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    public static void main(String[] args) {
+        run("TreeMap", false);
+        run("ConcurrentSkipListMap", true);
+    }
+
+    private static void run(String name, boolean concurrent) {
+        for (int size : new int[]{1_000, 10_000, 100_000, 1_000_000}) {
+            PrioritizedIndex index = concurrent ? PrioritizedIndex.concurrent() : new PrioritizedIndex();
+            Task[] tasks = new Task[size];
+            for (int i = 0; i < size; i++) {
+                tasks[i] = new Task("Задача " + i, "Описание", TaskStatus.NEW, Duration.ofMinutes(30),
+                        BASE.plusMinutes(30L * i));
+                tasks[i].setId(i + 1);
+                index.add(tasks[i]);
+            }
+
+            BenchmarkSupport.measure(name + ", n=" + size + ": add (reindex with new start)", 1_000_000, i -> {
+                Task task = tasks[(int) (i * 7919L % size)];
+                task.setStartTime(BASE.plusMinutes(30L * ((i * 104729L) % size)));
+                index.add(task);
+                return task.getId();
+            });
+            BenchmarkSupport.measure(name + ", n=" + size + ": remove + add", 1_000_000, i -> {
+                Task task = tasks[(int) (i * 7919L % size)];
+                index.remove(task.getId());
+                index.add(task);
+                return task.getId();
+            });
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package benchmark;
+
+import main.controllers.ConcurrentTaskManager;
+import main.controllers.InMemoryTaskManager;
+import main.controllers.TaskManager;
+import main.model.Task;
+import main.model.TaskStatus;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+//Окно «ближайшие 24 часа» против полной копии приоритетного списка: по задаче в час на год вперёд.
+//Запуск: java benchmark.PrioritizedWindowBenchmark
+public class PrioritizedWindowBenchmark {
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 1, 1, 0, 0);
+    private static final int TASKS = 24 * 365;
+
+    public static void main(String[] args) {
+        run("InMemoryTaskManager", new InMemoryTaskManager());
+        run("ConcurrentTaskManager", new ConcurrentTaskManager());
+    }
+
+    private static void run(String name, TaskManager manager) {
+        for (int i = 0; i < TASKS; i++) {
+            manager.addTask(new Task("Задача " + i, "Описание", TaskStatus.NEW, Duration.ofMinutes(45),
+                    BASE.plusHours(i)));
+        }
+
+        BenchmarkSupport.measure(name + ": getPrioritizedTasks()", 20_000,
+                i -> manager.getPrioritizedTasks().size());
+        BenchmarkSupport.measure(name + ": getPrioritizedTasks(from, from + 24h)", 200_000, i -> {
+            LocalDateTime from = BASE.plusMinutes(30 + (i % TASKS) * 60L);
+            return manager.getPrioritizedTasks(from, from.plusHours(24)).size();
+        });
+    }
+}
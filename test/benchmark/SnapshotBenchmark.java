@@ -0,0 +1,46 @@
+package benchmark;
+
+import main.controllers.ConcurrentTaskManager;
+import main.controllers.InMemoryTaskManager;
+import main.controllers.TaskManager;
+import main.model.Task;
+import main.model.TaskStatus;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.function.Supplier;
+
+//Чтение полного списка задач на доске из 10 000 задач: копия getAllTasks()/getPrioritizedTasks() против
+//готового среза getSnapshot(). Отдельно - чтение сразу после изменения, когда срез приходится пересобирать.
+//Запуск: java benchmark.SnapshotBenchmark
+public class SnapshotBenchmark {
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 1, 1, 0, 0);
+    private static final int BOARD = 10_000;
+
+    public static void main(String[] args) {
+        run("InMemoryTaskManager", InMemoryTaskManager::new);
+        run("ConcurrentTaskManager", ConcurrentTaskManager::new);
+    }
+
+    private static void run(String name, Supplier<TaskManager> managers) {
+        TaskManager manager = managers.get();
+        for (int i = 0; i < BOARD; i++) {
+            manager.addTask(new Task("Задача " + i, "Описание", TaskStatus.NEW, Duration.ofMinutes(30),
+                    BASE.plusHours(i)));
+        }
+
+        BenchmarkSupport.measure(name + ": getAllTasks", 2_000, i -> manager.getAllTasks().size());
+        BenchmarkSupport.measure(name + ": getSnapshot().getTasks()", 2_000,
+                i -> manager.getSnapshot().getTasks().size());
+        BenchmarkSupport.measure(name + ": getPrioritizedTasks", 2_000, i -> manager.getPrioritizedTasks().size());
+        BenchmarkSupport.measure(name + ": getSnapshot().getPrioritized()", 2_000,
+                i -> manager.getSnapshot().getPrioritized().size());
+
+        Task task = manager.getAllTasks().get(0);
+        BenchmarkSupport.measure(name + ": updateTask + getSnapshot()", 200, i -> {
+            task.setStatus(TaskStatus.values()[i % 3]);
+            manager.updateTask(task);
+            return manager.getSnapshot().getTasks().size();
+        });
+    }
+}
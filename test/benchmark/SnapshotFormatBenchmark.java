@@ -0,0 +1,105 @@
+package benchmark;
+
+import main.controllers.FileBackedTaskManager;
+import main.controllers.PersistenceSettings;
+import main.controllers.SnapshotFormat;
+import main.model.Epic;
+import main.model.Subtask;
+import main.model.Task;
+import main.model.TaskStatus;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+//Сохранение, загрузка и размер снимка в CSV и двоичном формате на 1M задач.
+//Половина строк - задачи со временем, остальное - эпики по 9 подзадач, как в LoadFromFileBenchmark.
+//Запуск: java -Xmx4g benchmark.SnapshotFormatBenchmark
+public class SnapshotFormatBenchmark {
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 1, 1, 0, 0);
+    private static final int ROWS = 1_000_000;
+    private static final int EPIC_FAN_OUT = 9;
+
+    public static void main(String[] args) throws IOException {
+        File source = File.createTempFile("snapshot_source", ".csv");
+        source.deleteOnExit();
+        try (OutputStream out = Files.newOutputStream(source.toPath())) {
+            SnapshotFormat.CSV.getCodec().write(out, board());
+        }
+
+        for (SnapshotFormat format : SnapshotFormat.values()) {
+            PersistenceSettings settings = new PersistenceSettings();
+            settings.setFormat(format);
+            File file = File.createTempFile("snapshot_" + format.name().toLowerCase(), ".dat");
+            file.deleteOnExit();
+            Files.copy(source.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            FileBackedTaskManager manager = FileBackedTaskManager.loadFromFile(file, settings);
+
+            //Первые прогоны прогревают JIT, замеряются последние
+            long saveMillis = 0;
+            long loadMillis = 0;
+            long decodeMillis = 0;
+            int loaded = 0;
+            for (int run = 0; run < 3; run++) {
+                long started = System.nanoTime();
+                manager.compact();
+                saveMillis = (System.nanoTime() - started) / 1_000_000;
+
+                System.gc();
+                started = System.nanoTime();
+                FileBackedTaskManager reloaded = FileBackedTaskManager.loadFromFile(file, settings);
+                loadMillis = (System.nanoTime() - started) / 1_000_000;
+                loaded = reloaded.getAllTasks().size() + reloaded.getAllEpics().size()
+                        + reloaded.getAllSubtasks().size();
+
+                //Только разбор файла, без наполнения менеджера
+                started = System.nanoTime();
+                try (InputStream in = new BufferedInputStream(Files.newInputStream(file.toPath()))) {
+                    format.getCodec().read(in, task -> BenchmarkSupport.sink += task.getId());
+                }
+                decodeMillis = (System.nanoTime() - started) / 1_000_000;
+            }
+
+            System.out.printf("%-7s rows=%-8d save %6d ms  load %6d ms  decode %6d ms  file %8d KB%n", format,
+                    loaded, saveMillis, loadMillis, decodeMillis, file.length() / 1024);
+            Files.delete(file.toPath());
+        }
+        Files.delete(source.toPath());
+    }
+
+    private static List<Task> board() {
+        List<Task> tasks = new ArrayList<>(ROWS);
+        List<Task> epics = new ArrayList<>();
+        List<Task> subtasks = new ArrayList<>();
+        int taskRows = ROWS / 2;
+        int id = 1;
+        for (; id <= taskRows; id++) {
+            Task task = new Task("Задача " + id, "Описание", TaskStatus.NEW, Duration.ofMinutes(30),
+                    BASE.plusHours(id));
+            task.setId(id);
+            tasks.add(task);
+        }
+        while (id <= ROWS) {
+            Epic epic = new Epic("Эпик " + id, "Описание");
+            epic.setId(id++);
+            epics.add(epic);
+            for (int i = 0; i < EPIC_FAN_OUT && id <= ROWS; i++, id++) {
+                Subtask subtask = new Subtask("Подзадача " + id, "Описание", TaskStatus.IN_PROGRESS,
+                        Duration.ofMinutes(30), BASE.plusHours(id), epic.getId());
+                subtask.setId(id);
+                subtasks.add(subtask);
+            }
+        }
+        tasks.addAll(epics);
+        tasks.addAll(subtasks);
+        return tasks;
+    }
+}
@@ -0,0 +1,215 @@
+package benchmark;
+
+import main.controllers.FileBackedTaskManager;
+import main.controllers.FsyncPolicy;
+import main.controllers.InMemoryHistoryManager;
+import main.controllers.InMemoryTaskManager;
+import main.controllers.PersistenceSettings;
+import main.controllers.SnapshotFormat;
+import main.controllers.TaskManager;
+import main.model.Epic;
+import main.model.Subtask;
+import main.model.Task;
+import main.model.TaskStatus;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+//Регрессионный набор по горячим путям менеджера: addTask, addSubtask, deleteTaskById, getPrioritizedTasks,
+//InMemoryHistoryManager.add, сохранение и загрузка FileBackedTaskManager. Доски разного размера,
+//половина - задачи, остальное - эпики с заданным числом подзадач. Для каждого замера - ns/op и B/op.
+//Запуск:
+//  java -Xmx4g benchmark.TaskManagerBenchmark                                   - только замер
+//  java -Xmx4g benchmark.TaskManagerBenchmark --baseline <файл>                 - сравнение, код 1 при росте аллокаций
+//  java -Xmx4g benchmark.TaskManagerBenchmark --write-baseline <файл>           - новые базовые результаты
+//Базовые результаты лежат в test/benchmark/task-manager-baseline.tsv и сравнимы только на той же машине.
+public class TaskManagerBenchmark {
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 1, 1, 0, 0);
+    private static final int[] BOARD_SIZES = {1_000, 10_000, 100_000};
+    private static final int[] FAN_OUTS = {1, 10, 100};
+    private static final int MUTATIONS = 5_000;
+    private static final int ROUNDS = 5;
+
+    //Допустимый рост относительно базовых результатов. Аллокации на операцию воспроизводятся с точностью
+    //до долей процента и проваливают сравнение; время на общей машине гуляет на десятки процентов,
+    //поэтому его рост только помечается.
+    private static final double TIME_TOLERANCE = 0.50;
+    private static final double ALLOCATION_TOLERANCE = 0.10;
+
+    private static int nextSlot;
+
+    public static void main(String[] args) throws IOException {
+        //Прогрев всех путей, чтобы компиляция JIT не попадала в первые замеры
+        BenchmarkSupport.silent = true;
+        for (int fanOut : FAN_OUTS) {
+            measureBoard(BOARD_SIZES[1], fanOut, new ArrayList<>());
+        }
+        measureHistory(new ArrayList<>());
+        for (SnapshotFormat format : SnapshotFormat.values()) {
+            measureFiles(BOARD_SIZES[1], format, new ArrayList<>());
+        }
+        BenchmarkSupport.silent = false;
+
+        List<BenchmarkSupport.Result> results = new ArrayList<>();
+        for (int size : BOARD_SIZES) {
+            for (int fanOut : FAN_OUTS) {
+                measureBoard(size, fanOut, results);
+            }
+        }
+        measureHistory(results);
+        for (int size : BOARD_SIZES) {
+            for (SnapshotFormat format : SnapshotFormat.values()) {
+                measureFiles(size, format, results);
+            }
+        }
+
+        if (args.length == 2 && args[0].equals("--write-baseline")) {
+            BenchmarkSupport.writeBaseline(Path.of(args[1]), "TaskManagerBenchmark, JDK "
+                    + System.getProperty("java.version") + ", CPUs "
+                    + Runtime.getRuntime().availableProcessors(), results);
+        } else if (args.length == 2 && args[0].equals("--baseline")) {
+            if (!compare(BenchmarkSupport.readBaseline(Path.of(args[1])), results)) {
+                System.exit(1);
+            }
+        }
+    }
+
+    private static void measureBoard(int size, int fanOut, List<BenchmarkSupport.Result> results) {
+        InMemoryTaskManager manager = new InMemoryTaskManager();
+        List<Epic> epics = fill(manager, size, fanOut);
+        String suffix = ", board=" + size + ", fanOut=" + fanOut;
+
+        //Чтение - до изменений, пока на доске ровно size задач
+        int scans = Math.max(10, 200_000 / size);
+        results.add(BenchmarkSupport.measureMedian("getPrioritizedTasks" + suffix, scans, ROUNDS,
+                i -> manager.getPrioritizedTasks().size()));
+        results.add(BenchmarkSupport.measureMedian("getPrioritizedTasks(day window)" + suffix, MUTATIONS, ROUNDS,
+                i -> {
+                    LocalDateTime from = BASE.plusHours((long) i * 7919 % size);
+                    return manager.getPrioritizedTasks(from, from.plusDays(1)).size();
+                }));
+
+        //Прогрев и каждый раунд добавляют по MUTATIONS задач, затем столько же удаляются
+        List<Integer> added = new ArrayList<>(MUTATIONS * (ROUNDS + 1));
+        results.add(BenchmarkSupport.measureMedian("addTask" + suffix, MUTATIONS, ROUNDS, i -> {
+            Task task = new Task("Задача", "Описание", TaskStatus.NEW, Duration.ofMinutes(30), nextTime());
+            manager.addTask(task);
+            added.add(task.getId());
+            return task.getId();
+        }));
+        int[] deleted = {0};
+        results.add(BenchmarkSupport.measureMedian("deleteTaskById" + suffix, MUTATIONS, ROUNDS, i -> {
+            int id = added.get(deleted[0]++);
+            manager.deleteTaskById(id);
+            return id;
+        }));
+        results.add(BenchmarkSupport.measureMedian("addSubtask" + suffix, MUTATIONS, ROUNDS, i -> {
+            Epic epic = epics.get(i % epics.size());
+            Subtask subtask = new Subtask("Подзадача", "Описание", TaskStatus.IN_PROGRESS, Duration.ofMinutes(30),
+                    nextTime(), epic.getId());
+            manager.addSubtask(subtask);
+            return epic.getStatus().ordinal();
+        }));
+    }
+
+    private static void measureHistory(List<BenchmarkSupport.Result> results) {
+        Task[] tasks = new Task[10_000];
+        for (int i = 0; i < tasks.length; i++) {
+            tasks[i] = new Task("Задача " + i, "Описание", TaskStatus.NEW);
+            tasks[i].setId(i + 1);
+        }
+
+        InMemoryHistoryManager history = new InMemoryHistoryManager();
+        results.add(BenchmarkSupport.measureMedian("InMemoryHistoryManager.add (new view, full history)", 200_000,
+                ROUNDS, i -> {
+                    history.add(tasks[i % tasks.length]);
+                    return i;
+                }));
+        int capacity = history.getCapacity();
+        results.add(BenchmarkSupport.measureMedian("InMemoryHistoryManager.add (re-view)", 200_000, ROUNDS, i -> {
+            history.add(tasks[(i * 31) % capacity]);
+            return i;
+        }));
+    }
+
+    private static void measureFiles(int size, SnapshotFormat format, List<BenchmarkSupport.Result> results)
+            throws IOException {
+        File file = File.createTempFile("task_manager_benchmark", ".dat");
+        file.deleteOnExit();
+        //Изменения при заполнении доски только копятся, снимок пишется явно; fsync не замеряется
+        PersistenceSettings settings = new PersistenceSettings();
+        settings.setFormat(format);
+        settings.setFsyncPolicy(FsyncPolicy.NEVER);
+        settings.setAsync(true);
+        settings.setFlushIntervalMillis(Duration.ofHours(1).toMillis());
+        settings.setFlushOperations(Integer.MAX_VALUE);
+        FileBackedTaskManager manager = new FileBackedTaskManager(file, settings);
+        fill(manager, size, 10);
+        PersistenceSettings loadSettings = new PersistenceSettings();
+
+        String suffix = ", " + format + ", board=" + size;
+        int iterations = Math.max(1, 50_000 / size);
+        results.add(BenchmarkSupport.measureMedian("FileBackedTaskManager.save" + suffix, iterations, ROUNDS, i -> {
+            manager.compact();
+            return file.length();
+        }));
+        results.add(BenchmarkSupport.measureMedian("FileBackedTaskManager.loadFromFile" + suffix, iterations,
+                ROUNDS, i -> FileBackedTaskManager.loadFromFile(file, loadSettings).getAllTasks().size()));
+        manager.close();
+        Files.delete(file.toPath());
+    }
+
+    //Заполнение доски: size / 2 задач со временем, остальное - эпики по fanOut подзадач
+    private static List<Epic> fill(TaskManager manager, int size, int fanOut) {
+        nextSlot = 0;
+        int count = 0;
+        for (; count < size / 2; count++) {
+            manager.addTask(new Task("Задача " + count, "Описание", TaskStatus.NEW, Duration.ofMinutes(30),
+                    nextTime()));
+        }
+        List<Epic> epics = new ArrayList<>();
+        while (count < size) {
+            Epic epic = new Epic("Эпик " + count, "Описание");
+            manager.addEpic(epic);
+            epics.add(epic);
+            count++;
+            for (int i = 0; i < fanOut && count < size; i++, count++) {
+                manager.addSubtask(new Subtask("Подзадача " + count, "Описание", TaskStatus.IN_PROGRESS,
+                        Duration.ofMinutes(30), nextTime(), epic.getId()));
+            }
+        }
+        return epics;
+    }
+
+    private static LocalDateTime nextTime() {
+        return BASE.plusHours(nextSlot++);
+    }
+
+    private static boolean compare(Map<String, BenchmarkSupport.Result> baseline,
+                                   List<BenchmarkSupport.Result> results) {
+        boolean passed = true;
+        System.out.println();
+        for (BenchmarkSupport.Result result : results) {
+            BenchmarkSupport.Result expected = baseline.get(result.name);
+            if (expected == null) {
+                System.out.printf("%-60s %s%n", result.name, "нет в базовых результатах");
+                continue;
+            }
+            double time = result.nanosPerOp / expected.nanosPerOp - 1;
+            double allocation = expected.bytesPerOp > 0 ? result.bytesPerOp / expected.bytesPerOp - 1
+                    : (result.bytesPerOp > 0 ? Double.POSITIVE_INFINITY : 0);
+            boolean regression = allocation > ALLOCATION_TOLERANCE;
+            passed &= !regression;
+            System.out.printf("%-60s time %+7.1f%%  alloc %+7.1f%%  %s%n", result.name, time * 100,
+                    allocation * 100, regression ? "REGRESSION" : time > TIME_TOLERANCE ? "slower?" : "ok");
+        }
+        return passed;
+    }
+}
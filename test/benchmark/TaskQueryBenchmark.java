@@ -0,0 +1,65 @@
+package benchmark;
+
+import main.controllers.InMemoryTaskManager;
+import main.controllers.TaskManager;
+import main.controllers.TaskQuery;
+import main.model.Epic;
+import main.model.Subtask;
+import main.model.TaskStatus;
+import main.model.TaskType;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+//Выборка 50 подзадач в работе и 50 подзадач из часового окна на досках растущего размера:
+//findTasks по индексам против фильтрации getAllSubtasks на клиенте.
+//Запуск: java benchmark.TaskQueryBenchmark
+public class TaskQueryBenchmark {
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 1, 1, 0, 0);
+    private static final int MATCHING = 50;
+
+    public static void main(String[] args) {
+        for (int size : new int[]{1_000, 10_000, 100_000}) {
+            TaskManager manager = board(size);
+
+            TaskQuery inProgress = new TaskQuery();
+            inProgress.setStatus(TaskStatus.IN_PROGRESS);
+            inProgress.setType(TaskType.SUBTASK);
+            TaskQuery window = new TaskQuery();
+            window.setFrom(BASE.plusMinutes(size / 2));
+            window.setTo(BASE.plusMinutes(size / 2 + MATCHING));
+
+            int iterations = 20_000_000 / size;
+            System.out.println("Подзадач на доске: " + size);
+            BenchmarkSupport.measure("  findTasks(status, type)", 20_000,
+                    i -> manager.findTasks(inProgress).size());
+            BenchmarkSupport.measure("  getAllSubtasks + filter(status)", iterations,
+                    i -> manager.getAllSubtasks().stream()
+                            .filter(subtask -> subtask.getStatus() == TaskStatus.IN_PROGRESS)
+                            .count());
+            BenchmarkSupport.measure("  findTasks(from, to)", 20_000,
+                    i -> manager.findTasks(window).size());
+            BenchmarkSupport.measure("  getAllSubtasks + filter(from, to)", iterations,
+                    i -> manager.getAllSubtasks().stream()
+                            .filter(subtask -> !subtask.getStartTime().isBefore(window.getFrom())
+                                    && subtask.getStartTime().isBefore(window.getTo()))
+                            .count());
+        }
+    }
+
+    //Подзадачи по минуте каждая; в работе только MATCHING из них, остальные выполнены
+    private static TaskManager board(int size) {
+        TaskManager manager = new InMemoryTaskManager();
+        Epic epic = null;
+        for (int i = 0; i < size; i++) {
+            if (i % 100 == 0) {
+                epic = new Epic("Эпик " + i, "Описание");
+                manager.addEpic(epic);
+            }
+            TaskStatus status = i % (size / MATCHING) == 0 ? TaskStatus.IN_PROGRESS : TaskStatus.DONE;
+            manager.addSubtask(new Subtask("Подзадача " + i, "Описание", status, Duration.ofMinutes(1),
+                    BASE.plusMinutes(i), epic.getId()));
+        }
+        return manager;
+    }
+}
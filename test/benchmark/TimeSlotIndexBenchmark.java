@@ -0,0 +1,48 @@
+package benchmark;
+
+import main.controllers.InMemoryTaskManager;
+import main.controllers.TimeSlotIndex;
+import main.model.Task;
+import main.model.TaskStatus;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+//Сравнение проверки пересечений через TimeSlotIndex с прежним линейным просмотром
+//getPrioritizedTasks(). Запуск: java benchmark.TimeSlotIndexBenchmark
+public class TimeSlotIndexBenchmark {
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    public static void main(String[] args) {
+        for (int size : new int[]{1_000, 10_000, 100_000}) {
+            InMemoryTaskManager manager = new InMemoryTaskManager();
+            TimeSlotIndex index = new TimeSlotIndex();
+            for (int i = 0; i < size; i++) {
+                Task task = new Task("Задача " + i, "Описание", TaskStatus.NEW, Duration.ofMinutes(30),
+                        BASE.plusHours(i));
+                manager.addTask(task);
+                index.add(task);
+            }
+
+            //Кандидаты попадают в промежутки между задачами: худший случай для линейного просмотра
+            Task[] candidates = new Task[1024];
+            for (int i = 0; i < candidates.length; i++) {
+                candidates[i] = new Task("Кандидат", "Описание", TaskStatus.NEW, Duration.ofMinutes(15),
+                        BASE.plusHours((long) i * size / candidates.length).plusMinutes(40));
+            }
+
+            int scanIterations = Math.max(20, 2_000_000 / size);
+            BenchmarkSupport.measure("linear scan, tasks=" + size, scanIterations,
+                    i -> scanOverlaps(manager, candidates[i & 1023]) ? 1 : 0);
+            BenchmarkSupport.measure("TimeSlotIndex.overlaps, tasks=" + size, 2_000_000,
+                    i -> index.overlaps(candidates[i & 1023]) ? 1 : 0);
+        }
+    }
+
+    //Прежняя реализация проверки из InMemoryTaskManager
+    private static boolean scanOverlaps(InMemoryTaskManager manager, Task task) {
+        return manager.getPrioritizedTasks().stream()
+                .anyMatch(current -> task.getStartTime().isBefore(current.getEndTime())
+                        && current.getStartTime().isBefore(task.getEndTime()));
+    }
+}
@@ -0,0 +1,129 @@
+package controllers;
+
+import main.controllers.BinarySnapshotCodec;
+import main.model.Epic;
+import main.model.Subtask;
+import main.model.Task;
+import main.model.TaskStatus;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinarySnapshotCodecTest {
+    private final BinarySnapshotCodec codec = new BinarySnapshotCodec();
+
+    //Проверяем, что все поля задач, эпиков и подзадач переживают запись и чтение
+    @Test
+    void shouldRoundTripAllTaskTypes() throws IOException {
+        Task task = new Task("Задача, с \"кавычками\"", null, TaskStatus.DONE, Duration.ofMinutes(90),
+                LocalDateTime.of(1969, 12, 31, 23, 59));
+        task.setId(1);
+        Epic epic = new Epic("Эпик", "Описание\nв две строки");
+        epic.setId(300);
+        epic.setDuration(Duration.ofMinutes(30));
+        epic.setStartTime(LocalDateTime.of(2025, 2, 16, 10, 0));
+        epic.setEndTime(LocalDateTime.of(2025, 2, 16, 10, 30));
+        Subtask subtask = new Subtask("Подзадача", "", TaskStatus.IN_PROGRESS, Duration.ofMinutes(30),
+                LocalDateTime.of(2025, 2, 16, 10, 0), epic.getId());
+        subtask.setId(Integer.MAX_VALUE);
+        Task withoutTime = new Task("Без времени", "Описание", TaskStatus.NEW);
+        withoutTime.setId(2);
+
+        List<Task> decoded = roundTrip(List.of(task, epic, subtask, withoutTime));
+
+        assertEquals(4, decoded.size());
+        for (int i = 0; i < decoded.size(); i++) {
+            Task expected = List.of(task, epic, subtask, withoutTime).get(i);
+            Task actual = decoded.get(i);
+            assertEquals(expected.getClass(), actual.getClass());
+            assertEquals(expected.getId(), actual.getId());
+            assertEquals(expected.getTaskName(), actual.getTaskName());
+            assertEquals(expected.getDescription(), actual.getDescription());
+            assertEquals(expected.getStartTime(), actual.getStartTime());
+            assertEquals(expected.getEndTime(), actual.getEndTime());
+        }
+        assertEquals(TaskStatus.DONE, decoded.get(0).getStatus());
+        assertEquals(Duration.ZERO, decoded.get(3).getDuration());
+        assertEquals(epic.getId(), ((Subtask) decoded.get(2)).getEpicId());
+    }
+
+    //Проверяем, что снимок больше буфера чтения читается целиком
+    @Test
+    void shouldReadSnapshotLargerThanBuffer() throws IOException {
+        List<Task> tasks = new ArrayList<>();
+        char[] longDescription = new char[100_000];
+        Arrays.fill(longDescription, 'я');
+        for (int i = 1; i <= 5_000; i++) {
+            Task task = new Task("Задача " + i, i == 2_500 ? new String(longDescription) : "Описание",
+                    TaskStatus.NEW);
+            task.setId(i);
+            tasks.add(task);
+        }
+
+        List<Task> decoded = roundTrip(tasks);
+
+        assertEquals(tasks.size(), decoded.size());
+        assertEquals(tasks.get(4_999).getTaskName(), decoded.get(4_999).getTaskName());
+        assertEquals(100_000, decoded.get(2_499).getDescription().length());
+    }
+
+    //Проверяем чтение из буфера вне кучи, как при отображении файла в память
+    @Test
+    void shouldReadFromDirectBuffer() throws IOException {
+        Task task = new Task("Задача", "Описание", TaskStatus.NEW, Duration.ofMinutes(15),
+                LocalDateTime.of(2025, 2, 16, 10, 0));
+        task.setId(5);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        codec.write(out, List.of(task));
+        ByteBuffer buffer = ByteBuffer.allocateDirect(out.size()).put(out.toByteArray()).flip();
+
+        List<Task> decoded = new ArrayList<>();
+        assertTrue(BinarySnapshotCodec.isBinary(buffer));
+        BinarySnapshotCodec.read(buffer, decoded::add);
+
+        assertEquals(1, decoded.size());
+        assertEquals(task.getTaskName(), decoded.get(0).getTaskName());
+        assertEquals(task.getEndTime(), decoded.get(0).getEndTime());
+    }
+
+    //Проверяем, что обрезанный снимок и неизвестная версия не читаются молча
+    @Test
+    void shouldRejectTruncatedSnapshotAndUnknownVersion() throws IOException {
+        Task task = new Task("Задача", "Описание", TaskStatus.NEW);
+        task.setId(1);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        codec.write(out, List.of(task, task));
+        byte[] bytes = out.toByteArray();
+
+        byte[] truncated = Arrays.copyOf(bytes, bytes.length - 5);
+        assertThrows(EOFException.class,
+                () -> codec.read(new ByteArrayInputStream(truncated), decoded -> { }));
+
+        byte[] future = bytes.clone();
+        future[4] = 2;
+        assertThrows(IllegalArgumentException.class,
+                () -> codec.read(new ByteArrayInputStream(future), decoded -> { }));
+    }
+
+    private List<Task> roundTrip(List<Task> tasks) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        codec.write(out, tasks);
+        ByteArrayInputStream in = new ByteArrayInputStream(out.toByteArray());
+        assertTrue(BinarySnapshotCodec.isBinary(in));
+
+        List<Task> decoded = new ArrayList<>();
+        codec.read(in, decoded::add);
+        return decoded;
+    }
+}
@@ -0,0 +1,295 @@
+package controllers;
+
+import main.controllers.BoardSnapshot;
+import main.controllers.ConcurrentTaskManager;
+import main.exceptions.TimeConflictException;
+import main.model.Epic;
+import main.model.Subtask;
+import main.model.Task;
+import main.model.TaskStatus;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class ConcurrentTaskManagerTest extends TaskManagerTest<ConcurrentTaskManager> {
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 2, 18, 0, 0);
+    private static final int THREADS = 8;
+
+    @BeforeEach
+    @Override
+    public void setUp() {
+        taskManager = new ConcurrentTaskManager();
+    }
+
+    //Проверяем, что параллельное добавление подзадач в разные эпики не теряет данные и не дублирует id
+    @Test
+    public void shouldKeepStateConsistentUnderParallelWrites() throws Exception {
+        int subtasksPerThread = 500;
+        Epic[] epics = new Epic[THREADS];
+        for (int i = 0; i < THREADS; i++) {
+            epics[i] = new Epic("Эпик " + i, "Описание");
+            taskManager.addEpic(epics[i]);
+        }
+
+        runInParallel(thread -> {
+            for (int i = 0; i < subtasksPerThread; i++) {
+                LocalDateTime start = BASE.plusHours((long) thread * subtasksPerThread + i);
+                Subtask subtask = new Subtask("Подзадача", "Описание", TaskStatus.values()[i % 3],
+                        Duration.ofMinutes(30), start, epics[thread].getId());
+                taskManager.addSubtask(subtask);
+                if (i % 5 == 0) {
+                    taskManager.deleteTaskById(subtask.getId());
+                }
+                taskManager.getAllSubtasks();
+            }
+        });
+
+        int expectedPerEpic = subtasksPerThread - subtasksPerThread / 5;
+        List<Subtask> subtasks = taskManager.getAllSubtasks();
+        assertEquals(THREADS * expectedPerEpic, subtasks.size());
+        assertEquals(subtasks.size(), taskManager.getPrioritizedTasks().size());
+
+        Set<Integer> ids = new HashSet<>();
+        for (Subtask subtask : subtasks) {
+            assertTrue(ids.add(subtask.getId()), "Идентификаторы не должны повторяться.");
+        }
+        for (Epic epic : epics) {
+            assertEquals(expectedPerEpic, epic.getSubtasksIds().size());
+            assertEquals(Duration.ofMinutes(30L * expectedPerEpic), epic.getDuration());
+            assertEquals(TaskStatus.IN_PROGRESS, epic.getStatus());
+        }
+    }
+
+    //Проверяем, что из параллельных попыток занять одно и то же время успешна ровно одна
+    @Test
+    public void shouldAcceptOnlyOneOfConflictingParallelTasks() throws Exception {
+        AtomicInteger conflicts = new AtomicInteger();
+
+        runInParallel(thread -> {
+            try {
+                taskManager.addTask(new Task("Задача " + thread, "Описание", TaskStatus.NEW,
+                        Duration.ofHours(1), BASE.plusMinutes(thread)));
+            } catch (TimeConflictException e) {
+                conflicts.incrementAndGet();
+            }
+        });
+
+        assertEquals(1, taskManager.getAllTasks().size());
+        assertEquals(THREADS - 1, conflicts.get());
+    }
+
+    //Проверяем, что addTask посреди removeAllTasks не оставляет в индексах записей без задачи.
+    //addTask не берёт полос, поэтому его можно выполнить в другом потоке прямо из обхода removeAllTasks:
+    //обход читает id уже существующей задачи, и в этот момент добавляется новая.
+    @Test
+    public void shouldNotLeaveIndexEntriesWhenAddingDuringRemoveAll() throws Exception {
+        AtomicBoolean armed = new AtomicBoolean();
+        Task existing = new Task("Задача", "Описание", TaskStatus.NEW, Duration.ofMinutes(30), BASE) {
+            @Override
+            public int getId() {
+                if (armed.compareAndSet(true, false)) {
+                    Thread adder = new Thread(() -> taskManager.addTask(new Task("Новая", "Описание",
+                            TaskStatus.NEW, Duration.ofMinutes(30), BASE.plusHours(1))));
+                    adder.start();
+                    try {
+                        adder.join();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return super.getId();
+            }
+        };
+        taskManager.addTask(existing);
+
+        armed.set(true);
+        taskManager.removeAllTasks();
+        assertFalse(armed.get(), "Задача должна добавиться во время обхода.");
+        taskManager.removeAllTasks();
+
+        assertTrue(taskManager.getAllTasks().isEmpty());
+        assertTrue(taskManager.getPrioritizedTasks().isEmpty(), "В приоритетном списке не должно быть задач.");
+        taskManager.addTask(new Task("Задача", "Описание", TaskStatus.NEW, Duration.ofMinutes(30),
+                BASE.plusHours(1)));
+        assertEquals(1, taskManager.getPrioritizedTasks().size(), "Интервал удалённой задачи должен освободиться.");
+    }
+
+    //Проверяем, что чтение среза не ждёт изменения, которое держит полосу эпика: возвращается прежний срез
+    @Test
+    public void shouldNotBlockSnapshotReadersOnWriters() throws Exception {
+        Epic epic = new Epic("Эпик", "Описание");
+        taskManager.addEpic(epic);
+        BoardSnapshot before = taskManager.getSnapshot();
+
+        CountDownLatch inside = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Subtask blocking = new Subtask("Подзадача", "Описание", TaskStatus.NEW, epic.getId()) {
+            @Override
+            public TaskStatus getStatus() {
+                if (getId() != 0 && inside.getCount() > 0) {
+                    inside.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return super.getStatus();
+            }
+        };
+        Thread writer = new Thread(() -> taskManager.addSubtask(blocking));
+        writer.start();
+        try {
+            assertTrue(inside.await(5, TimeUnit.SECONDS), "Изменение должно дойти до индекса статусов.");
+            ExecutorService reader = Executors.newSingleThreadExecutor();
+            try {
+                BoardSnapshot during = reader.submit(taskManager::getSnapshot).get(5, TimeUnit.SECONDS);
+                assertSame(before, during, "Пока изменение не завершено, отдаётся прежний срез.");
+            } finally {
+                reader.shutdownNow();
+            }
+        } finally {
+            release.countDown();
+            writer.join();
+        }
+        assertEquals(1, taskManager.getSnapshot().getSubtasks().size());
+    }
+
+    //Проверяем, что обновление подзадачи с чужим epicId держит полосу её настоящего эпика:
+    //удаление эпика ждёт окончания обновления и не оставляет подзадачу в хранилище
+    @Test
+    public void shouldLockStoredEpicStripeWhenUpdatingSubtaskWithForeignEpicId() throws Exception {
+        Epic owner = new Epic("Эпик", "Описание");
+        taskManager.addEpic(owner);
+        Epic foreign = new Epic("Чужой эпик", "Описание");
+        taskManager.addEpic(foreign);
+        Subtask subtask = new Subtask("Подзадача", "Описание", TaskStatus.NEW, owner.getId());
+        taskManager.addSubtask(subtask);
+
+        CountDownLatch inside = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Subtask update = new Subtask("Подзадача", "Описание", TaskStatus.DONE, foreign.getId()) {
+            @Override
+            public TaskStatus getStatus() {
+                if (inside.getCount() > 0 && Thread.currentThread().getName().equals("updater")) {
+                    inside.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return super.getStatus();
+            }
+        };
+        update.setId(subtask.getId());
+
+        Thread updater = new Thread(() -> taskManager.updateSubtask(update), "updater");
+        Thread deleter = new Thread(() -> taskManager.deleteTaskById(owner.getId()));
+        updater.start();
+        try {
+            assertTrue(inside.await(5, TimeUnit.SECONDS), "Обновление должно дойти до индекса статусов.");
+            deleter.start();
+            deleter.join(200);
+            assertTrue(deleter.isAlive(), "Удаление эпика должно ждать полосу, которую держит обновление.");
+        } finally {
+            release.countDown();
+            updater.join();
+            deleter.join();
+        }
+
+        assertNull(taskManager.getSubtaskById(subtask.getId()));
+        assertTrue(taskManager.getAllSubtasks().isEmpty());
+        assertTrue(taskManager.getPrioritizedTasks().isEmpty());
+    }
+
+    //Проверяем, что срезы, собранные во время параллельных изменений, согласованы: подзадачи эпиков на месте,
+    //приоритетный список совпадает с подзадачами, версия не убывает
+    @Test
+    public void shouldPublishConsistentSnapshotsUnderParallelWrites() throws Exception {
+        int epicsPerWriter = 200;
+        AtomicInteger snapshots = new AtomicInteger();
+
+        runInParallel(thread -> {
+            if (thread % 2 == 0) {
+                for (int i = 0; i < epicsPerWriter; i++) {
+                    Epic epic = new Epic("Эпик", "Описание");
+                    taskManager.addEpic(epic);
+                    for (int j = 0; j < 3; j++) {
+                        LocalDateTime start = BASE.plusHours(((long) thread * epicsPerWriter + i) * 3 + j);
+                        taskManager.addSubtask(new Subtask("Подзадача", "Описание", TaskStatus.NEW,
+                                Duration.ofMinutes(30), start, epic.getId()));
+                    }
+                    if (i % 4 == 0) {
+                        taskManager.deleteTaskById(epic.getId());
+                    }
+                }
+                return;
+            }
+            long version = -1;
+            for (int i = 0; i < 300; i++) {
+                BoardSnapshot snapshot = taskManager.getSnapshot();
+                assertTrue(snapshot.getVersion() >= version, "Версия среза не должна убывать.");
+                version = snapshot.getVersion();
+
+                Set<Integer> subtaskIds = new HashSet<>();
+                for (Subtask subtask : snapshot.getSubtasks()) {
+                    subtaskIds.add(subtask.getId());
+                }
+                Set<Integer> linked = new HashSet<>();
+                for (Epic epic : snapshot.getEpics()) {
+                    assertTrue(subtaskIds.containsAll(epic.getSubtasksIds()), "Подзадачи эпика должны быть в срезе.");
+                    linked.addAll(epic.getSubtasksIds());
+                }
+                assertEquals(subtaskIds, linked, "У каждой подзадачи среза должен быть эпик.");
+                assertEquals(subtaskIds.size(), snapshot.getPrioritized().size());
+                snapshots.incrementAndGet();
+            }
+        });
+
+        assertEquals(THREADS / 2 * 300, snapshots.get());
+        BoardSnapshot last = taskManager.getSnapshot();
+        assertEquals(taskManager.getAllSubtasks().size(), last.getSubtasks().size());
+        assertEquals(THREADS / 2 * (epicsPerWriter - epicsPerWriter / 4), last.getEpics().size());
+    }
+
+    private void runInParallel(ThreadBody body) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            Future<?>[] futures = new Future<?>[THREADS];
+            for (int i = 0; i < THREADS; i++) {
+                int thread = i;
+                futures[i] = executor.submit(() -> {
+                    start.await();
+                    body.run(thread);
+                    return null;
+                });
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private interface ThreadBody {
+        void run(int thread);
+    }
+}
@@ -1,7 +1,15 @@
 package controllers;
 
+import main.controllers.BatchOperation;
+import main.controllers.BinarySnapshotCodec;
 import main.controllers.FileBackedTaskManager;
+import main.controllers.FsyncPolicy;
+import main.controllers.PersistenceMode;
+import main.controllers.PersistenceSettings;
+import main.controllers.SnapshotFormat;
 import main.exceptions.ManagerSaveException;
+import main.exceptions.TimeConflictException;
+import main.metrics.MetricsRegistry;
 import main.model.Epic;
 import main.model.Subtask;
 import main.model.Task;
@@ -9,8 +17,11 @@ import main.model.TaskStatus;
 import org.junit.jupiter.api.*;
 import java.io.*;
 import java.io.IOException;
+import java.nio.file.Files;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -35,6 +46,8 @@ public class FileBackedTaskManagerTest  extends TaskManagerTest<FileBackedTaskMa
         if (tempFile.exists()) {
             tempFile.delete();
         }
+        taskManager.getJournalFile().delete();
+        taskManager.getCompactingJournalFile().delete();
     }
 
     private FileBackedTaskManager loadManagerFromFile() throws ManagerSaveException {
@@ -196,6 +209,203 @@ public class FileBackedTaskManagerTest  extends TaskManagerTest<FileBackedTaskMa
         }
     }
 
+    // Проверяем, что запятые и переводы строк в описании не портят снимок и журнал
+    @Test
+    public void shouldPreserveCommasAndLineBreaksInSnapshotAndJournal() {
+        Task task = new Task("Задача, важная", "Первая строка,\nвторая \"строка\"", TaskStatus.NEW);
+        taskManager.addTask(task);
+        assertEquals(task.getDescription(), loadManagerFromFile().getTaskById(task.getId()).getDescription());
+
+        PersistenceSettings settings = new PersistenceSettings(PersistenceMode.JOURNAL);
+        FileBackedTaskManager journalManager = FileBackedTaskManager.loadFromFile(tempFile, settings);
+        Task journaled = new Task("Ещё, одна", "a,b,c", TaskStatus.DONE);
+        journalManager.addTask(journaled);
+
+        FileBackedTaskManager loadedManager = FileBackedTaskManager.loadFromFile(tempFile, settings);
+        assertEquals(task.getTaskName(), loadedManager.getTaskById(task.getId()).getTaskName());
+        assertEquals(journaled.getTaskName(), loadedManager.getTaskById(journaled.getId()).getTaskName());
+        assertEquals(journaled.getDescription(), loadedManager.getTaskById(journaled.getId()).getDescription());
+    }
+
+    // Проверяем, что двоичный снимок загружается, а CSV остаётся доступен выгрузкой и читается после смены формата
+    @Test
+    public void shouldSaveBinarySnapshotAndExportCsv() throws IOException {
+        taskManager.addTask(new Task("Задача 1", "Описание задачи 1", TaskStatus.NEW, Duration.ofHours(1),
+                LocalDateTime.of(2025, 2, 16, 10, 0)));
+        Epic epic = new Epic("Эпик 1", "Описание эпика 1");
+        taskManager.addEpic(epic);
+        taskManager.addSubtask(new Subtask("Подзадача 1", "Описание", TaskStatus.DONE, Duration.ofHours(1),
+                LocalDateTime.of(2025, 2, 16, 12, 0), epic.getId()));
+
+        PersistenceSettings settings = new PersistenceSettings();
+        settings.setFormat(SnapshotFormat.BINARY);
+        FileBackedTaskManager binaryManager = FileBackedTaskManager.loadFromFile(tempFile, settings);
+        binaryManager.addTask(new Task("Задача 2", "Описание задачи 2", TaskStatus.NEW));
+        try (InputStream in = new BufferedInputStream(new FileInputStream(tempFile))) {
+            assertTrue(BinarySnapshotCodec.isBinary(in), "Снимок должен быть двоичным.");
+        }
+
+        FileBackedTaskManager loadedManager = loadManagerFromFile();
+        assertEquals(2, loadedManager.getAllTasks().size());
+        assertEquals(TaskStatus.DONE, loadedManager.getEpicById(epic.getId()).getStatus());
+        assertEquals(epic.getId(), loadedManager.getAllSubtasks().get(0).getEpicId());
+
+        File export = File.createTempFile("task_manager_export", ".csv");
+        export.deleteOnExit();
+        loadedManager.exportCsv(export);
+        assertTrue(Files.readString(export.toPath()).contains("Подзадача 1"));
+        assertEquals(3, FileBackedTaskManager.loadFromFile(export).getAllTasks().size()
+                + FileBackedTaskManager.loadFromFile(export).getAllSubtasks().size());
+        export.delete();
+    }
+
+    // Проверяем, что отображение в память выключено по умолчанию, а включённое читает снимки обоих форматов
+    // и пустой файл
+    @Test
+    public void shouldLoadSnapshotsOfEveryFormatWithMemoryMapping() {
+        assertFalse(new PersistenceSettings().isMemoryMapped());
+        PersistenceSettings mapped = new PersistenceSettings();
+        mapped.setMemoryMapped(true);
+        assertTrue(FileBackedTaskManager.loadFromFile(tempFile, mapped).getAllTasks().isEmpty());
+
+        for (SnapshotFormat format : SnapshotFormat.values()) {
+            PersistenceSettings settings = new PersistenceSettings();
+            settings.setFormat(format);
+            tempFile.delete();
+            FileBackedTaskManager manager = new FileBackedTaskManager(tempFile, settings);
+            manager.addTask(new Task("Задача 1", "Описание задачи 1", TaskStatus.NEW));
+
+            assertEquals(manager.getAllTasks(), FileBackedTaskManager.loadFromFile(tempFile, mapped).getAllTasks(),
+                    "Формат " + format);
+        }
+    }
+
+    // Проверяем, что в асинхронном режиме снимок пишется не в вызывающем потоке, а flush() дожидается записи
+    @Test
+    public void shouldDeferSnapshotUntilFlushInAsyncMode() {
+        PersistenceSettings settings = new PersistenceSettings();
+        settings.setAsync(true);
+        settings.setFlushIntervalMillis(60_000);
+        try (FileBackedTaskManager asyncManager = new FileBackedTaskManager(tempFile, settings)) {
+            asyncManager.addTask(new Task("Задача 1", "Описание задачи 1", TaskStatus.NEW));
+            asyncManager.addTask(new Task("Задача 2", "Описание задачи 2", TaskStatus.NEW));
+            assertEquals(0, tempFile.length(), "Снимок не должен писаться в вызывающем потоке.");
+
+            asyncManager.flush();
+            assertEquals(2, loadManagerFromFile().getAllTasks().size());
+        }
+    }
+
+    // Проверяем, что после flushOperations изменений запись запускается, не дожидаясь интервала
+    @Test
+    public void shouldWriteJournalAfterOperationLimitInAsyncMode() throws InterruptedException {
+        PersistenceSettings settings = new PersistenceSettings(PersistenceMode.JOURNAL);
+        settings.setAsync(true);
+        settings.setFlushIntervalMillis(60_000);
+        settings.setFlushOperations(3);
+        try (FileBackedTaskManager asyncManager = new FileBackedTaskManager(tempFile, settings)) {
+            Task task = new Task("Задача 1", "Описание задачи 1", TaskStatus.NEW);
+            asyncManager.addTask(task);
+            task.setStatus(TaskStatus.DONE);
+            asyncManager.updateTask(task);
+            asyncManager.addEpic(new Epic("Эпик 1", "Описание эпика 1"));
+
+            PersistenceSettings loadSettings = new PersistenceSettings(PersistenceMode.JOURNAL);
+            FileBackedTaskManager loadedManager = FileBackedTaskManager.loadFromFile(tempFile, loadSettings);
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (loadedManager.getAllEpics().isEmpty() && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+                loadedManager = FileBackedTaskManager.loadFromFile(tempFile, loadSettings);
+            }
+            assertEquals(TaskStatus.DONE, loadedManager.getTaskById(task.getId()).getStatus());
+            assertEquals(1, loadedManager.getAllEpics().size());
+        }
+    }
+
+    // Проверяем, что сбой посреди записи снимка оставляет на диске прежний снимок и не оставляет временных файлов
+    @Test
+    public void shouldKeepPreviousSnapshotWhenWriteIsInterrupted() throws IOException {
+        taskManager.addTask(new Task("Задача 1", "Описание задачи 1", TaskStatus.NEW));
+        taskManager.addTask(new Task("Задача 2", "Описание задачи 2", TaskStatus.NEW));
+        byte[] contentBefore = Files.readAllBytes(tempFile.toPath());
+
+        assertThrows(IllegalStateException.class,
+                () -> taskManager.addTask(new FailingTask("Задача 3", "Описание задачи 3")));
+
+        assertArrayEquals(contentBefore, Files.readAllBytes(tempFile.toPath()),
+                "Прерванная запись не должна затрагивать прежний снимок.");
+        assertFalse(new File(tempFile.getPath() + ".tmp").exists(), "Временный файл должен удаляться.");
+        assertEquals(2, loadManagerFromFile().getAllTasks().size());
+    }
+
+    // Проверяем то же для двоичного снимка при каждой политике fsync
+    @Test
+    public void shouldKeepPreviousBinarySnapshotUnderEveryFsyncPolicy() throws IOException {
+        for (FsyncPolicy policy : FsyncPolicy.values()) {
+            PersistenceSettings settings = new PersistenceSettings();
+            settings.setFormat(SnapshotFormat.BINARY);
+            settings.setFsyncPolicy(policy);
+            FileBackedTaskManager manager = new FileBackedTaskManager(tempFile, settings);
+            manager.addTask(new Task("Задача 1", "Описание задачи 1", TaskStatus.NEW));
+            byte[] contentBefore = Files.readAllBytes(tempFile.toPath());
+
+            assertThrows(IllegalStateException.class,
+                    () -> manager.addTask(new FailingTask("Задача 2", "Описание задачи 2")));
+
+            assertArrayEquals(contentBefore, Files.readAllBytes(tempFile.toPath()), "Политика " + policy);
+            assertEquals(1, loadManagerFromFile().getAllTasks().size(), "Политика " + policy);
+        }
+    }
+
+    // Проверяем, что пакет сохраняется одной записью, а откаченный пакет не меняет файлы
+    @Test
+    public void shouldPersistBatchOnce() throws IOException {
+        LocalDateTime base = LocalDateTime.of(2025, 3, 1, 9, 0);
+        for (PersistenceMode mode : PersistenceMode.values()) {
+            tempFile.delete();
+            taskManager.getJournalFile().delete();
+            FileBackedTaskManager manager = new FileBackedTaskManager(tempFile, new PersistenceSettings(mode));
+            MetricsRegistry registry = new MetricsRegistry();
+            manager.bindTo(registry);
+            manager.addTask(new Task("Задача", "Описание", TaskStatus.NEW, Duration.ofMinutes(30), base));
+
+            List<BatchOperation> batch = new ArrayList<>();
+            batch.add(BatchOperation.add(new Epic("Эпик", "Описание")));
+            for (int i = 1; i <= 50; i++) {
+                batch.add(BatchOperation.addSubtask(new Subtask("Подзадача " + i, "Описание", TaskStatus.NEW,
+                        Duration.ofMinutes(30), base.plusHours(i), 0), 0));
+            }
+            manager.applyBatch(batch);
+
+            String file = mode == PersistenceMode.JOURNAL ? "journal" : "snapshot";
+            assertTrue(registry.scrape().contains("file_backed_write_seconds_count{file=\"" + file + "\"} 2\n"),
+                    "Режим " + mode + ": одна запись на задачу и одна на пакет.");
+            FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(tempFile, new PersistenceSettings(mode));
+            assertEquals(50, loaded.getAllSubtasks().size(), "Режим " + mode);
+
+            File written = mode == PersistenceMode.JOURNAL ? manager.getJournalFile() : tempFile;
+            byte[] contentBefore = Files.readAllBytes(written.toPath());
+            assertThrows(TimeConflictException.class, () -> manager.applyBatch(List.of(
+                    BatchOperation.delete(1),
+                    BatchOperation.add(new Task("Конфликт", "Описание", TaskStatus.NEW, Duration.ofMinutes(30),
+                            base.plusHours(1))))));
+            assertArrayEquals(contentBefore, Files.readAllBytes(written.toPath()), "Режим " + mode);
+            assertNotNull(manager.getTaskById(1), "Режим " + mode);
+        }
+    }
+
+    //Задача, запись которой обрывается исключением посреди строки снимка
+    private static class FailingTask extends Task {
+        FailingTask(String taskName, String description) {
+            super(taskName, description, TaskStatus.NEW);
+        }
+
+        @Override
+        public String getDescription() {
+            throw new IllegalStateException("Сбой записи");
+        }
+    }
+
     // Проверяем загрузку истории из файла
     @Test
     public void shouldLoadHistoryFromFile() throws ManagerSaveException {
@@ -210,4 +420,163 @@ public class FileBackedTaskManagerTest  extends TaskManagerTest<FileBackedTaskMa
         assertEquals(1, loadedManager.getHistory().size(), "История должна содержать 1 задачу.");
         assertEquals(task, loadedManager.getHistory().get(0), "Задача в истории должна совпадать с добавленной.");
     }
+
+    // Проверяем, что в режиме журнала изменения дописываются в журнал, а снимок не перезаписывается
+    @Test
+    public void shouldAppendChangesToJournalWithoutRewritingSnapshot() throws IOException {
+        FileBackedTaskManager journalManager = new FileBackedTaskManager(tempFile,
+                new PersistenceSettings(PersistenceMode.JOURNAL));
+
+        Task task = new Task("Задача 1", "Описание задачи 1", TaskStatus.NEW);
+        journalManager.addTask(task);
+        task.setStatus(TaskStatus.DONE);
+        journalManager.updateTask(task);
+        journalManager.deleteTaskById(task.getId());
+
+        assertEquals(0, tempFile.length(), "Снимок не должен перезаписываться в режиме журнала.");
+        List<String> records = Files.readAllLines(journalManager.getJournalFile().toPath());
+        assertEquals(3, records.size(), "На каждое изменение должна приходиться одна запись журнала.");
+    }
+
+    // Проверяем восстановление состояния из снимка и хвоста журнала с сохранением id
+    @Test
+    public void shouldRestoreStateFromSnapshotAndJournal() {
+        PersistenceSettings settings = new PersistenceSettings(PersistenceMode.JOURNAL);
+        FileBackedTaskManager journalManager = new FileBackedTaskManager(tempFile, settings);
+
+        Task task = new Task("Задача 1", "Описание задачи 1", TaskStatus.NEW, Duration.ofHours(1),
+                LocalDateTime.of(2025, 2, 16, 10, 0));
+        journalManager.addTask(task);
+        Epic epic = new Epic("Эпик 1", "Описание эпика 1");
+        journalManager.addEpic(epic);
+        journalManager.compact();
+
+        Subtask subtask = new Subtask("Подзадача 1", "Описание подзадачи", TaskStatus.DONE,
+                Duration.ofHours(1), LocalDateTime.of(2025, 2, 16, 12, 0), epic.getId());
+        journalManager.addSubtask(subtask);
+        Task removed = new Task("Задача 2", "Описание задачи 2", TaskStatus.NEW);
+        journalManager.addTask(removed);
+        journalManager.deleteTaskById(removed.getId());
+
+        FileBackedTaskManager loadedManager = FileBackedTaskManager.loadFromFile(tempFile, settings);
+
+        assertEquals(1, loadedManager.getAllTasks().size());
+        assertEquals(task.getStartTime(), loadedManager.getTaskById(task.getId()).getStartTime());
+        assertNull(loadedManager.getTaskById(removed.getId()), "Удалённая задача не должна восстанавливаться.");
+        Subtask loadedSubtask = loadedManager.getSubtaskById(subtask.getId());
+        assertNotNull(loadedSubtask);
+        assertEquals(epic.getId(), loadedSubtask.getEpicId());
+        assertEquals(TaskStatus.DONE, loadedManager.getEpicById(epic.getId()).getStatus(),
+                "Статус эпика должен пересчитываться после применения журнала.");
+    }
+
+    // Проверяем, что журнал сворачивается в снимок при достижении порога
+    @Test
+    public void shouldCompactJournalWhenThresholdReached() {
+        PersistenceSettings settings = new PersistenceSettings(PersistenceMode.JOURNAL);
+        settings.setCompactionThreshold(2);
+        FileBackedTaskManager journalManager = new FileBackedTaskManager(tempFile, settings);
+
+        journalManager.addTask(new Task("Задача 1", "Описание задачи 1", TaskStatus.NEW));
+        assertTrue(journalManager.getJournalFile().exists());
+        journalManager.addTask(new Task("Задача 2", "Описание задачи 2", TaskStatus.NEW));
+
+        assertFalse(journalManager.getJournalFile().exists(), "Журнал должен быть свёрнут в снимок.");
+        assertEquals(2, FileBackedTaskManager.loadFromFile(tempFile, settings).getAllTasks().size());
+    }
+
+    // Проверяем, что сбой посреди сворачивания не приводит к повторному применению журнала к новому снимку:
+    // PUT подзадачи удалённого дальше по журналу эпика не должен воскрешать подзадачу без эпика
+    @Test
+    public void shouldRecoverFromCrashDuringCompaction() throws IOException {
+        PersistenceSettings settings = new PersistenceSettings(PersistenceMode.JOURNAL);
+        File tempSnapshot = new File(tempFile.getPath() + ".tmp");
+        for (boolean swapped : new boolean[]{false, true}) {
+            tempFile.delete();
+            FileBackedTaskManager journalManager = new FileBackedTaskManager(tempFile, settings);
+            Task task = new Task("Задача", "Описание", TaskStatus.NEW);
+            journalManager.addTask(task);
+            Epic epic = new Epic("Эпик", "Описание");
+            journalManager.addEpic(epic);
+            journalManager.addSubtask(new Subtask("Подзадача", "Описание", TaskStatus.NEW, epic.getId()));
+            journalManager.deleteTaskById(epic.getId());
+            byte[] journal = Files.readAllBytes(journalManager.getJournalFile().toPath());
+            journalManager.compact();
+
+            // Состояние на диске после переименования журнала: до подмены снимка или сразу после неё
+            if (!swapped) {
+                Files.move(tempFile.toPath(), tempSnapshot.toPath());
+                Files.write(tempFile.toPath(), new byte[0]);
+            }
+            Files.write(journalManager.getCompactingJournalFile().toPath(), journal);
+
+            FileBackedTaskManager loadedManager = FileBackedTaskManager.loadFromFile(tempFile, settings);
+
+            assertEquals(List.of(task), loadedManager.getAllTasks());
+            assertTrue(loadedManager.getAllEpics().isEmpty());
+            assertTrue(loadedManager.getAllSubtasks().isEmpty(), "Подзадача удалённого эпика не должна вернуться.");
+            assertFalse(journalManager.getCompactingJournalFile().exists());
+            assertFalse(tempSnapshot.exists());
+            assertEquals(List.of(task), FileBackedTaskManager.loadFromFile(tempFile, settings).getAllTasks());
+        }
+    }
+
+    // Проверяем, что сворачивание по порогу в синхронном режиме не блокируется с параллельным compact()
+    @Test
+    public void shouldNotDeadlockThresholdCompactionWithExplicitCompact() throws InterruptedException {
+        PersistenceSettings settings = new PersistenceSettings(PersistenceMode.JOURNAL);
+        settings.setCompactionThreshold(2);
+        settings.setFsyncPolicy(FsyncPolicy.NEVER);
+        FileBackedTaskManager journalManager = new FileBackedTaskManager(tempFile, settings);
+
+        Thread writer = new Thread(() -> {
+            for (int i = 0; i < 300; i++) {
+                journalManager.addTask(new Task("Задача " + i, "Описание", TaskStatus.NEW));
+            }
+        });
+        Thread compactor = new Thread(() -> {
+            for (int i = 0; i < 300; i++) {
+                journalManager.compact();
+            }
+        });
+        writer.setDaemon(true);
+        compactor.setDaemon(true);
+        writer.start();
+        compactor.start();
+        writer.join(30_000);
+        compactor.join(30_000);
+
+        assertFalse(writer.isAlive() || compactor.isAlive(), "Потоки не должны взаимно блокироваться.");
+        assertEquals(300, FileBackedTaskManager.loadFromFile(tempFile, settings).getAllTasks().size());
+    }
+
+    // Проверяем, что при загрузке сохраняются id задач и файл не перезаписывается
+    @Test
+    public void shouldPreserveIdsAndNotWriteFileWhileLoading() throws IOException {
+        Task task1 = new Task("Задача 1", "Описание задачи 1", TaskStatus.NEW);
+        taskManager.addTask(task1);
+        Epic epic = new Epic("Эпик 1", "Описание эпика 1");
+        taskManager.addEpic(epic);
+        Task task2 = new Task("Задача 2", "Описание задачи 2", TaskStatus.NEW);
+        taskManager.addTask(task2);
+        Subtask subtask = new Subtask("Подзадача 1", "Описание подзадачи", TaskStatus.IN_PROGRESS, epic.getId());
+        taskManager.addSubtask(subtask);
+
+        byte[] contentBefore = Files.readAllBytes(tempFile.toPath());
+        long modifiedBefore = tempFile.lastModified();
+
+        FileBackedTaskManager loadedManager = loadManagerFromFile();
+
+        assertArrayEquals(contentBefore, Files.readAllBytes(tempFile.toPath()), "Файл не должен меняться при загрузке.");
+        assertEquals(modifiedBefore, tempFile.lastModified(), "Файл не должен перезаписываться при загрузке.");
+        assertEquals(task2.getTaskName(), loadedManager.getTaskById(task2.getId()).getTaskName());
+        assertEquals(epic.getId(), loadedManager.getSubtaskById(subtask.getId()).getEpicId());
+        Epic loadedEpic = loadedManager.getEpicById(epic.getId());
+        assertEquals(List.of(subtask.getId()), loadedEpic.getSubtasksIds());
+        assertEquals(TaskStatus.IN_PROGRESS, loadedEpic.getStatus(), "Статус эпика должен быть пересчитан.");
+
+        Task task3 = new Task("Задача 3", "Описание задачи 3", TaskStatus.NEW);
+        loadedManager.addTask(task3);
+        assertTrue(task3.getId() > subtask.getId(), "Новые id не должны совпадать с загруженными.");
+    }
 }
@@ -5,6 +5,8 @@ import main.model.Epic;
 import main.model.Subtask;
 import main.model.TaskStatus;
 
+import main.controllers.HistoryManager;
+import main.controllers.InMemoryHistoryManager;
 import main.controllers.Managers;
 import main.controllers.TaskManager;
 
@@ -165,4 +167,94 @@ class InMemoryHistoryManagerTest {
         assertEquals(task, history.get(0), "Задача в истории должна совпадать с добавленной.");
     }
 
+    //Проверяем, что при переполнении вытесняется самая давно просмотренная задача
+    @Test
+    public void shouldEvictOldestTaskWhenCapacityExceeded() {
+        HistoryManager history = Managers.getDefaultHistory(3);
+        Task[] tasks = new Task[5];
+        for (int i = 0; i < tasks.length; i++) {
+            tasks[i] = new Task("Задача " + i, "Описание", TaskStatus.NEW);
+            tasks[i].setId(i + 1);
+        }
+
+        history.add(tasks[0]);
+        history.add(tasks[1]);
+        history.add(tasks[2]);
+        history.add(tasks[0]);
+        history.add(tasks[3]);
+
+        assertEquals(List.of(tasks[2], tasks[0], tasks[3]), history.getHistory(),
+                "Должна вытесняться самая давняя задача, повторный просмотр её освежает.");
+
+        history.remove(tasks[1].getId());
+        history.add(tasks[4]);
+        assertEquals(List.of(tasks[0], tasks[3], tasks[4]), history.getHistory());
+    }
+
+    //Проверяем, что размер истории не растёт при миллионе просмотров разных задач
+    @Test
+    public void shouldKeepHistorySizeBoundedUnderManyViews() {
+        int capacity = 100;
+        HistoryManager history = Managers.getDefaultHistory(capacity);
+
+        for (int i = 1; i <= 1_000_000; i++) {
+            Task task = new Task("Задача", "Описание", TaskStatus.NEW);
+            task.setId(i);
+            history.add(task);
+        }
+
+        List<Task> tasks = history.getHistory();
+        assertEquals(capacity, tasks.size(), "История не должна превышать заданный размер.");
+        assertEquals(1_000_000 - capacity + 1, tasks.get(0).getId());
+        assertEquals(1_000_000, tasks.get(capacity - 1).getId());
+    }
+
+    //Проверяем, что размер истории должен быть положительным
+    @Test
+    public void shouldRejectNonPositiveCapacity() {
+        assertThrows(IllegalArgumentException.class, () -> new InMemoryHistoryManager(0));
+        assertEquals(InMemoryHistoryManager.DEFAULT_CAPACITY,
+                new InMemoryHistoryManager().getCapacity());
+    }
+
+    //Проверяем, что повторный просмотр переносит задачу в конец и хранит последний экземпляр
+    @Test
+    public void shouldMoveReviewedTaskToTail() {
+        HistoryManager history = Managers.getDefaultHistory();
+        Task task1 = new Task("Задача 1", "Описание", TaskStatus.NEW);
+        task1.setId(1);
+        Task task2 = new Task("Задача 2", "Описание", TaskStatus.NEW);
+        task2.setId(2);
+        history.add(task1);
+        history.add(task2);
+
+        Task task1Copy = new Task("Задача 1 (новая версия)", "Описание", TaskStatus.DONE);
+        task1Copy.setId(1);
+        history.add(task1Copy);
+
+        List<Task> tasks = history.getHistory();
+        assertEquals(List.of(task2, task1Copy), tasks);
+        assertSame(task1Copy, tasks.get(1), "В истории должен храниться последний просмотренный экземпляр.");
+    }
+
+    //Проверяем, что версия истории растёт при каждом изменении и не меняется без него
+    @Test
+    public void shouldBumpVersionOnChange() {
+        HistoryManager history = Managers.getDefaultHistory();
+        Task task = new Task("Задача", "Описание", TaskStatus.NEW);
+        task.setId(1);
+
+        long initial = history.getVersion();
+        history.add(task);
+        long added = history.getVersion();
+        assertTrue(added > initial);
+        history.add(task);
+        assertTrue(history.getVersion() > added, "Повторный просмотр тоже меняет историю.");
+
+        long viewed = history.getVersion();
+        history.remove(42);
+        assertEquals(viewed, history.getVersion(), "Удаление отсутствующей задачи ничего не меняет.");
+        history.remove(1);
+        assertTrue(history.getVersion() > viewed);
+    }
 }
@@ -1,7 +1,10 @@
 package controllers;
 
+import main.controllers.InMemoryHistoryManager;
 import main.controllers.InMemoryTaskManager;
 import main.exceptions.TimeConflictException;
+import main.model.Epic;
+import main.model.Subtask;
 import main.model.Task;
 import main.model.TaskStatus;
 
@@ -50,4 +53,36 @@ class InMemoryTaskManagerTest extends TaskManagerTest<InMemoryTaskManager> {
         assertThrows(TimeConflictException.class, () -> taskManager.updateTask(task2),
                 "Должно быть выброшено исключение при обновлении задачи с пересекающимся интервалом.");
     }
-}
\ No newline at end of file
+
+    //Проверяем, что пересчёт эпика не записывает его подзадачи в историю
+    @Test
+    public void shouldNotTouchHistoryWhenRecalculatingEpic() {
+        CountingHistoryManager history = new CountingHistoryManager();
+        InMemoryTaskManager manager = new InMemoryTaskManager(history);
+
+        Epic epic = new Epic("Эпик 1", "Описание эпика 1");
+        manager.addEpic(epic);
+        Subtask subtask = new Subtask("Подзадача 1", "Описание 1", TaskStatus.NEW, epic.getId());
+        manager.addSubtask(subtask);
+        manager.addSubtask(new Subtask("Подзадача 2", "Описание 2", TaskStatus.NEW, epic.getId()));
+
+        history.added = 0;
+        manager.updateEpic(epic);
+        assertEquals(1, history.added, "В историю должен попасть только сам эпик.");
+
+        subtask.setStatus(TaskStatus.DONE);
+        manager.updateSubtask(subtask);
+        assertEquals(2, history.added, "В историю должна попасть только обновлённая подзадача.");
+        assertEquals(TaskStatus.IN_PROGRESS, epic.getStatus());
+    }
+
+    private static class CountingHistoryManager extends InMemoryHistoryManager {
+        int added;
+
+        @Override
+        public void add(Task task) {
+            added++;
+            super.add(task);
+        }
+    }
+}
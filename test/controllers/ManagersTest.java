@@ -1,5 +1,6 @@
 package controllers;
 
+import main.controllers.ConcurrentTaskManager;
 import main.controllers.InMemoryTaskManager;
 import main.controllers.Managers;
 import main.controllers.InMemoryHistoryManager;
@@ -33,4 +34,14 @@ class ManagersTest {
         assertInstanceOf(InMemoryHistoryManager.class, historyManager, "Менеджер истории должен быть экземпляром InMemoryHistoryManager.");
     }
 
-}
\ No newline at end of file
+    // Проверяем, что Managers возвращает потокобезопасный менеджер задач
+    @Test
+    public void shouldGetInitializedConcurrentTaskManager() {
+        TaskManager manager = Managers.getConcurrent();
+
+        assertNotNull(manager, "Менеджер задач должен быть проинициализирован.");
+        assertInstanceOf(ConcurrentTaskManager.class, manager,
+                "Менеджер задач должен быть экземпляром ConcurrentTaskManager.");
+    }
+
+}
@@ -0,0 +1,118 @@
+package controllers;
+
+import main.controllers.PrioritizedIndex;
+import main.model.Task;
+import main.model.TaskStatus;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+class PrioritizedIndexTest {
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 2, 18, 10, 0);
+
+    private PrioritizedIndex index;
+
+    @BeforeEach
+    public void setUp() {
+        index = new PrioritizedIndex();
+    }
+
+    //Проверяем, что задачи с одинаковым временем начала не вытесняют друг друга
+    @Test
+    public void shouldKeepTasksWithEqualStartTime() {
+        Task first = createTask(2, BASE);
+        Task second = createTask(1, BASE);
+        index.add(first);
+        index.add(second);
+        index.add(createTask(3, null));
+
+        assertEquals(List.of(second, first), index.getAll(), "При равном начале задачи упорядочиваются по id.");
+        assertEquals(2, index.size(), "Задачи без времени начала не индексируются.");
+    }
+
+    //Проверяем, что идущий интервал находится, даже если по ключу он стоит перед задачами нулевой длительности
+    //с тем же началом
+    @Test
+    public void shouldFindRunningIntervalBehindInstantsWithSameStart() {
+        Task interval = createTask(1, BASE);
+        interval.setDuration(Duration.ofHours(2));
+        Task instant = createTask(2, BASE);
+        instant.setDuration(Duration.ZERO);
+        Task other = createTask(3, BASE);
+        other.setDuration(Duration.ZERO);
+        index.add(interval);
+        index.add(instant);
+        index.add(other);
+
+        assertEquals(List.of(interval), index.getWindow(BASE.plusHours(1), BASE.plusMinutes(90)));
+        assertTrue(index.getWindow(BASE.plusHours(2), BASE.plusHours(3)).isEmpty());
+    }
+
+    //Проверяем переиндексацию задачи, изменённой снаружи после добавления
+    @Test
+    public void shouldReindexTaskChangedOutside() {
+        Task task = createTask(1, BASE);
+        Task other = createTask(2, BASE.plusHours(1));
+        index.add(task);
+        index.add(other);
+
+        task.setStartTime(BASE.plusHours(2));
+        index.add(task);
+        assertEquals(List.of(other, task), index.getAll());
+
+        task.setStartTime(null);
+        index.remove(task.getId());
+        assertEquals(List.of(other), index.getAll());
+    }
+
+    //Свойство: после случайных добавлений, переносов и удалений порядок совпадает с эталоном
+    @Test
+    public void shouldMatchReferenceOrderUnderRandomOperations() {
+        assertMatchesReferenceOrder(index);
+        assertMatchesReferenceOrder(PrioritizedIndex.concurrent());
+    }
+
+    private static void assertMatchesReferenceOrder(PrioritizedIndex index) {
+        Random random = new Random(42);
+        Map<Integer, Task> model = new HashMap<>();
+
+        for (int step = 0; step < 5000; step++) {
+            int id = 1 + random.nextInt(200);
+            if (random.nextInt(4) == 0) {
+                index.remove(id);
+                model.remove(id);
+            } else {
+                Task task = model.containsKey(id) ? model.get(id) : createTask(id, null);
+                task.setStartTime(random.nextInt(6) == 0 ? null : BASE.plusMinutes(15L * random.nextInt(50)));
+                index.add(task);
+                model.put(id, task);
+            }
+
+            List<Task> expected = new ArrayList<>();
+            for (Task task : model.values()) {
+                if (task.getStartTime() != null) {
+                    expected.add(task);
+                }
+            }
+            expected.sort(Comparator.comparing(Task::getStartTime).thenComparingInt(Task::getId));
+            assertEquals(expected, index.getAll(), "step=" + step);
+        }
+    }
+
+    private static Task createTask(int id, LocalDateTime startTime) {
+        Task task = new Task("Задача " + id, "Описание", TaskStatus.NEW);
+        task.setId(id);
+        task.setStartTime(startTime);
+        return task;
+    }
+}
@@ -0,0 +1,66 @@
+package controllers;
+
+import main.controllers.TaskCsvCodec;
+import main.model.Epic;
+import main.model.Subtask;
+import main.model.Task;
+import main.model.TaskStatus;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskCsvCodecTest {
+
+    //Проверяем, что запятые, кавычки и переводы строк в полях переживают запись и чтение
+    @Test
+    void shouldRoundTripFieldsWithSeparatorsAndQuotes() throws IOException {
+        Task task = new Task("Купить \"молоко\", хлеб", "Строка 1,\nстрока 2", TaskStatus.IN_PROGRESS,
+                Duration.ofMinutes(45), LocalDateTime.of(2025, 3, 1, 9, 30));
+        task.setId(7);
+
+        StringWriter out = new StringWriter();
+        TaskCsvCodec.write(out, task);
+        BufferedReader reader = new BufferedReader(new StringReader(out.toString()));
+        Task decoded = TaskCsvCodec.decode(TaskCsvCodec.readRecord(reader));
+
+        assertEquals(task.getId(), decoded.getId());
+        assertEquals(task.getTaskName(), decoded.getTaskName());
+        assertEquals(task.getDescription(), decoded.getDescription());
+        assertEquals(task.getStatus(), decoded.getStatus());
+        assertEquals(task.getDuration(), decoded.getDuration());
+        assertEquals(task.getStartTime(), decoded.getStartTime());
+        assertNull(TaskCsvCodec.readRecord(reader), "Запись должна читаться целиком, без остатка.");
+    }
+
+    //Проверяем, что поля без спецсимволов пишутся без кавычек, как в старом формате
+    @Test
+    void shouldWriteLegacyLayoutWhenNoQuotingNeeded() throws IOException {
+        Epic epic = new Epic("Эпик", "Описание");
+        epic.setId(3);
+        Subtask subtask = new Subtask("Подзадача", "Описание", TaskStatus.NEW, Duration.ofMinutes(30),
+                LocalDateTime.of(2025, 2, 16, 10, 0), epic.getId());
+        subtask.setId(4);
+
+        StringWriter out = new StringWriter();
+        TaskCsvCodec.write(out, subtask);
+
+        assertEquals("4,SUBTASK,Подзадача,NEW,Описание,30,2025-02-16 10:00,2025-02-16 10:30,3\n", out.toString());
+    }
+
+    //Проверяем разбор полей: пустые поля, удвоенные кавычки и поле в кавычках в конце строки
+    @Test
+    void shouldSplitQuotedAndEmptyFields() {
+        assertEquals(List.of("1", "", "a,b", "say \"hi\""), TaskCsvCodec.split("1,,\"a,b\",\"say \"\"hi\"\"\""));
+        assertEquals(List.of("", ""), TaskCsvCodec.split(","));
+        assertThrows(IllegalArgumentException.class, () -> TaskCsvCodec.split("1,\"open"));
+        assertThrows(IllegalArgumentException.class, () -> TaskCsvCodec.split("\"a\"b,c"));
+    }
+}
@@ -1,16 +1,29 @@
 package controllers;
 
+import main.controllers.BatchOperation;
+import main.controllers.BoardSnapshot;
 import main.controllers.TaskManager;
+import main.controllers.TaskQuery;
+import main.exceptions.TimeConflictException;
 
 import main.model.Task;
 import main.model.Epic;
 import main.model.Subtask;
 import main.model.TaskStatus;
+import main.model.TaskType;
 
 import static org.junit.jupiter.api.Assertions.*;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
 
 abstract class TaskManagerTest<T extends TaskManager> {
     protected T taskManager;
@@ -97,4 +110,410 @@ abstract class TaskManagerTest<T extends TaskManager> {
         assertNotNull(taskManager.getEpicById(epic.getId()), "Эпик 1 должен быть найден.");
         assertNotNull(taskManager.getSubtaskById(subtask.getId()), "Подзадача 1 должна быть найдена.");
     }
+
+    //Проверяем постраничное получение задач по курсору из последнего id
+    @Test
+    public void shouldReturnTasksPageAfterCursor() {
+        for (int i = 0; i < 5; i++) {
+            taskManager.addTask(new Task("Задача " + i, "Описание", TaskStatus.NEW));
+        }
+        Epic epic = new Epic("Эпик", "Описание эпика");
+        taskManager.addEpic(epic);
+        taskManager.addSubtask(new Subtask("Подзадача", "Описание", TaskStatus.NEW, epic.getId()));
+
+        List<Task> first = taskManager.getTasksPage(0, 2);
+        assertEquals(List.of(1, 2), first.stream().map(Task::getId).toList());
+        List<Task> second = taskManager.getTasksPage(first.get(1).getId(), 2);
+        assertEquals(List.of(3, 4), second.stream().map(Task::getId).toList());
+        List<Task> last = taskManager.getTasksPage(second.get(1).getId(), 2);
+        assertEquals(List.of(5), last.stream().map(Task::getId).toList());
+        assertTrue(taskManager.getTasksPage(5, 2).isEmpty(), "После последней задачи страница пуста.");
+
+        assertEquals(List.of(epic), taskManager.getEpicsPage(0, 10));
+        assertEquals(1, taskManager.getSubtasksPage(0, 10).size());
+        assertTrue(taskManager.getSubtasksPage(epic.getId() + 1, 10).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> taskManager.getTasksPage(0, 0));
+    }
+
+    //Проверяем выборку по статусу, типу, эпику и времени и актуальность индексов после изменений
+    @Test
+    public void shouldFindTasksByQueryAndKeepIndexesCurrent() {
+        LocalDateTime base = LocalDateTime.of(2025, 1, 1, 9, 0);
+        Task task = new Task("Задача", "Описание", TaskStatus.IN_PROGRESS, Duration.ofMinutes(30), base);
+        taskManager.addTask(task);
+        Epic epic = new Epic("Эпик", "Описание эпика");
+        taskManager.addEpic(epic);
+        Subtask first = new Subtask("Подзадача 1", "Описание", TaskStatus.NEW, Duration.ofMinutes(30),
+                base.plusHours(1), epic.getId());
+        Subtask second = new Subtask("Подзадача 2", "Описание", TaskStatus.IN_PROGRESS, Duration.ofMinutes(30),
+                base.plusHours(2), epic.getId());
+        taskManager.addSubtask(first);
+        taskManager.addSubtask(second);
+
+        TaskQuery inProgress = new TaskQuery();
+        inProgress.setStatus(TaskStatus.IN_PROGRESS);
+        assertEquals(List.of(task, epic, second), taskManager.findTasks(inProgress));
+
+        TaskQuery inProgressSubtasks = new TaskQuery();
+        inProgressSubtasks.setStatus(TaskStatus.IN_PROGRESS);
+        inProgressSubtasks.setType(TaskType.SUBTASK);
+        assertEquals(List.of(second), taskManager.findTasks(inProgressSubtasks));
+
+        TaskQuery ofEpic = new TaskQuery();
+        ofEpic.setEpicId(epic.getId());
+        assertEquals(List.of(first, second), taskManager.findTasks(ofEpic));
+
+        TaskQuery window = new TaskQuery();
+        window.setFrom(base.plusMinutes(30));
+        window.setTo(base.plusHours(2));
+        assertEquals(List.of(epic, first), taskManager.findTasks(window),
+                "В диапазон входят задачи с началом в [from, to), включая эпик.");
+
+        //После изменения и удаления индексы должны обновиться
+        second.setStatus(TaskStatus.DONE);
+        taskManager.updateSubtask(second);
+        taskManager.deleteTaskById(task.getId());
+        assertEquals(List.of(epic), taskManager.findTasks(inProgress));
+
+        first.setStatus(TaskStatus.DONE);
+        taskManager.updateSubtask(first);
+        TaskQuery done = new TaskQuery();
+        done.setStatus(TaskStatus.DONE);
+        assertTrue(taskManager.findTasks(inProgress).isEmpty());
+        assertEquals(List.of(epic, first, second), taskManager.findTasks(done));
+    }
+
+    //Проверяем окно приоритетного списка: задачи, пересекающиеся с [from, to), включая начавшуюся раньше from
+    @Test
+    public void shouldReturnPrioritizedTasksInWindow() {
+        LocalDateTime base = LocalDateTime.of(2025, 1, 1, 9, 0);
+        Task early = new Task("Ранняя", "Описание", TaskStatus.NEW, Duration.ofMinutes(30), base);
+        Task straddling = new Task("Через границу", "Описание", TaskStatus.NEW, Duration.ofMinutes(60),
+                base.plusHours(1));
+        Task inside = new Task("Внутри", "Описание", TaskStatus.NEW, Duration.ofMinutes(30), base.plusHours(3));
+        Task atEnd = new Task("На границе окна", "Описание", TaskStatus.NEW, Duration.ofMinutes(30),
+                base.plusHours(4));
+        Task noTime = new Task("Без времени", "Описание", TaskStatus.NEW);
+        for (Task task : List.of(inside, early, atEnd, straddling, noTime)) {
+            taskManager.addTask(task);
+        }
+
+        LocalDateTime from = base.plusHours(1).plusMinutes(30);
+        LocalDateTime to = base.plusHours(4);
+        assertEquals(List.of(straddling, inside), taskManager.getPrioritizedTasks(from, to));
+        assertEquals(List.of(early, straddling, inside), taskManager.getPrioritizedTasks(null, to));
+        assertEquals(List.of(inside, atEnd), taskManager.getPrioritizedTasks(base.plusHours(2), null));
+        assertEquals(taskManager.getPrioritizedTasks(), taskManager.getPrioritizedTasks(null, null));
+        assertTrue(taskManager.getPrioritizedTasks(to, from).isEmpty());
+    }
+
+    //Свойство: после любой случайной последовательности добавлений, обновлений и удалений приоритетный
+    //список совпадает с задачами и подзадачами, имеющими время начала, упорядоченными по (начало, id)
+    //Проверяем, что длинная задача попадает в окно, даже если с тем же началом добавлена задача нулевой длительности
+    @Test
+    public void shouldReturnLongTaskSharingStartWithInstantInWindow() {
+        LocalDateTime base = LocalDateTime.of(2025, 1, 1, 10, 0);
+        Task interval = new Task("Два часа", "Описание", TaskStatus.NEW, Duration.ofHours(2), base);
+        Task instant = new Task("Момент", "Описание", TaskStatus.NEW, Duration.ZERO, base);
+        taskManager.addTask(interval);
+        taskManager.addTask(instant);
+
+        assertEquals(List.of(interval), taskManager.getPrioritizedTasks(base.plusHours(1), base.plusMinutes(90)));
+        assertEquals(List.of(interval, instant), taskManager.getPrioritizedTasks(base, base.plusHours(1)));
+    }
+
+    @Test
+    public void shouldKeepPrioritizedTasksConsistentUnderRandomOperations() {
+        LocalDateTime base = LocalDateTime.of(2025, 1, 1, 0, 0);
+        for (long seed = 1; seed <= 20; seed++) {
+            setUp();
+            Random random = new Random(seed);
+            Map<Integer, Task> model = new HashMap<>();
+            Epic epic = new Epic("Эпик", "Описание");
+            taskManager.addEpic(epic);
+
+            for (int step = 0; step < 300; step++) {
+                int operation = random.nextInt(10);
+                List<Integer> ids = new ArrayList<>(model.keySet());
+                try {
+                    if (operation < 4 || ids.isEmpty()) {
+                        Task task = random.nextBoolean()
+                                ? new Task("Задача", "Описание", TaskStatus.NEW)
+                                : new Subtask("Подзадача", "Описание", TaskStatus.NEW, epic.getId());
+                        randomizeTime(task, base, random);
+                        if (task instanceof Subtask) {
+                            taskManager.addSubtask((Subtask) task);
+                        } else {
+                            taskManager.addTask(task);
+                        }
+                        model.put(task.getId(), task);
+                    } else if (operation < 8) {
+                        Task task = model.get(ids.get(random.nextInt(ids.size())));
+                        LocalDateTime oldStart = task.getStartTime();
+                        Duration oldDuration = task.getDuration();
+                        randomizeTime(task, base, random);
+                        try {
+                            if (task instanceof Subtask) {
+                                taskManager.updateSubtask((Subtask) task);
+                            } else {
+                                taskManager.updateTask(task);
+                            }
+                        } catch (TimeConflictException e) {
+                            task.setStartTime(oldStart);
+                            task.setDuration(oldDuration);
+                            throw e;
+                        }
+                    } else {
+                        int id = ids.get(random.nextInt(ids.size()));
+                        taskManager.deleteTaskById(id);
+                        model.remove(id);
+                    }
+                } catch (TimeConflictException ignored) {
+                    //Пересечение по времени отклонено, состояние менеджера не изменилось
+                }
+
+                List<Task> expected = new ArrayList<>();
+                for (Task task : model.values()) {
+                    if (task.getStartTime() != null) {
+                        expected.add(task);
+                    }
+                }
+                expected.sort(Comparator.comparing(Task::getStartTime).thenComparingInt(Task::getId));
+                assertEquals(expected, taskManager.getPrioritizedTasks(), "seed=" + seed + ", step=" + step);
+            }
+        }
+    }
+
+    //Проверяем пакет: подзадачи ссылаются на эпик из того же пакета, эпик пересчитывается по ним
+    @Test
+    public void shouldApplyBatchWithEpicReference() {
+        LocalDateTime base = LocalDateTime.of(2025, 3, 1, 9, 0);
+        Task obsolete = new Task("Устаревшая", "Описание", TaskStatus.NEW);
+        taskManager.addTask(obsolete);
+        Task renamed = new Task("Задача", "Описание", TaskStatus.NEW);
+        taskManager.addTask(renamed);
+
+        Epic epic = new Epic("Эпик", "Описание");
+        Task update = new Task("Переименованная", "Описание", TaskStatus.DONE);
+        update.setId(renamed.getId());
+        List<BatchOperation> batch = new ArrayList<>();
+        batch.add(BatchOperation.add(epic));
+        for (int i = 0; i < 3; i++) {
+            batch.add(BatchOperation.addSubtask(new Subtask("Подзадача " + i, "Описание", TaskStatus.IN_PROGRESS,
+                    Duration.ofMinutes(30), base.plusHours(i), 0), 0));
+        }
+        batch.add(BatchOperation.update(update));
+        batch.add(BatchOperation.delete(obsolete.getId()));
+        batch.add(BatchOperation.delete(9999));
+
+        List<Task> results = taskManager.applyBatch(batch);
+
+        assertEquals(batch.size(), results.size());
+        assertSame(epic, results.get(0));
+        assertEquals(3, taskManager.getSubtasksOfEpic(epic.getId()).size(), "Подзадачи должны попасть в эпик.");
+        for (int i = 1; i <= 3; i++) {
+            assertEquals(epic.getId(), ((Subtask) results.get(i)).getEpicId(), "epicRef заменяется на id эпика.");
+        }
+        Epic managed = taskManager.getEpicById(epic.getId());
+        assertEquals(TaskStatus.IN_PROGRESS, managed.getStatus());
+        assertEquals(base, managed.getStartTime());
+        assertEquals(base.plusHours(2).plusMinutes(30), managed.getEndTime());
+        assertEquals("Переименованная", taskManager.getTaskById(renamed.getId()).getTaskName());
+        assertSame(obsolete, results.get(5), "Для удаления возвращается удалённая задача.");
+        assertNull(taskManager.getTaskById(obsolete.getId()));
+        assertNull(results.get(6), "Удаление отсутствующей задачи ничего не делает.");
+    }
+
+    //Проверяем, что при пересечении по времени пакет откатывается целиком, включая удаления и обновления
+    @Test
+    public void shouldRollBackBatchOnTimeConflict() {
+        LocalDateTime base = LocalDateTime.of(2025, 3, 1, 9, 0);
+        Task kept = new Task("Задача", "Описание", TaskStatus.NEW, Duration.ofMinutes(30), base);
+        taskManager.addTask(kept);
+        Task deleted = new Task("Удаляемая", "Описание", TaskStatus.DONE, Duration.ofMinutes(30), base.plusHours(1));
+        taskManager.addTask(deleted);
+        Epic epic = new Epic("Эпик", "Описание");
+        taskManager.addEpic(epic);
+        Subtask first = new Subtask("Подзадача 1", "Описание", TaskStatus.DONE, Duration.ofMinutes(30),
+                base.plusHours(2), epic.getId());
+        Subtask second = new Subtask("Подзадача 2", "Описание", TaskStatus.NEW, Duration.ofMinutes(30),
+                base.plusHours(3), epic.getId());
+        taskManager.addSubtask(first);
+        taskManager.addSubtask(second);
+        Epic otherEpic = new Epic("Другой эпик", "Описание");
+        taskManager.addEpic(otherEpic);
+        taskManager.addSubtask(new Subtask("Подзадача 3", "Описание", TaskStatus.NEW, Duration.ofMinutes(30),
+                base.plusHours(4), otherEpic.getId()));
+        String before = describe(taskManager);
+
+        Task moved = new Task("Задача", "Описание", TaskStatus.IN_PROGRESS, Duration.ofMinutes(30),
+                base.plusHours(5));
+        moved.setId(kept.getId());
+        Subtask movedSubtask = new Subtask("Подзадача 2", "Описание", TaskStatus.DONE, Duration.ofMinutes(30),
+                base.plusHours(6), epic.getId());
+        movedSubtask.setId(second.getId());
+        Task added = new Task("Новая", "Описание", TaskStatus.NEW, Duration.ofMinutes(30), base.plusHours(7));
+        List<BatchOperation> batch = List.of(
+                BatchOperation.update(moved),
+                BatchOperation.delete(deleted.getId()),
+                BatchOperation.delete(first.getId()),
+                BatchOperation.update(movedSubtask),
+                BatchOperation.delete(otherEpic.getId()),
+                BatchOperation.add(new Epic("Новый эпик", "Описание")),
+                BatchOperation.addSubtask(new Subtask("Новая подзадача", "Описание", TaskStatus.NEW,
+                        Duration.ofMinutes(30), base.plusHours(8), 0), 5),
+                BatchOperation.add(added),
+                //Пересекается с задачей, добавленной этим же пакетом
+                BatchOperation.add(new Task("Конфликт", "Описание", TaskStatus.NEW, Duration.ofMinutes(30),
+                        base.plusHours(7).plusMinutes(15))));
+
+        assertThrows(TimeConflictException.class, () -> taskManager.applyBatch(batch));
+
+        assertEquals(before, describe(taskManager), "После отката состояние должно совпадать с исходным.");
+        assertEquals(0, added.getId(), "Добавленной в откаченном пакете задаче возвращается исходный id.");
+
+        //Освобождённое откатом время снова доступно
+        taskManager.addTask(new Task("После отката", "Описание", TaskStatus.NEW, Duration.ofMinutes(30),
+                base.plusHours(7)));
+    }
+
+    //Проверяем, что ошибка в ссылке на эпик обнаруживается до применения первой операции
+    @Test
+    public void shouldRejectBatchWithInvalidEpicReference() {
+        Task task = new Task("Задача", "Описание", TaskStatus.NEW);
+        List<BatchOperation> batch = List.of(
+                BatchOperation.add(task),
+                BatchOperation.addSubtask(new Subtask("Подзадача", "Описание", TaskStatus.NEW, 0), 0));
+
+        assertThrows(IllegalArgumentException.class, () -> taskManager.applyBatch(batch));
+        assertThrows(IllegalArgumentException.class, () -> taskManager.applyBatch(List.of(
+                BatchOperation.addSubtask(new Subtask("Подзадача", "Описание", TaskStatus.NEW, 0), 1),
+                BatchOperation.add(new Epic("Эпик", "Описание")))));
+        assertEquals(0, task.getId());
+        assertTrue(taskManager.getAllTasks().isEmpty() && taskManager.getAllEpics().isEmpty());
+    }
+
+    //Проверяем, что срез доски переиспользуется, пока нет изменений, и совпадает со списками менеджера
+    @Test
+    public void shouldReuseSnapshotUntilBoardChanges() {
+        LocalDateTime base = LocalDateTime.of(2025, 4, 1, 9, 0);
+        Task task = new Task("Задача", "Описание", TaskStatus.NEW, Duration.ofMinutes(30), base.plusHours(1));
+        taskManager.addTask(task);
+        Epic epic = new Epic("Эпик", "Описание");
+        taskManager.addEpic(epic);
+        taskManager.addSubtask(new Subtask("Подзадача", "Описание", TaskStatus.DONE, Duration.ofMinutes(30),
+                base, epic.getId()));
+
+        BoardSnapshot snapshot = taskManager.getSnapshot();
+        assertSame(snapshot, taskManager.getSnapshot(), "Без изменений возвращается тот же срез.");
+        taskManager.getTaskById(task.getId());
+        assertSame(snapshot, taskManager.getSnapshot(), "Просмотр не меняет доску.");
+
+        assertEquals(ids(taskManager.getAllTasks()), ids(snapshot.getTasks()));
+        assertEquals(ids(taskManager.getAllEpics()), ids(snapshot.getEpics()));
+        assertEquals(ids(taskManager.getAllSubtasks()), ids(snapshot.getSubtasks()));
+        assertEquals(ids(taskManager.getPrioritizedTasks()), ids(snapshot.getPrioritized()));
+        assertEquals(TaskStatus.DONE, snapshot.getEpics().get(0).getStatus());
+        assertEquals(base, snapshot.getEpics().get(0).getStartTime());
+        assertSame(snapshot.getSubtasks().get(0), snapshot.getPrioritized().get(0),
+                "Приоритетный список состоит из тех же копий.");
+
+        taskManager.deleteTaskById(task.getId());
+        BoardSnapshot next = taskManager.getSnapshot();
+        assertTrue(next.getVersion() > snapshot.getVersion(), "После изменения версия растёт.");
+        assertTrue(next.getTasks().isEmpty());
+        assertEquals(1, snapshot.getTasks().size(), "Прежний срез не меняется.");
+    }
+
+    //Проверяем, что срез состоит из копий и не меняется вместе с задачами менеджера
+    @Test
+    public void shouldIsolateSnapshotFromLaterChanges() {
+        Task task = new Task("Задача", "Описание", TaskStatus.NEW);
+        taskManager.addTask(task);
+        Epic epic = new Epic("Эпик", "Описание");
+        taskManager.addEpic(epic);
+        BoardSnapshot snapshot = taskManager.getSnapshot();
+
+        Task update = new Task("Переименованная", "Описание", TaskStatus.DONE);
+        update.setId(task.getId());
+        taskManager.updateTask(update);
+        taskManager.addSubtask(new Subtask("Подзадача", "Описание", TaskStatus.DONE, epic.getId()));
+        task.setTaskName("Изменённая снаружи");
+
+        Task copy = snapshot.getTasks().get(0);
+        assertNotSame(task, copy);
+        assertEquals("Задача", copy.getTaskName());
+        assertEquals(TaskStatus.NEW, copy.getStatus());
+        assertTrue(snapshot.getEpics().get(0).getSubtasksIds().isEmpty());
+        assertEquals(TaskStatus.NEW, snapshot.getEpics().get(0).getStatus());
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.getTasks().clear());
+        assertThrows(UnsupportedOperationException.class,
+                () -> snapshot.getEpics().get(0).getSubtasksIds().add(1));
+
+        BoardSnapshot next = taskManager.getSnapshot();
+        assertEquals("Переименованная", next.getTasks().get(0).getTaskName());
+        assertEquals(TaskStatus.DONE, next.getEpics().get(0).getStatus());
+        assertEquals(1, next.getSubtasks().size());
+    }
+
+    //Проверяем, что неудачное изменение не сбрасывает срез
+    @Test
+    public void shouldKeepSnapshotAfterRejectedChange() {
+        LocalDateTime start = LocalDateTime.of(2025, 4, 2, 9, 0);
+        taskManager.addTask(new Task("Задача", "Описание", TaskStatus.NEW, Duration.ofMinutes(60), start));
+        BoardSnapshot snapshot = taskManager.getSnapshot();
+
+        assertThrows(TimeConflictException.class, () -> taskManager.addTask(
+                new Task("Пересекается", "Описание", TaskStatus.NEW, Duration.ofMinutes(30), start.plusMinutes(15))));
+
+        assertSame(snapshot, taskManager.getSnapshot());
+    }
+
+    private static List<Integer> ids(List<? extends Task> tasks) {
+        List<Integer> ids = new ArrayList<>();
+        for (Task task : tasks) {
+            ids.add(task.getId());
+        }
+        return ids;
+    }
+
+    //Полное описание состояния менеджера: задачи, показатели эпиков, приоритетный список и индекс статусов
+    private static String describe(TaskManager manager) {
+        StringBuilder state = new StringBuilder();
+        List<Task> all = new ArrayList<>(manager.getAllTasks());
+        all.addAll(manager.getAllEpics());
+        all.addAll(manager.getAllSubtasks());
+        for (Task task : all) {
+            state.append(task.getType()).append(' ').append(task.getId()).append(' ').append(task.getTaskName())
+                    .append(' ').append(task.getStatus()).append(' ').append(task.getStartTime())
+                    .append(' ').append(task.getEndTime());
+            if (task instanceof Epic) {
+                state.append(' ').append(((Epic) task).getSubtasksIds());
+            }
+            state.append('\n');
+        }
+        for (Task task : manager.getPrioritizedTasks()) {
+            state.append(task.getId()).append(' ');
+        }
+        for (TaskStatus status : TaskStatus.values()) {
+            TaskQuery query = new TaskQuery();
+            query.setStatus(status);
+            state.append('\n').append(status).append(' ');
+            for (Task task : manager.findTasks(query)) {
+                state.append(task.getId()).append(' ');
+            }
+        }
+        return state.toString();
+    }
+
+    //Время на грубой сетке, чтобы часто совпадало начало; нулевая длительность допускает совпадения
+    private static void randomizeTime(Task task, LocalDateTime base, Random random) {
+        if (random.nextInt(5) == 0) {
+            task.setStartTime(null);
+            task.setDuration(null);
+            return;
+        }
+        task.setStartTime(base.plusMinutes(30L * random.nextInt(40)));
+        task.setDuration(Duration.ofMinutes(random.nextInt(3) == 0 ? 30 : 0));
+    }
 }
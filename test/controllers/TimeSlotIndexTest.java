@@ -0,0 +1,77 @@
+package controllers;
+
+import main.controllers.TimeSlotIndex;
+import main.model.Task;
+import main.model.TaskStatus;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+class TimeSlotIndexTest {
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 2, 18, 10, 0);
+
+    private TimeSlotIndex index;
+
+    @BeforeEach
+    public void setUp() {
+        index = new TimeSlotIndex();
+    }
+
+    //Проверяем обнаружение пересечения с интервалом слева и справа
+    @Test
+    public void shouldDetectOverlapWithNeighbours() {
+        index.add(createTask(1, 0, 60));
+        index.add(createTask(2, 120, 60));
+
+        assertTrue(index.overlaps(createTask(0, 30, 30)), "Пересечение с интервалом слева не найдено.");
+        assertTrue(index.overlaps(createTask(0, 90, 60)), "Пересечение с интервалом справа не найдено.");
+        assertTrue(index.overlaps(createTask(0, -30, 240)), "Поглощающий интервал не найден.");
+        assertFalse(index.overlaps(createTask(0, 60, 60)), "Смежные интервалы не должны пересекаться.");
+    }
+
+    //Проверяем, что при обновлении задача не конфликтует сама с собой
+    @Test
+    public void shouldIgnoreOwnIntervalOnUpdate() {
+        index.add(createTask(1, 0, 60));
+        index.add(createTask(2, 120, 60));
+
+        assertFalse(index.overlapsOthers(createTask(2, 90, 30)), "Задача не должна конфликтовать сама с собой.");
+        assertTrue(index.overlapsOthers(createTask(2, 30, 120)),
+                "Пересечение с соседним интервалом должно быть найдено.");
+    }
+
+    //Проверяем, что удалённый интервал освобождает время
+    @Test
+    public void shouldReleaseSlotAfterRemove() {
+        index.add(createTask(1, 0, 60));
+        index.remove(1);
+
+        assertFalse(index.overlaps(createTask(0, 30, 30)), "Удалённый интервал не должен учитываться.");
+        assertEquals(0, index.size());
+    }
+
+    //Проверяем задачи нулевой длительности и задачи без времени
+    @Test
+    public void shouldHandleZeroDurationAndUntimedTasks() {
+        index.add(createTask(1, 0, 60));
+        index.add(createTask(2, 90, 0));
+        index.add(new Task("Без времени", "Описание", TaskStatus.NEW));
+
+        assertTrue(index.overlaps(createTask(0, 30, 0)), "Момент внутри интервала должен пересекаться.");
+        assertFalse(index.overlaps(createTask(0, 60, 0)), "Момент на границе интервала не пересекается.");
+        assertTrue(index.overlaps(createTask(0, 75, 30)), "Интервал, содержащий момент, должен пересекаться.");
+        assertFalse(index.overlaps(new Task("Без времени", "Описание", TaskStatus.NEW)));
+        assertEquals(2, index.size());
+    }
+
+    private Task createTask(int id, int startOffsetMinutes, int durationMinutes) {
+        Task task = new Task("Задача " + id, "Описание", TaskStatus.NEW, Duration.ofMinutes(durationMinutes),
+                BASE.plusMinutes(startOffsetMinutes));
+        task.setId(id);
+        return task;
+    }
+}
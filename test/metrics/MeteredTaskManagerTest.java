@@ -0,0 +1,82 @@
+package metrics;
+
+import main.controllers.ConcurrentTaskManager;
+import main.controllers.FileBackedTaskManager;
+import main.controllers.InMemoryTaskManager;
+import main.controllers.PersistenceMode;
+import main.controllers.PersistenceSettings;
+import main.controllers.TaskManager;
+import main.metrics.MeteredTaskManager;
+import main.metrics.MetricsRegistry;
+import main.model.Epic;
+import main.model.Subtask;
+import main.model.Task;
+import main.model.TaskStatus;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+class MeteredTaskManagerTest {
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 2, 18, 10, 0);
+
+    //Проверяем, что вызовы замеряются и доходят до менеджера, а размеры выгружаются датчиками
+    @Test
+    public void shouldRecordOperationsAndSizes() {
+        for (TaskManager delegate : new TaskManager[]{new InMemoryTaskManager(), new ConcurrentTaskManager()}) {
+            MetricsRegistry registry = new MetricsRegistry();
+            TaskManager manager = new MeteredTaskManager(delegate, registry);
+
+            Task task = new Task("Задача", "Описание", TaskStatus.NEW, Duration.ofMinutes(30), BASE);
+            manager.addTask(task);
+            Epic epic = new Epic("Эпик", "Описание");
+            manager.addEpic(epic);
+            manager.addSubtask(new Subtask("Подзадача", "Описание", TaskStatus.NEW, Duration.ofMinutes(30),
+                    BASE.plusHours(1), epic.getId()));
+            assertEquals(task, manager.getTaskById(task.getId()));
+            assertNull(manager.getTaskById(999));
+            assertThrows(RuntimeException.class, () -> manager.addTask(
+                    new Task("Пересечение", "Описание", TaskStatus.NEW, Duration.ofMinutes(30), BASE)));
+
+            String text = registry.scrape();
+            assertTrue(text.contains("task_manager_operation_seconds_count{operation=\"getTaskById\"} 2\n"), text);
+            assertTrue(text.contains("task_manager_operation_seconds_count{operation=\"addTask\"} 2\n"),
+                    "Вызов с исключением тоже замеряется.");
+            assertTrue(text.contains("task_manager_operation_seconds_count{operation=\"getHistory\"} 0\n"));
+            assertTrue(text.contains("task_manager_tasks{type=\"task\"} 1\n"));
+            assertTrue(text.contains("task_manager_tasks{type=\"epic\"} 1\n"));
+            assertTrue(text.contains("task_manager_tasks{type=\"subtask\"} 1\n"));
+            assertTrue(text.contains("task_manager_history_size 3\n"), "Добавление тоже попадает в историю.");
+            assertTrue(text.contains("task_manager_prioritized_size 2\n"));
+        }
+    }
+
+    //Проверяем замер записи снимка и журнала FileBackedTaskManager
+    @Test
+    public void shouldRecordFileWrites() throws IOException {
+        File file = File.createTempFile("task_manager_metrics", ".csv");
+        file.deleteOnExit();
+        PersistenceSettings settings = new PersistenceSettings();
+        settings.setMode(PersistenceMode.JOURNAL);
+        FileBackedTaskManager fileManager = new FileBackedTaskManager(file, settings);
+        try {
+            MetricsRegistry registry = new MetricsRegistry();
+            TaskManager manager = new MeteredTaskManager(fileManager, registry);
+            manager.addTask(new Task("Задача", "Описание", TaskStatus.NEW));
+            manager.addTask(new Task("Задача", "Описание", TaskStatus.NEW));
+            fileManager.compact();
+
+            String text = registry.scrape();
+            assertTrue(text.contains("file_backed_write_seconds_count{file=\"journal\"} 2\n"), text);
+            assertTrue(text.contains("file_backed_write_seconds_count{file=\"snapshot\"} 1\n"), text);
+            assertTrue(text.contains("file_backed_pending_operations 0\n"));
+        } finally {
+            fileManager.close();
+            new File(file.getPath() + ".journal").delete();
+        }
+    }
+}
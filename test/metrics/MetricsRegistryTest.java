@@ -0,0 +1,89 @@
+package metrics;
+
+import main.metrics.Counter;
+import main.metrics.LatencyHistogram;
+import main.metrics.MetricsRegistry;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+class MetricsRegistryTest {
+    private MetricsRegistry registry;
+
+    @BeforeEach
+    public void setUp() {
+        registry = new MetricsRegistry();
+    }
+
+    //Проверяем, что метрика с теми же именем и метками регистрируется один раз
+    @Test
+    public void shouldReturnSameMeterForSameNameAndLabels() {
+        Counter first = registry.counter("requests_total", "Запросы", "handler", "/tasks");
+        Counter second = registry.counter("requests_total", "Запросы", "handler", "/tasks");
+        Counter other = registry.counter("requests_total", "Запросы", "handler", "/epics");
+
+        assertSame(first, second, "Повторная регистрация должна вернуть тот же счётчик.");
+        assertNotSame(first, other, "Разные метки - разные счётчики.");
+        assertThrows(IllegalArgumentException.class, () -> registry.histogram("requests_total", "Запросы"),
+                "У метрик одного имени должен быть один тип.");
+        assertThrows(IllegalArgumentException.class, () -> registry.counter("1bad", "Имя"));
+        assertThrows(IllegalArgumentException.class, () -> registry.counter("odd_labels", "Метки", "handler"));
+    }
+
+    //Проверяем квантили гистограммы: погрешность не больше 1/16 и только в большую сторону
+    @Test
+    public void shouldEstimateQuantilesWithBoundedError() {
+        LatencyHistogram histogram = registry.histogram("latency_seconds", "Задержка");
+        assertEquals(0, histogram.valueAtQuantile(0.5), "Пустая гистограмма должна давать 0.");
+
+        for (long value = 1; value <= 1_000_000; value++) {
+            histogram.record(value * 1_000);
+        }
+
+        assertEquals(1_000_000, histogram.count());
+        for (double q : new double[]{0.5, 0.9, 0.99, 0.999, 1.0}) {
+            long exact = (long) Math.ceil(q * 1_000_000) * 1_000;
+            long estimate = histogram.valueAtQuantile(q);
+            assertTrue(estimate >= exact && estimate <= exact + exact / 16,
+                    "Квантиль " + q + ": " + estimate + " вместо " + exact);
+        }
+
+        LatencyHistogram small = registry.histogram("small_seconds", "Задержка");
+        small.record(-5);
+        small.record(3);
+        assertEquals(0, small.valueAtQuantile(0.5), "Отрицательные значения считаются нулём.");
+        assertEquals(3, small.valueAtQuantile(1.0), "Малые значения хранятся точно.");
+        assertEquals(3, small.totalNanos());
+    }
+
+    //Проверяем выгрузку в текстовом формате Prometheus
+    @Test
+    public void shouldWritePrometheusText() {
+        registry.counter("http_requests_total", "Запросы", "handler", "/tasks", "code", "200").add(3);
+        registry.counter("http_requests_total", "Запросы", "handler", "a\"b\\c\nd", "code", "500").increment();
+        AtomicInteger size = new AtomicInteger(7);
+        registry.gauge("queue_size", "Размер\nочереди", size::get);
+        registry.gauge("ratio", "Доля", () -> 0.25);
+        LatencyHistogram histogram = registry.histogram("call_seconds", "Вызовы", "operation", "add");
+        histogram.record(2_000_000_000L);
+
+        size.set(9);
+        String text = registry.scrape();
+
+        assertTrue(text.contains("# HELP http_requests_total Запросы\n# TYPE http_requests_total counter\n"));
+        assertTrue(text.contains("http_requests_total{handler=\"/tasks\",code=\"200\"} 3\n"));
+        assertTrue(text.contains("http_requests_total{handler=\"a\\\"b\\\\c\\nd\",code=\"500\"} 1\n"),
+                "Значения меток должны экранироваться.");
+        assertTrue(text.contains("# HELP queue_size Размер\\nочереди\n# TYPE queue_size gauge\nqueue_size 9\n"),
+                "Значение датчика вычисляется при выгрузке.");
+        assertTrue(text.contains("ratio 0.25\n"));
+        assertTrue(text.contains("# TYPE call_seconds summary\n"));
+        assertTrue(text.contains("call_seconds{operation=\"add\",quantile=\"0.5\"} "));
+        assertTrue(text.contains("call_seconds_sum{operation=\"add\"} 2\n"));
+        assertTrue(text.contains("call_seconds_count{operation=\"add\"} 1\n"));
+        assertTrue(text.indexOf("call_seconds") < text.indexOf("http_requests_total"), "Метрики идут по имени.");
+    }
+}
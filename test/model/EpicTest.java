@@ -10,6 +10,9 @@ import static org.junit.jupiter.api.Assertions.*;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.BeforeEach;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+
 class EpicTest {
 
     private TaskManager taskManager;
@@ -102,4 +105,57 @@ class EpicTest {
         assertEquals(TaskStatus.IN_PROGRESS, epic.getStatus(),
                 "Статус эпика должен быть IN_PROGRESS, если все подзадачи IN_PROGRESS.");
     }
-}
\ No newline at end of file
+
+    //Проверяем пересчёт статуса эпика при обновлении и удалении подзадач
+    @Test
+    public void shouldRecalculateEpicStatusOnSubtaskUpdateAndDelete() {
+        Epic epic = new Epic("Эпик 1", "Описание эпика 1");
+        taskManager.addEpic(epic);
+
+        Subtask subtask1 = new Subtask("Подзадача 1", "Описание 1", TaskStatus.NEW, epic.getId());
+        Subtask subtask2 = new Subtask("Подзадача 2", "Описание 2", TaskStatus.DONE, epic.getId());
+        taskManager.addSubtask(subtask1);
+        taskManager.addSubtask(subtask2);
+        assertEquals(TaskStatus.IN_PROGRESS, epic.getStatus());
+
+        subtask1.setStatus(TaskStatus.DONE);
+        taskManager.updateSubtask(subtask1);
+        assertEquals(TaskStatus.DONE, epic.getStatus(), "После обновления все подзадачи DONE.");
+
+        taskManager.deleteTaskById(subtask1.getId());
+        taskManager.deleteTaskById(subtask2.getId());
+        assertEquals(TaskStatus.NEW, epic.getStatus(), "Эпик без подзадач должен быть NEW.");
+    }
+
+    //Проверяем пересчёт времени и длительности эпика при изменении подзадач
+    @Test
+    public void shouldRecalculateEpicTimeOnSubtaskChanges() {
+        Epic epic = new Epic("Эпик 1", "Описание эпика 1");
+        taskManager.addEpic(epic);
+
+        LocalDateTime start = LocalDateTime.of(2025, 2, 18, 10, 0);
+        Subtask subtask1 = new Subtask("Подзадача 1", "Описание 1", TaskStatus.NEW, Duration.ofHours(1),
+                start, epic.getId());
+        Subtask subtask2 = new Subtask("Подзадача 2", "Описание 2", TaskStatus.NEW, Duration.ofHours(2),
+                start.plusHours(3), epic.getId());
+        taskManager.addSubtask(subtask1);
+        taskManager.addSubtask(subtask2);
+
+        assertEquals(start, epic.getStartTime());
+        assertEquals(start.plusHours(5), epic.getEndTime());
+        assertEquals(Duration.ofHours(3), epic.getDuration());
+
+        subtask2.setStartTime(start.plusHours(1));
+        taskManager.updateSubtask(subtask2);
+        assertEquals(start.plusHours(3), epic.getEndTime(), "Окончание эпика должно сдвинуться.");
+
+        taskManager.deleteTaskById(subtask1.getId());
+        assertEquals(start.plusHours(1), epic.getStartTime(), "Начало эпика должно сдвинуться.");
+        assertEquals(Duration.ofHours(2), epic.getDuration());
+
+        taskManager.removeAllSubtasks();
+        assertNull(epic.getStartTime());
+        assertNull(epic.getEndTime());
+        assertEquals(Duration.ZERO, epic.getDuration());
+    }
+}
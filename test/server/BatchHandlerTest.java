@@ -0,0 +1,73 @@
+package server;
+
+import main.model.Epic;
+import main.model.Task;
+import main.model.TaskStatus;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchHandlerTest extends HttpTaskServerTestBase {
+
+    //Проверяем создание эпика с подзадачами и удаление задачи одним запросом
+    @Test
+    void shouldApplyBatch() throws IOException, InterruptedException {
+        Task obsolete = new Task("Устаревшая", "Описание", TaskStatus.NEW);
+        manager.addTask(obsolete);
+
+        StringBuilder body = new StringBuilder("[{\"op\":\"add\",\"type\":\"EPIC\",")
+                .append("\"task\":{\"taskName\":\"Эпик\",\"description\":\"Описание\"}}");
+        for (int i = 0; i < 20; i++) {
+            body.append(",{\"op\":\"add\",\"type\":\"SUBTASK\",\"epicRef\":0,\"task\":{\"taskName\":\"Подзадача ")
+                    .append(i).append("\",\"description\":\"Описание\",\"status\":\"NEW\",\"duration\":30,")
+                    .append("\"startTime\":\"2025-03-01 ").append(String.format("%02d", i)).append(":00\"}}");
+        }
+        body.append(",{\"op\":\"delete\",\"id\":").append(obsolete.getId()).append("}]");
+
+        HttpResponse<String> response = post(body.toString());
+
+        assertEquals(200, response.statusCode());
+        Integer[] ids = gson.fromJson(response.body(), Integer[].class);
+        assertEquals(22, ids.length);
+        Epic epic = manager.getEpicById(ids[0]);
+        assertNotNull(epic);
+        assertEquals(20, manager.getSubtasksOfEpic(epic.getId()).size());
+        assertEquals(LocalDateTime.of(2025, 3, 1, 0, 0), epic.getStartTime());
+        assertEquals(obsolete.getId(), (int) ids[21]);
+        assertTrue(manager.getAllTasks().isEmpty());
+    }
+
+    //Проверяем, что пакет с пересечением по времени не применяется, а некорректный отклоняется с 400
+    @Test
+    void shouldRejectConflictingAndMalformedBatches() throws IOException, InterruptedException {
+        manager.addTask(new Task("Задача", "Описание", TaskStatus.NEW, Duration.ofMinutes(30),
+                LocalDateTime.of(2025, 3, 1, 9, 0)));
+
+        String conflicting = "[{\"op\":\"add\",\"type\":\"TASK\",\"task\":{\"taskName\":\"Новая\",\"status\":\"NEW\"}},"
+                + "{\"op\":\"add\",\"type\":\"TASK\",\"task\":{\"taskName\":\"Конфликт\",\"status\":\"NEW\","
+                + "\"duration\":30,\"startTime\":\"2025-03-01 09:15\"}}]";
+        assertEquals(406, post(conflicting).statusCode());
+        assertEquals(1, manager.getAllTasks().size(), "Пакет с конфликтом не должен применяться частично.");
+
+        assertEquals(400, post("[{\"op\":\"move\",\"id\":1}]").statusCode());
+        assertEquals(400, post("[{\"op\":\"add\",\"type\":\"TASK\",\"epicRef\":0,\"task\":{}}]").statusCode());
+        assertEquals(400, post("[{\"op\":\"add\",\"type\":\"SUBTASK\",\"epicRef\":5,\"task\":{}}]").statusCode());
+        assertEquals(400, post("[{\"op\":\"delete\"").statusCode());
+        assertEquals(1, manager.getAllTasks().size());
+    }
+
+    private HttpResponse<String> post(String body) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/batch"))
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+}
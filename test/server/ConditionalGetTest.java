@@ -0,0 +1,121 @@
+package server;
+
+import main.controllers.BoardSnapshot;
+import main.controllers.InMemoryTaskManager;
+import main.model.Epic;
+import main.model.Subtask;
+import main.model.Task;
+import main.model.TaskStatus;
+import main.server.HttpTaskServer;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConditionalGetTest extends HttpTaskServerTestBase {
+
+    //Проверяем, что без изменений доски список отдаётся с тем же ETag, а If-None-Match даёт 304 без тела
+    @Test
+    void shouldAnswerNotModifiedWhileBoardIsUnchanged() throws IOException, InterruptedException {
+        manager.addTask(new Task("Задача", "Описание", TaskStatus.NEW));
+
+        HttpResponse<String> first = get("/tasks", null);
+        assertEquals(200, first.statusCode());
+        String etag = first.headers().firstValue("ETag").orElseThrow();
+        assertEquals("no-cache", first.headers().firstValue("Cache-Control").orElseThrow());
+
+        HttpResponse<String> cached = get("/tasks", null);
+        assertEquals(200, cached.statusCode());
+        assertEquals(etag, cached.headers().firstValue("ETag").orElseThrow());
+        assertEquals(first.body(), cached.body(), "Повторный ответ берётся из кэша без изменений.");
+
+        HttpResponse<String> notModified = get("/tasks", etag);
+        assertEquals(304, notModified.statusCode());
+        assertEquals(etag, notModified.headers().firstValue("ETag").orElseThrow());
+        assertTrue(notModified.body().isEmpty());
+        assertEquals(304, get("/tasks", "\"other\", W/" + etag).statusCode());
+    }
+
+    //Проверяем, что изменение доски меняет ETag списков и старый ETag больше не даёт 304
+    @Test
+    void shouldChangeEtagAfterBoardChange() throws IOException, InterruptedException {
+        manager.addTask(new Task("Задача", "Описание", TaskStatus.NEW));
+        String tasksEtag = get("/tasks", null).headers().firstValue("ETag").orElseThrow();
+        String prioritizedEtag = get("/prioritized", null).headers().firstValue("ETag").orElseThrow();
+
+        manager.addTask(new Task("Новая задача", "Описание", TaskStatus.NEW));
+
+        HttpResponse<String> tasks = get("/tasks", tasksEtag);
+        assertEquals(200, tasks.statusCode());
+        assertNotEquals(tasksEtag, tasks.headers().firstValue("ETag").orElseThrow());
+        assertTrue(tasks.body().contains("Новая задача"));
+        assertEquals(200, get("/prioritized", prioritizedEtag).statusCode());
+    }
+
+    //Проверяем, что ETag списка берётся из версии отданного среза: отставший срез не получает метку текущей
+    //версии, и после обновления среза клиент со старым ETag получает новое тело, а не 304
+    @Test
+    void shouldTagListWithVersionOfReturnedSnapshot() throws IOException, InterruptedException {
+        taskServer.stop();
+        AtomicReference<BoardSnapshot> lagging = new AtomicReference<>();
+        InMemoryTaskManager laggingManager = new InMemoryTaskManager() {
+            @Override
+            public BoardSnapshot getSnapshot() {
+                BoardSnapshot stale = lagging.get();
+                return stale != null ? stale : super.getSnapshot();
+            }
+        };
+        taskServer = new HttpTaskServer(laggingManager);
+        taskServer.start();
+
+        laggingManager.addTask(new Task("Задача", "Описание", TaskStatus.NEW));
+        lagging.set(laggingManager.getSnapshot());
+        laggingManager.addTask(new Task("Новая задача", "Описание", TaskStatus.NEW));
+
+        HttpResponse<String> stale = get("/tasks", null);
+        assertEquals(200, stale.statusCode());
+        assertFalse(stale.body().contains("Новая задача"));
+        String staleEtag = stale.headers().firstValue("ETag").orElseThrow();
+
+        lagging.set(null);
+        HttpResponse<String> fresh = get("/tasks", staleEtag);
+        assertEquals(200, fresh.statusCode(), "Метка отставшего среза не должна совпасть с текущей версией.");
+        assertTrue(fresh.body().contains("Новая задача"));
+    }
+
+    //Проверяем, что ETag истории меняется и от просмотров, и от изменения задач в истории
+    @Test
+    void shouldTrackHistoryViewsAndBoardChanges() throws IOException, InterruptedException {
+        Task task = new Task("Задача", "Описание", TaskStatus.NEW);
+        manager.addTask(task);
+        Epic epic = new Epic("Эпик", "Описание");
+        manager.addEpic(epic);
+
+        String etag = get("/history", null).headers().firstValue("ETag").orElseThrow();
+        assertEquals(304, get("/history", etag).statusCode());
+
+        manager.getTaskById(task.getId());
+        HttpResponse<String> viewed = get("/history", etag);
+        assertEquals(200, viewed.statusCode());
+        etag = viewed.headers().firstValue("ETag").orElseThrow();
+
+        //Эпик в истории - тот же объект, что на доске: его статус пересчитывается вместе с подзадачами
+        manager.addSubtask(new Subtask("Подзадача", "Описание", TaskStatus.DONE, epic.getId()));
+        HttpResponse<String> changed = get("/history", etag);
+        assertEquals(200, changed.statusCode());
+        assertTrue(changed.body().contains("DONE"));
+    }
+
+    private HttpResponse<String> get(String path, String ifNoneMatch) throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder().uri(URI.create("http://localhost:8080" + path)).GET();
+        if (ifNoneMatch != null) {
+            request.header("If-None-Match", ifNoneMatch);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+}
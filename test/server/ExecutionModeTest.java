@@ -0,0 +1,123 @@
+package server;
+
+import main.controllers.ConcurrentTaskManager;
+import main.controllers.InMemoryTaskManager;
+import main.controllers.Managers;
+import main.controllers.TaskManager;
+import main.metrics.MeteredTaskManager;
+import main.metrics.MetricsRegistry;
+import main.model.Task;
+import main.model.TaskStatus;
+import main.server.ExecutionMode;
+import main.server.HttpTaskServer;
+import main.server.ServerSettings;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExecutionModeTest {
+    private final HttpClient client = HttpClient.newHttpClient();
+    private HttpTaskServer taskServer;
+
+    @AfterEach
+    public void shutDown() {
+        if (taskServer != null) {
+            taskServer.stop();
+        }
+    }
+
+    //Проверяем, что сервер на фиксированном пуле обрабатывает запросы
+    @Test
+    void shouldServeRequestsOnFixedPool() throws IOException, InterruptedException {
+        assertServesTasks(new ServerSettings(ExecutionMode.FIXED_POOL));
+    }
+
+    //Проверяем, что сервер на виртуальных потоках обрабатывает запросы
+    @Test
+    void shouldServeRequestsOnVirtualThreads() throws IOException, InterruptedException {
+        assertServesTasks(new ServerSettings(ExecutionMode.VIRTUAL_THREADS));
+    }
+
+    //Проверяем, что многопоточные режимы не принимают менеджер, не рассчитанный на несколько потоков,
+    //а потокобезопасный менеджер принимают и в обёртке
+    @Test
+    void shouldRejectNonThreadSafeManagerInMultiThreadedModes() throws IOException, InterruptedException {
+        for (ExecutionMode mode : ExecutionMode.values()) {
+            if (mode.isMultiThreaded()) {
+                assertThrows(IllegalArgumentException.class,
+                        () -> new HttpTaskServer(new InMemoryTaskManager(), new ServerSettings(mode)), mode.name());
+            }
+        }
+        assertTrue(Managers.getConcurrent().isThreadSafe());
+        assertFalse(Managers.getDefault().isThreadSafe());
+
+        TaskManager metered = new MeteredTaskManager(new ConcurrentTaskManager(), new MetricsRegistry());
+        taskServer = new HttpTaskServer(metered, new ServerSettings(ExecutionMode.FIXED_POOL));
+        taskServer.start();
+        assertEquals(200, client.send(request("/tasks"), HttpResponse.BodyHandlers.ofString()).statusCode());
+    }
+
+    //Проверяем, что при занятом пуле без очереди сервер сразу отвечает 503
+    @Test
+    void shouldRejectWithServiceUnavailableWhenPoolIsBusy() throws Exception {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        TaskManager manager = new ConcurrentTaskManager() {
+            @Override
+            public List<Task> getHistory() {
+                entered.countDown();
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.getHistory();
+            }
+        };
+        ServerSettings settings = new ServerSettings(ExecutionMode.BOUNDED_QUEUE);
+        settings.setThreads(1);
+        settings.setQueueCapacity(0);
+        taskServer = new HttpTaskServer(manager, settings);
+        taskServer.start();
+
+        CompletableFuture<HttpResponse<String>> blocked = client.sendAsync(request("/history"),
+                HttpResponse.BodyHandlers.ofString());
+        assertTrue(entered.await(10, TimeUnit.SECONDS), "Первый запрос должен занять единственный поток");
+
+        HttpResponse<String> rejected = client.send(request("/tasks"), HttpResponse.BodyHandlers.ofString());
+        assertEquals(503, rejected.statusCode());
+        assertTrue(rejected.headers().firstValue("Retry-After").isPresent());
+
+        release.countDown();
+        assertEquals(200, blocked.get(10, TimeUnit.SECONDS).statusCode());
+    }
+
+    private void assertServesTasks(ServerSettings settings) throws IOException, InterruptedException {
+        TaskManager manager = new ConcurrentTaskManager();
+        manager.addTask(new Task("Задача", "Описание", TaskStatus.NEW));
+        taskServer = new HttpTaskServer(manager, settings);
+        taskServer.start();
+
+        HttpResponse<String> response = client.send(request("/tasks"), HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode());
+        assertTrue(response.body().contains("Задача"));
+    }
+
+    private static HttpRequest request(String path) {
+        return HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080" + path))
+                .GET()
+                .build();
+    }
+}
@@ -53,4 +53,28 @@ class HistoryAndPriorityTest extends HttpTaskServerTestBase {
         assertEquals(200, response.statusCode());
         assertTrue(response.body().indexOf("Задача 2") < response.body().indexOf("Задача 1"));
     }
+
+    //Проверяем получение приоритетных задач только за заданное окно времени
+    @Test
+    void shouldGetPrioritizedTasksInWindow() throws IOException, InterruptedException {
+        LocalDateTime base = LocalDateTime.of(2025, 1, 1, 9, 0);
+        manager.addTask(new Task("Сегодня", "Описание", TaskStatus.NEW, Duration.ofMinutes(30), base));
+        manager.addTask(new Task("Завтра", "Описание", TaskStatus.NEW, Duration.ofMinutes(30), base.plusDays(1)));
+
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/prioritized?from=2025-01-01%2000:00&to=2025-01-02%2000:00"))
+                .GET()
+                .build();
+
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode());
+        assertTrue(response.body().contains("Сегодня"));
+        assertFalse(response.body().contains("Завтра"));
+
+        HttpRequest invalid = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/prioritized?from=tomorrow"))
+                .GET()
+                .build();
+        assertEquals(400, client.send(invalid, HttpResponse.BodyHandlers.ofString()).statusCode());
+    }
 }
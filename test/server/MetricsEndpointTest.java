@@ -0,0 +1,58 @@
+package server;
+
+import main.model.Task;
+import main.model.TaskStatus;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MetricsEndpointTest extends HttpTaskServerTestBase {
+
+    //Проверяем, что запросы к обработчикам и вызовы менеджера видны в GET /metrics
+    @Test
+    void shouldExposeRequestAndManagerMetrics() throws IOException, InterruptedException {
+        Task task = new Task("Задача", "Описание", TaskStatus.NEW);
+        manager.addTask(task);
+
+        for (int i = 0; i < 2; i++) {
+            HttpRequest request = HttpRequest.newBuilder()
+                    .uri(URI.create("http://localhost:8080/tasks/" + task.getId()))
+                    .GET()
+                    .build();
+            assertEquals(200, client.send(request, HttpResponse.BodyHandlers.ofString()).statusCode());
+        }
+        HttpRequest missing = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/tasks/999"))
+                .GET()
+                .build();
+        assertEquals(404, client.send(missing, HttpResponse.BodyHandlers.ofString()).statusCode());
+
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/metrics"))
+                .GET()
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(200, response.statusCode());
+        assertTrue(response.headers().firstValue("Content-Type").orElse("").startsWith("text/plain"));
+        String body = response.body();
+        assertTrue(body.contains("http_server_requests_total{handler=\"/tasks\",method=\"GET\",code=\"200\"} 2\n"),
+                body);
+        assertTrue(body.contains("http_server_requests_total{handler=\"/tasks\",method=\"GET\",code=\"404\"} 1\n"));
+        assertTrue(body.contains("http_server_request_seconds_count{handler=\"/tasks\"} 3\n"));
+        assertTrue(body.contains("task_manager_operation_seconds_count{operation=\"getTaskById\"} 3\n"));
+        assertTrue(body.contains("task_manager_tasks{type=\"task\"} 1\n"));
+        assertSame(taskServer.getMetrics(), taskServer.getMetrics());
+
+        HttpRequest post = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/metrics"))
+                .POST(HttpRequest.BodyPublishers.ofString(""))
+                .build();
+        assertEquals(404, client.send(post, HttpResponse.BodyHandlers.ofString()).statusCode());
+    }
+}
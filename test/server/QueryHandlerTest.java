@@ -0,0 +1,65 @@
+package server;
+
+import main.model.Epic;
+import main.model.Subtask;
+import main.model.Task;
+import main.model.TaskStatus;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QueryHandlerTest extends HttpTaskServerTestBase {
+
+    //Проверяем выборку подзадач в работе через /query
+    @Test
+    void shouldFindSubtasksByStatusAndType() throws IOException, InterruptedException {
+        Epic epic = new Epic("Эпик", "Описание эпика");
+        manager.addEpic(epic);
+        manager.addSubtask(new Subtask("Подзадача 1", "Описание", TaskStatus.NEW, epic.getId()));
+        manager.addSubtask(new Subtask("Подзадача 2", "Описание", TaskStatus.IN_PROGRESS, epic.getId()));
+        manager.addTask(new Task("Задача", "Описание", TaskStatus.IN_PROGRESS));
+
+        HttpResponse<String> response = send("status=IN_PROGRESS&type=SUBTASK");
+        assertEquals(200, response.statusCode());
+        Subtask[] subtasks = gson.fromJson(response.body(), Subtask[].class);
+        assertEquals(1, subtasks.length);
+        assertEquals("Подзадача 2", subtasks[0].getTaskName());
+    }
+
+    //Проверяем выборку по диапазону времени начала в формате JSON
+    @Test
+    void shouldFindTasksByStartTimeRange() throws IOException, InterruptedException {
+        LocalDateTime base = LocalDateTime.of(2025, 1, 1, 9, 0);
+        manager.addTask(new Task("Утро", "Описание", TaskStatus.NEW, Duration.ofMinutes(30), base));
+        manager.addTask(new Task("Вечер", "Описание", TaskStatus.NEW, Duration.ofMinutes(30), base.plusHours(9)));
+
+        HttpResponse<String> response = send("from=2025-01-01%2012:00&to=2025-01-02%2000:00");
+        assertEquals(200, response.statusCode());
+        Task[] tasks = gson.fromJson(response.body(), Task[].class);
+        assertEquals(1, tasks.length);
+        assertEquals("Вечер", tasks[0].getTaskName());
+    }
+
+    //Проверяем, что некорректные параметры дают 400
+    @Test
+    void shouldRejectInvalidParameters() throws IOException, InterruptedException {
+        assertEquals(400, send("status=UNKNOWN").statusCode());
+        assertEquals(400, send("epicId=abc").statusCode());
+        assertEquals(400, send("from=yesterday").statusCode());
+    }
+
+    private HttpResponse<String> send(String query) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/query?" + query))
+                .GET()
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -99,4 +99,66 @@ class TaskHandlerTest extends HttpTaskServerTestBase {
         assertEquals(200, response.statusCode());
         assertNull(manager.getTaskById(task.getId()));
     }
-}
\ No newline at end of file
+
+    //Проверяем, что большой список отдаётся потоком без Content-Length и разбирается целиком
+    @Test
+    void shouldStreamLargeTaskList() throws IOException, InterruptedException {
+        for (int i = 0; i < 5000; i++) {
+            manager.addTask(new Task("Задача " + i, "Описание задачи " + i, TaskStatus.NEW));
+        }
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/tasks"))
+                .GET()
+                .build();
+
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode());
+        assertTrue(response.headers().firstValue("Content-Length").isEmpty());
+        Task[] tasks = gson.fromJson(response.body(), Task[].class);
+        assertEquals(5000, tasks.length);
+        assertEquals("Задача 4999", tasks[4999].getTaskName());
+    }
+
+    //Проверяем обход списка задач страницами по курсору из заголовка X-Next-Cursor
+    @Test
+    void shouldWalkTasksByCursor() throws IOException, InterruptedException {
+        for (int i = 1; i <= 5; i++) {
+            manager.addTask(new Task("Задача " + i, "Описание", TaskStatus.NEW));
+        }
+
+        int received = 0;
+        String cursor = "0";
+        int pages = 0;
+        while (cursor != null) {
+            HttpRequest request = HttpRequest.newBuilder()
+                    .uri(URI.create("http://localhost:8080/tasks?limit=2&cursor=" + cursor))
+                    .GET()
+                    .build();
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            assertEquals(200, response.statusCode());
+
+            Task[] page = gson.fromJson(response.body(), Task[].class);
+            assertTrue(page.length <= 2, "Страница не должна превышать limit.");
+            for (Task task : page) {
+                assertEquals(++received, task.getId(), "Задачи должны идти по возрастанию id без пропусков.");
+            }
+            cursor = response.headers().firstValue("X-Next-Cursor").orElse(null);
+            pages++;
+        }
+        assertEquals(5, received);
+        assertEquals(3, pages);
+    }
+
+    //Проверяем, что некорректные параметры страницы дают 400
+    @Test
+    void shouldRejectInvalidPageParameters() throws IOException, InterruptedException {
+        for (String query : new String[]{"limit=0", "limit=abc", "cursor=-1", "limit=100000"}) {
+            HttpRequest request = HttpRequest.newBuilder()
+                    .uri(URI.create("http://localhost:8080/tasks?" + query))
+                    .GET()
+                    .build();
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            assertEquals(400, response.statusCode(), query);
+        }
+    }
+}
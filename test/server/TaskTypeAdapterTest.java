@@ -0,0 +1,89 @@
+package server;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import main.model.Epic;
+import main.model.Subtask;
+import main.model.Task;
+import main.model.TaskStatus;
+import main.server.DurationTypeAdapter;
+import main.server.GsonFactory;
+import main.server.LocalDateTimeTypeAdapter;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskTypeAdapterTest {
+    private final Gson gson = GsonFactory.createGson();
+    //Прежняя конфигурация: модели сериализуются рефлексией
+    private final Gson reflectiveGson = new GsonBuilder()
+            .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeTypeAdapter())
+            .registerTypeAdapter(Duration.class, new DurationTypeAdapter())
+            .create();
+
+    //Проверяем, что специализированные адаптеры пишут тот же JSON, что и рефлексия
+    @Test
+    void shouldWriteSameJsonAsReflectiveGson() {
+        Task task = new Task("Задача <1>", "Описание", TaskStatus.IN_PROGRESS,
+                Duration.ofMinutes(90), LocalDateTime.of(2025, 3, 7, 9, 5));
+        task.setId(1);
+        Task noTime = new Task("Без времени", null, TaskStatus.NEW);
+        noTime.setId(2);
+        Epic epic = new Epic("Эпик", "Описание эпика");
+        epic.setId(3);
+        epic.setSubtasksIds(List.of(4, 5));
+        epic.setStartTime(LocalDateTime.of(2025, 3, 8, 10, 0));
+        epic.setEndTime(LocalDateTime.of(2025, 3, 8, 12, 30));
+        Subtask subtask = new Subtask("Подзадача", "Описание", TaskStatus.DONE,
+                Duration.ofMinutes(15), LocalDateTime.of(999, 12, 31, 23, 59), 3);
+        subtask.setId(4);
+
+        for (Task value : List.of(task, noTime, epic, subtask)) {
+            assertEquals(reflectiveGson.toJson(value), gson.toJson(value));
+        }
+        List<Task> history = List.of(task, epic, subtask);
+        assertEquals(reflectiveGson.toJson(history), gson.toJson(history));
+    }
+
+    //Проверяем, что JSON читается в те же значения полей
+    @Test
+    void shouldReadSameFieldsAsReflectiveGson() {
+        String json = "{\"epicId\":3,\"taskName\":\"Подзадача\",\"id\":4,\"description\":null,"
+                + "\"status\":\"DONE\",\"duration\":15,\"startTime\":\"2025-02-30 08:00\",\"unknown\":[1,{}]}";
+
+        Subtask expected = reflectiveGson.fromJson(json, Subtask.class);
+        Subtask actual = gson.fromJson(json, Subtask.class);
+        assertEquals(expected.getId(), actual.getId());
+        assertEquals(expected.getEpicId(), actual.getEpicId());
+        assertEquals(expected.getTaskName(), actual.getTaskName());
+        assertNull(actual.getDescription());
+        assertEquals(expected.getStatus(), actual.getStatus());
+        assertEquals(expected.getDuration(), actual.getDuration());
+        assertEquals(expected.getStartTime(), actual.getStartTime());
+    }
+
+    //Проверяем полный цикл записи и чтения эпика
+    @Test
+    void shouldRoundTripEpic() {
+        Epic epic = new Epic("Эпик", "Описание");
+        epic.setId(7);
+        epic.setSubtasksIds(List.of(8, 9));
+        epic.setStatus(TaskStatus.IN_PROGRESS);
+        epic.setDuration(Duration.ofMinutes(45));
+        epic.setStartTime(LocalDateTime.of(2025, 1, 1, 0, 0));
+        epic.setEndTime(LocalDateTime.of(2025, 1, 1, 0, 45));
+
+        Epic restored = gson.fromJson(gson.toJson(epic), Epic.class);
+        assertEquals(epic.getId(), restored.getId());
+        assertEquals(epic.getTaskName(), restored.getTaskName());
+        assertEquals(epic.getSubtasksIds(), restored.getSubtasksIds());
+        assertEquals(epic.getStatus(), restored.getStatus());
+        assertEquals(epic.getDuration(), restored.getDuration());
+        assertEquals(epic.getStartTime(), restored.getStartTime());
+        assertEquals(epic.getEndTime(), restored.getEndTime());
+    }
+}